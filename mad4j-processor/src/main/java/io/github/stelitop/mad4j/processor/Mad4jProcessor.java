@@ -0,0 +1,402 @@
+package io.github.stelitop.mad4j.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Annotation processor for mad4j event methods.</p>
+ *
+ * <p>The signatures of all methods annotated with <code>@SlashCommand</code>,
+ * <code>@Command</code> and <code>@ComponentInteraction</code> are verified at compile time,
+ * so incorrectly declared methods fail the build instead of the application start.</p>
+ *
+ * <p>For every class containing such methods, a class implementing
+ * <code>io.github.stelitop.mad4j.utils.GeneratedInvokers</code> is generated. It invokes the
+ * methods directly, so at runtime they are called without reflection or method handles. Only
+ * the exceptions thrown by the methods are wrapped in an
+ * <code>InvocationTargetException</code>, while arguments of the wrong type and errors are
+ * thrown as they are. The generated classes are registered as services in
+ * <code>META-INF/services/io.github.stelitop.mad4j.utils.GeneratedInvokers</code>.</p>
+ */
+@SupportedAnnotationTypes({
+        Mad4jProcessor.SLASH_COMMAND,
+        Mad4jProcessor.COMMAND,
+        Mad4jProcessor.COMPONENT_INTERACTION
+})
+public class Mad4jProcessor extends AbstractProcessor {
+
+    static final String SLASH_COMMAND = "io.github.stelitop.mad4j.commands.SlashCommand";
+    static final String COMMAND = "io.github.stelitop.mad4j.commands.Command";
+    static final String COMPONENT_INTERACTION = "io.github.stelitop.mad4j.commands.components.ComponentInteraction";
+
+    private static final String COMMAND_PARAM = "io.github.stelitop.mad4j.commands.CommandParam";
+    private static final String DEFAULT_VALUE = "io.github.stelitop.mad4j.commands.DefaultValue";
+    private static final String INTERACTION_EVENT = "io.github.stelitop.mad4j.commands.InteractionEvent";
+    private static final String EVENT_USER = "io.github.stelitop.mad4j.commands.convenience.EventUser";
+    private static final String EVENT_USER_ID = "io.github.stelitop.mad4j.commands.convenience.EventUserId";
+    private static final String CUSTOM_ID_GROUP = "io.github.stelitop.mad4j.commands.components.CustomIdGroup";
+
+    private static final String CHAT_INPUT_EVENT = "discord4j.core.event.domain.interaction.ChatInputInteractionEvent";
+    private static final String USER = "discord4j.core.object.entity.User";
+
+    private static final String GENERATED_INVOKERS = "io.github.stelitop.mad4j.utils.GeneratedInvokers";
+    private static final String GENERATED_SUFFIX = "_Mad4jInvokers";
+
+    /**
+     * The types that slash command parameters can have, matching
+     * <code>io.github.stelitop.mad4j.utils.OptionType.paramClassToCode</code>.
+     */
+    private static final Set<String> SLASH_PARAM_TYPES = Set.of(
+            "long", "java.lang.Long", "boolean", "java.lang.Boolean", "java.lang.String",
+            USER, "discord4j.core.object.entity.channel.MessageChannel", "discord4j.core.object.entity.Role",
+            "double", "java.lang.Double", "float", "java.lang.Float");
+
+    private static final Set<String> CUSTOM_ID_GROUP_TYPES = Set.of(
+            "java.lang.String", "long", "java.lang.Long", "int", "java.lang.Integer");
+
+    private static final Pattern NAMED_GROUP_PATTERN = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+    private Filer filer;
+
+    /**
+     * The names of all generated classes, written into the service file in the last round.
+     */
+    private final Set<String> generatedClasses = new TreeSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        Map<TypeElement, List<ExecutableElement>> methodsByClass = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.METHOD) continue;
+                ExecutableElement method = (ExecutableElement) element;
+                TypeElement owner = (TypeElement) method.getEnclosingElement();
+                List<ExecutableElement> methods = methodsByClass.computeIfAbsent(owner, x -> new ArrayList<>());
+                if (!methods.contains(method)) methods.add(method);
+            }
+        }
+
+        for (var entry : methodsByClass.entrySet()) {
+            boolean valid = true;
+            for (ExecutableElement method : entry.getValue()) {
+                valid &= verifyMethod(method);
+            }
+            if (valid && isAccessible(entry.getKey())) {
+                generateInvokers(entry.getKey(), entry.getValue());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifies the signature of an event method, reporting all problems as compile errors.
+     *
+     * @param method The method.
+     * @return True if the method is correctly declared.
+     */
+    private boolean verifyMethod(ExecutableElement method) {
+        if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+            return error(method, "Event methods must be public!");
+        }
+
+        boolean valid = true;
+        AnnotationMirror slashCommand = getAnnotation(method, SLASH_COMMAND);
+        AnnotationMirror command = getAnnotation(method, COMMAND);
+        AnnotationMirror component = getAnnotation(method, COMPONENT_INTERACTION);
+
+        if (slashCommand != null || (command != null && isSlashCommand(command))) {
+            AnnotationMirror nameSource = slashCommand != null ? slashCommand : command;
+            String name = (String) getValue(nameSource, "name");
+            if (name.split(" ").length > 3) {
+                valid = error(method, "The slash command name " + name + " has too many parts! Maximum 3.");
+            }
+            for (VariableElement param : method.getParameters()) {
+                valid &= verifySlashCommandParam(param);
+            }
+        }
+        if (component != null) {
+            String regex = (String) getValue(component, "regex");
+            Set<String> groupNames = new HashSet<>();
+            Matcher matcher = NAMED_GROUP_PATTERN.matcher(regex);
+            while (matcher.find()) groupNames.add(matcher.group(1));
+
+            for (VariableElement param : method.getParameters()) {
+                AnnotationMirror group = getAnnotation(param, CUSTOM_ID_GROUP);
+                if (group == null) continue;
+                String groupName = (String) getValue(group, "value");
+                if (!groupNames.contains(groupName)) {
+                    valid = error(param, "The regex has no capture group named \"" + groupName + "\"!");
+                }
+                TypeMirror type = param.asType();
+                if (!CUSTOM_ID_GROUP_TYPES.contains(erasedName(type)) && !isEnum(type)) {
+                    valid = error(param, "The @CustomIdGroup type " + erasedName(type) + " is not supported!");
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Verifies a parameter of a slash command method, in the same way as the
+     * <code>SlashCommandRegistrar</code> does at runtime.
+     *
+     * @param param The parameter.
+     * @return True if the parameter is correctly declared.
+     */
+    private boolean verifySlashCommandParam(VariableElement param) {
+        String typeName = erasedName(param.asType());
+        List<String> present = new ArrayList<>();
+        boolean valid = true;
+
+        if (getAnnotation(param, COMMAND_PARAM) != null) {
+            present.add("@CommandParam");
+            if (!SLASH_PARAM_TYPES.contains(typeName)) {
+                valid = error(param, "Slash command parameter has an invalid type " + typeName + "!");
+            }
+            if (getAnnotation(param, DEFAULT_VALUE) != null && param.asType().getKind().isPrimitive()) {
+                valid = error(param, "Slash command parameter cannot have a primitive type with a default value! "
+                        + "Long, Double and Boolean should be used instead.");
+            }
+        }
+        if (getAnnotation(param, INTERACTION_EVENT) != null) {
+            present.add("@InteractionEvent");
+            if (!typeName.equals(CHAT_INPUT_EVENT)) {
+                valid = error(param, "@InteractionEvent parameter must be of type " + CHAT_INPUT_EVENT + " for Slash Commands!");
+            }
+        }
+        if (getAnnotation(param, EVENT_USER) != null) {
+            present.add("@EventUser");
+            if (!typeName.equals(USER)) {
+                valid = error(param, "@EventUser parameter must be of type " + USER + "!");
+            }
+        }
+        if (getAnnotation(param, EVENT_USER_ID) != null) {
+            present.add("@EventUserId");
+            if (!typeName.equals("long") && !typeName.equals("java.lang.Long")) {
+                valid = error(param, "@EventUserId parameter must be of type long!");
+            }
+        }
+        if (present.size() > 1) {
+            valid = error(param, "Parameter has too many annotations, namely: " + String.join(", ", present));
+        }
+        return valid;
+    }
+
+    /**
+     * Checks whether a <code>@Command</code> is registered as a slash command. Commands
+     * without explicit types are slash commands by default.
+     */
+    private boolean isSlashCommand(AnnotationMirror command) {
+        @SuppressWarnings("unchecked")
+        List<? extends AnnotationValue> commandTypes = (List<? extends AnnotationValue>) getValue(command, "types");
+        if (commandTypes.isEmpty()) return true;
+        for (AnnotationValue type : commandTypes) {
+            if (((VariableElement) type.getValue()).getSimpleName().contentEquals("Slash")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the generated class can call the methods of a class from its package.
+     * Private classes, and inner classes that are not static, cannot be used.
+     */
+    private boolean isAccessible(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) return false;
+            if (e.getEnclosingElement() instanceof TypeElement && !e.getModifiers().contains(Modifier.STATIC)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Generates the class that invokes the event methods of a class directly.
+     *
+     * @param type The class.
+     * @param methods The event methods of the class.
+     */
+    private void generateInvokers(TypeElement type, List<ExecutableElement> methods) {
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        // The binary name keeps the '$' of nested classes, so Outer.Inner and Outer_Inner get different names.
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + GENERATED_SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        String targetName = type.getQualifiedName().toString();
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) sb.append("package ").append(packageName).append(";\n\n");
+        sb.append("/**\n * Generated by the mad4j annotation processor. Do not edit.\n */\n");
+        sb.append("public final class ").append(simpleName).append(" implements ").append(GENERATED_INVOKERS).append(" {\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public Class<?> getTargetClass() {\n");
+        sb.append("        return ").append(targetName).append(".class;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    @SuppressWarnings(\"unchecked\")\n");
+        sb.append("    public io.github.stelitop.mad4j.utils.MethodInvoker create(Object bean, String signature) {\n");
+        sb.append("        ").append(targetName).append(" target = (").append(targetName).append(") bean;\n");
+        sb.append("        switch (signature) {\n");
+        for (ExecutableElement method : methods) {
+            sb.append("            case \"").append(signatureOf(method)).append("\":\n");
+            sb.append("                return args -> {\n");
+            // The arguments are cast outside of the try, so that wrong arguments are not
+            // reported as exceptions of the method.
+            List<? extends VariableElement> params = method.getParameters();
+            StringJoiner arguments = new StringJoiner(", ");
+            for (int i = 0; i < params.size(); i++) {
+                String paramType = erasedName(params.get(i).asType());
+                sb.append("                    ").append(paramType).append(" arg").append(i)
+                        .append(" = (").append(paramType).append(") args[").append(i).append("];\n");
+                arguments.add("arg" + i);
+            }
+            sb.append("                    try {\n");
+            String receiver = method.getModifiers().contains(Modifier.STATIC) ? targetName : "target";
+            String call = receiver + "." + method.getSimpleName() + "(" + arguments + ")";
+            if (method.getReturnType().getKind() == TypeKind.VOID) {
+                sb.append("                        ").append(call).append(";\n");
+                sb.append("                        return null;\n");
+            } else {
+                sb.append("                        return ").append(call).append(";\n");
+            }
+            // Methods can declare any Throwable, so everything except errors is wrapped.
+            sb.append("                    } catch (Error e) {\n");
+            sb.append("                        throw e;\n");
+            sb.append("                    } catch (Throwable e) {\n");
+            sb.append("                        throw new java.lang.reflect.InvocationTargetException(e);\n");
+            sb.append("                    }\n");
+            sb.append("                };\n");
+        }
+        sb.append("            default:\n");
+        sb.append("                return null;\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        try {
+            JavaFileObject file = filer.createSourceFile(qualifiedName, type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(sb.toString());
+            }
+            generatedClasses.add(qualifiedName);
+        } catch (IOException e) {
+            error(type, "Could not generate the invokers of " + targetName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the signature of a method in the same format as
+     * <code>GeneratedInvokers.signatureOf(Method)</code>.
+     */
+    private String signatureOf(ExecutableElement method) {
+        StringJoiner joiner = new StringJoiner(",", "(", ")");
+        for (VariableElement param : method.getParameters()) {
+            joiner.add(erasedName(param.asType()));
+        }
+        return method.getSimpleName() + joiner.toString();
+    }
+
+    /**
+     * Gets the canonical name of the erased type, in the same format as
+     * <code>Class.getCanonicalName()</code>. The name is built from the elements of the type,
+     * because the string form of a type mirror includes its TYPE_USE annotations.
+     */
+    private String erasedName(TypeMirror type) {
+        TypeMirror erased = types.erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return erasedName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+        }
+        return erased.getKind().name().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        Element element = types.asElement(type);
+        return element != null && element.getKind() == ElementKind.ENUM;
+    }
+
+    private void writeServiceFile() {
+        if (generatedClasses.isEmpty()) return;
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+                    "META-INF/services/" + GENERATED_INVOKERS);
+            try (Writer writer = file.openWriter()) {
+                for (String name : generatedClasses) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not write the generated invokers service file: " + e.getMessage());
+        }
+    }
+
+    private AnnotationMirror getAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) return mirror;
+        }
+        return null;
+    }
+
+    private Object getValue(AnnotationMirror mirror, String name) {
+        for (var entry : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Reports a compile error on an element.
+     *
+     * @return Always false, so that it can be used as the result of a verification.
+     */
+    private boolean error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
@@ -0,0 +1,356 @@
+package test.io.github.stelitop.mad4j.processor;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.stelitop.mad4j.processor.Mad4jProcessor;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Mad4jProcessorTest {
+
+    /**
+     * Minimal copies of the mad4j types the processor and the generated code use. The
+     * processor only knows them by name, so the tests don't need the mad4j module.
+     */
+    private static final List<JavaFileObject> MAD4J_TYPES = List.of(
+            JavaFileObjects.forSourceString("io.github.stelitop.mad4j.commands.SlashCommand", """
+                    package io.github.stelitop.mad4j.commands;
+                    public @interface SlashCommand {
+                        String name();
+                        String description() default "";
+                    }
+                    """),
+            JavaFileObjects.forSourceString("io.github.stelitop.mad4j.commands.CommandParam", """
+                    package io.github.stelitop.mad4j.commands;
+                    public @interface CommandParam {
+                        String name() default "";
+                    }
+                    """),
+            JavaFileObjects.forSourceString("io.github.stelitop.mad4j.commands.components.ComponentInteraction", """
+                    package io.github.stelitop.mad4j.commands.components;
+                    public @interface ComponentInteraction {
+                        String regex();
+                    }
+                    """),
+            JavaFileObjects.forSourceString("io.github.stelitop.mad4j.commands.components.CustomIdGroup", """
+                    package io.github.stelitop.mad4j.commands.components;
+                    public @interface CustomIdGroup {
+                        String value();
+                    }
+                    """),
+            JavaFileObjects.forSourceString("io.github.stelitop.mad4j.utils.MethodInvoker", """
+                    package io.github.stelitop.mad4j.utils;
+                    public interface MethodInvoker {
+                        Object invoke(Object... args) throws IllegalAccessException, java.lang.reflect.InvocationTargetException;
+                    }
+                    """),
+            JavaFileObjects.forSourceString("io.github.stelitop.mad4j.utils.GeneratedInvokers", """
+                    package io.github.stelitop.mad4j.utils;
+                    public interface GeneratedInvokers {
+                        Class<?> getTargetClass();
+                        MethodInvoker create(Object bean, String signature);
+                    }
+                    """)
+    );
+
+    private static Compilation compile(JavaFileObject... sources) {
+        List<JavaFileObject> files = new ArrayList<>(MAD4J_TYPES);
+        files.addAll(List.of(sources));
+        return javac().withProcessors(new Mad4jProcessor()).compile(files);
+    }
+
+    @Test
+    public void slashCommandNamesHaveAtMostThreeParts() {
+        JavaFileObject source = JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "a b c d")
+                    public void tooLong() {}
+                }
+                """);
+        Compilation compilation = compile(source);
+
+        assertThat(compilation).hadErrorContaining("The slash command name a b c d has too many parts! Maximum 3.")
+                .inFile(source)
+                .onLineContaining("tooLong");
+    }
+
+    @Test
+    public void eventMethodsMustBePublic() {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "hidden")
+                    void hidden() {}
+                    @SlashCommand(name = "shared")
+                    public static void shared() {}
+                }
+                """));
+
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorCount(1);
+        assertThat(compilation).hadErrorContaining("Event methods must be public!");
+    }
+
+    @Test
+    public void staticMethodsAreInvokedOnTheirClass() {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "shared")
+                    public static void shared() {}
+                }
+                """));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("test.Commands_Mad4jInvokers")
+                .contentsAsUtf8String()
+                .contains("test.Commands.shared();");
+    }
+
+    @Test
+    public void slashCommandParamsMustHaveASupportedType() {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.CommandParam;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "count")
+                    public void count(@CommandParam(name = "amount") int amount) {}
+                }
+                """));
+
+        assertThat(compilation).hadErrorContaining("Slash command parameter has an invalid type int!");
+    }
+
+    @Test
+    public void typeUseAnnotationsAreNotPartOfTheType() {
+        Compilation compilation = compile(
+                JavaFileObjects.forSourceString("test.Nullable", """
+                        package test;
+                        @java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE_USE)
+                        public @interface Nullable {}
+                        """),
+                JavaFileObjects.forSourceString("test.Commands", """
+                        package test;
+                        import io.github.stelitop.mad4j.commands.CommandParam;
+                        import io.github.stelitop.mad4j.commands.SlashCommand;
+                        public class Commands {
+                            @SlashCommand(name = "greet")
+                            public void greet(@CommandParam(name = "x") @Nullable String x, @Nullable String[] rest) {}
+                        }
+                        """));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("test.Commands_Mad4jInvokers")
+                .contentsAsUtf8String()
+                .contains("case \"greet(java.lang.String,java.lang.String[])\":");
+    }
+
+    @Test
+    public void customIdGroupsMustExistInTheRegex() {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Buttons", """
+                package test;
+                import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+                import io.github.stelitop.mad4j.commands.components.CustomIdGroup;
+                public class Buttons {
+                    @ComponentInteraction(regex = "page-(?<page>[0-9]+)")
+                    public void page(@CustomIdGroup("index") long index) {}
+                }
+                """));
+
+        assertThat(compilation).hadErrorContaining("The regex has no capture group named \"index\"!");
+    }
+
+    @Test
+    public void customIdGroupsMustHaveASupportedType() {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Buttons", """
+                package test;
+                import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+                import io.github.stelitop.mad4j.commands.components.CustomIdGroup;
+                public class Buttons {
+                    @ComponentInteraction(regex = "page-(?<page>[0-9]+)")
+                    public void page(@CustomIdGroup("page") double page) {}
+                }
+                """));
+
+        assertThat(compilation).hadErrorContaining("The @CustomIdGroup type double is not supported!");
+    }
+
+    @Test
+    public void invokersAndServiceFileAreGenerated() {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.CommandParam;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "add")
+                    public long add(@CommandParam(name = "a") long a, @CommandParam(name = "b") Long b) {
+                        return a + b;
+                    }
+                }
+                """));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("test.Commands_Mad4jInvokers")
+                .contentsAsUtf8String()
+                .contains("case \"add(long,java.lang.Long)\":");
+        assertThat(compilation).generatedFile(StandardLocation.CLASS_OUTPUT,
+                        "META-INF/services/io.github.stelitop.mad4j.utils.GeneratedInvokers")
+                .contentsAsUtf8String()
+                .isEqualTo("test.Commands_Mad4jInvokers\n");
+    }
+
+    @Test
+    public void nestedClassesDoNotCollideWithTopLevelClasses() {
+        Compilation compilation = compile(
+                JavaFileObjects.forSourceString("test.Outer", """
+                        package test;
+                        import io.github.stelitop.mad4j.commands.SlashCommand;
+                        public class Outer {
+                            public static class Inner {
+                                @SlashCommand(name = "nested")
+                                public void nested() {}
+                            }
+                        }
+                        """),
+                JavaFileObjects.forSourceString("test.Outer_Inner", """
+                        package test;
+                        import io.github.stelitop.mad4j.commands.SlashCommand;
+                        public class Outer_Inner {
+                            @SlashCommand(name = "toplevel")
+                            public void topLevel() {}
+                        }
+                        """));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation).generatedSourceFile("test.Outer$Inner_Mad4jInvokers");
+        assertThat(compilation).generatedSourceFile("test.Outer_Inner_Mad4jInvokers");
+        assertThat(compilation).generatedFile(StandardLocation.CLASS_OUTPUT,
+                        "META-INF/services/io.github.stelitop.mad4j.utils.GeneratedInvokers")
+                .contentsAsUtf8String()
+                .isEqualTo("test.Outer$Inner_Mad4jInvokers\ntest.Outer_Inner_Mad4jInvokers\n");
+    }
+
+    @Test
+    public void invokersOnlyWrapExceptionsOfTheMethod() throws Throwable {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.CommandParam;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "run")
+                    public String run(@CommandParam(name = "mode") String mode) throws Exception {
+                        switch (mode) {
+                            case "checked": throw new Exception("checked");
+                            case "unchecked": throw new IllegalStateException("unchecked");
+                            case "error": throw new AssertionError("error");
+                            default: return mode;
+                        }
+                    }
+                }
+                """));
+        assertThat(compilation).succeeded();
+
+        ClassLoader classLoader = loadClasses(compilation);
+        Object bean = classLoader.loadClass("test.Commands").getConstructor().newInstance();
+        Object invokers = classLoader.loadClass("test.Commands_Mad4jInvokers").getConstructor().newInstance();
+        Object invoker = invokers.getClass().getMethod("create", Object.class, String.class)
+                .invoke(invokers, bean, "run(java.lang.String)");
+        var invoke = classLoader.loadClass("io.github.stelitop.mad4j.utils.MethodInvoker").getMethod("invoke", Object[].class);
+
+        assertEquals("ok", unwrap(() -> invoke.invoke(invoker, (Object) new Object[]{"ok"})));
+        Throwable checked = assertThrows(InvocationTargetException.class,
+                () -> unwrap(() -> invoke.invoke(invoker, (Object) new Object[]{"checked"})));
+        assertEquals("checked", checked.getCause().getMessage());
+        Throwable unchecked = assertThrows(InvocationTargetException.class,
+                () -> unwrap(() -> invoke.invoke(invoker, (Object) new Object[]{"unchecked"})));
+        assertInstanceOf(IllegalStateException.class, unchecked.getCause());
+        assertThrows(AssertionError.class, () -> unwrap(() -> invoke.invoke(invoker, (Object) new Object[]{"error"})));
+        assertThrows(ClassCastException.class, () -> unwrap(() -> invoke.invoke(invoker, (Object) new Object[]{5L})));
+    }
+
+    @Test
+    public void invokersWrapThrowablesOfTheMethod() throws Throwable {
+        Compilation compilation = compile(JavaFileObjects.forSourceString("test.Commands", """
+                package test;
+                import io.github.stelitop.mad4j.commands.SlashCommand;
+                public class Commands {
+                    @SlashCommand(name = "run")
+                    public void run() throws Throwable {
+                        throw new Throwable("thrown");
+                    }
+                }
+                """));
+        assertThat(compilation).succeeded();
+
+        ClassLoader classLoader = loadClasses(compilation);
+        Object bean = classLoader.loadClass("test.Commands").getConstructor().newInstance();
+        Object invokers = classLoader.loadClass("test.Commands_Mad4jInvokers").getConstructor().newInstance();
+        Object invoker = invokers.getClass().getMethod("create", Object.class, String.class)
+                .invoke(invokers, bean, "run()");
+        var invoke = classLoader.loadClass("io.github.stelitop.mad4j.utils.MethodInvoker").getMethod("invoke", Object[].class);
+
+        Throwable thrown = assertThrows(InvocationTargetException.class,
+                () -> unwrap(() -> invoke.invoke(invoker, (Object) new Object[0])));
+        assertEquals("thrown", thrown.getCause().getMessage());
+    }
+
+    private interface ReflectiveCall {
+        Object call() throws Exception;
+    }
+
+    /**
+     * Calls the invoker reflectively, and rethrows what the invoker itself threw.
+     */
+    private static Object unwrap(ReflectiveCall call) throws Throwable {
+        try {
+            return call.call();
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Creates a class loader for the classes compiled in a compilation.
+     */
+    private static ClassLoader loadClasses(Compilation compilation) throws IOException {
+        Map<String, byte[]> classes = new HashMap<>();
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            if (file.getKind() != JavaFileObject.Kind.CLASS) continue;
+            String path = file.toUri().getPath();
+            String name = path.substring(path.indexOf("CLASS_OUTPUT/") + "CLASS_OUTPUT/".length(), path.length() - ".class".length())
+                    .replace('/', '.');
+            try (InputStream in = file.openInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                in.transferTo(out);
+                classes.put(name, out.toByteArray());
+            }
+        }
+        return new ClassLoader(Mad4jProcessorTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                byte[] bytes = classes.get(name);
+                if (bytes == null) throw new ClassNotFoundException(name);
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+    }
+}
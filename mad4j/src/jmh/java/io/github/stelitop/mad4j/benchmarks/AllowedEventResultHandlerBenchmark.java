@@ -0,0 +1,67 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.spec.EmbedCreateSpec;
+import io.github.stelitop.mad4j.events.AllowedEventResultHandler;
+import io.github.stelitop.mad4j.interactions.EventResponse;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures transforming the results of slash command methods into the responses to their
+ * events, for every supported type of result and for an unsupported one.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AllowedEventResultHandlerBenchmark {
+
+    private BenchmarkApplication application;
+    private AllowedEventResultHandler allowedEventResultHandler;
+    private ChatInputInteractionEvent event;
+    private Mono<Void> monoResult;
+    private EventResponse eventResponseResult;
+    private EmbedCreateSpec embedResult;
+
+    @Setup
+    public void setup() {
+        application = BenchmarkApplication.start(0, 0);
+        allowedEventResultHandler = application.getBean(AllowedEventResultHandler.class);
+        event = application.createSlashCommandEvent("command");
+        monoResult = Mono.empty();
+        eventResponseResult = EventResponse.replyPlaintext("Hello!");
+        embedResult = EmbedCreateSpec.builder().title("Hello!").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public ActionResult<Mono<Void>> string() {
+        return allowedEventResultHandler.handleEventResult("Hello!", event);
+    }
+
+    @Benchmark
+    public ActionResult<Mono<Void>> mono() {
+        return allowedEventResultHandler.handleEventResult(monoResult, event);
+    }
+
+    @Benchmark
+    public ActionResult<Mono<Void>> eventResponse() {
+        return allowedEventResultHandler.handleEventResult(eventResponseResult, event);
+    }
+
+    @Benchmark
+    public ActionResult<Mono<Void>> embed() {
+        return allowedEventResultHandler.handleEventResult(embedResult, event);
+    }
+
+    @Benchmark
+    public ActionResult<Mono<Void>> unsupported() {
+        return allowedEventResultHandler.handleEventResult(42, event);
+    }
+}
@@ -0,0 +1,316 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import discord4j.core.DiscordClient;
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.Event;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.interaction.ComponentInteractionEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.object.entity.Message;
+import discord4j.discordjson.Id;
+import discord4j.discordjson.json.ApplicationCommandInteractionData;
+import discord4j.discordjson.json.ApplicationCommandInteractionOptionData;
+import discord4j.discordjson.json.ImmutableInteractionData;
+import discord4j.discordjson.json.InteractionData;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.json.UserData;
+import discord4j.discordjson.possible.Possible;
+import discord4j.rest.service.ApplicationService;
+import io.github.stelitop.mad4j.DiscordEventsMetadata;
+import io.github.stelitop.mad4j.DiscordEventsScanner;
+import io.github.stelitop.mad4j.commands.SlashCommand;
+import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>Starts mad4j for the benchmarks, the same way as the tests do, with a mocked discord
+ * client. Instead of scanning beans, the commands and component interactions are synthetic
+ * copies of the methods of {@link BenchmarkCommands}, so that any amount of them can be
+ * declared.</p>
+ *
+ * <p>Every handler the listeners register with the client is kept, so the benchmarks can
+ * pass events to them the same way the gateway does.</p>
+ */
+public class BenchmarkApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final RegisteredHandlers handlers;
+
+    /**
+     * The handlers the listeners registered with the mocked client, by their event type.
+     */
+    private static class RegisteredHandlers {
+        private final Map<Class<?>, Function<Object, Publisher<?>>> byEventType = new ConcurrentHashMap<>();
+    }
+
+    private BenchmarkApplication(ConfigurableApplicationContext context, RegisteredHandlers handlers) {
+        this.context = context;
+        this.handlers = handlers;
+    }
+
+    /**
+     * Starts mad4j with synthetic commands and component interactions, and the text command
+     * "give" of {@link BenchmarkCommands}.
+     *
+     * @param commands The amount of slash commands, named "command0", "command1" and so on.
+     * @param routes The amount of button interactions, with the regexes "route0-(?&lt;page&gt;\d+)",
+     *     "route1-(?&lt;page&gt;\d+)" and so on.
+     * @param properties Additional properties of the application, as "key=value".
+     * @return The started application.
+     */
+    public static BenchmarkApplication start(int commands, int routes, String... properties) {
+        RegisteredHandlers handlers = new RegisteredHandlers();
+        List<String> allProperties = new ArrayList<>(List.of(
+                "spring.main.banner-mode=off",
+                "logging.level.root=warn",
+                "mad4j.slashcommands.update=false"));
+        allProperties.addAll(Arrays.asList(properties));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(allProperties.toArray(new String[0]))
+                .initializers(ctx -> {
+                    ctx.getBeanFactory().registerSingleton("benchmarkHandlers", handlers);
+                    ctx.getBeanFactory().registerSingleton("benchmarkMetadata", createMetadata(commands, routes));
+                })
+                .run();
+        return new BenchmarkApplication(context, handlers);
+    }
+
+    /**
+     * Gets a bean of the application.
+     *
+     * @param type The class of the bean.
+     * @return The bean.
+     * @param <T> The type of the bean.
+     */
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Gets the handler a listener registered for an event type.
+     *
+     * @param eventType The class of the events.
+     * @return The handler.
+     * @param <E> The type of the events.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event> Function<E, Mono<Void>> getHandler(Class<E> eventType) {
+        Function<Object, Publisher<?>> handler = handlers.byEventType.get(eventType);
+        if (handler == null) throw new IllegalStateException("No handler was registered for " + eventType.getName() + "!");
+        return event -> (Mono<Void>) handler.apply(event);
+    }
+
+    /**
+     * Creates a slash command event, as in the tests of the slash commands.
+     *
+     * @param name The name of the command.
+     * @param options The options of the command.
+     * @return The event.
+     */
+    public ChatInputInteractionEvent createSlashCommandEvent(String name, ApplicationCommandInteractionOptionData... options) {
+        GatewayDiscordClient client = getBean(GatewayDiscordClient.class);
+        var data = ApplicationCommandInteractionData.builder().name(name);
+        for (var option : options) {
+            data.addOption(option);
+        }
+        return new ChatInputInteractionEvent(client, null, new Interaction(client, createInteractionData(
+                2, // application command
+                data.build())));
+    }
+
+    /**
+     * Creates the event of clicking a button.
+     *
+     * @param customId The custom id of the button.
+     * @return The event.
+     */
+    public ButtonInteractionEvent createButtonEvent(String customId) {
+        GatewayDiscordClient client = getBean(GatewayDiscordClient.class);
+        return new ButtonInteractionEvent(client, null, new Interaction(client, createInteractionData(
+                3, // message component
+                ApplicationCommandInteractionData.builder()
+                        .customId(customId)
+                        .componentType(2) // button
+                        .build())));
+    }
+
+    /**
+     * Creates the event of a message sent by a user outside of guilds, whose prefix is always
+     * the default one.
+     *
+     * @param content The content of the message.
+     * @return The event.
+     */
+    public MessageCreateEvent createMessageEvent(String content) {
+        GatewayDiscordClient client = getBean(GatewayDiscordClient.class);
+        MessageData data = MessageData.builder()
+                .id(Id.of("0"))
+                .channelId(Id.of("0"))
+                .author(UserData.builder()
+                        .id(Id.of("0"))
+                        .username("user")
+                        .discriminator("0")
+                        .build())
+                .content(content)
+                .timestamp("2023-01-01T00:00:00.000000+00:00")
+                .tts(false)
+                .mentionEveryone(false)
+                .pinned(false)
+                .type(0) // default
+                .build();
+        return new MessageCreateEvent(client, null, new Message(client, data), null, null);
+    }
+
+    private static InteractionData createInteractionData(int type, ApplicationCommandInteractionData data) {
+        return ImmutableInteractionData.of(
+                Id.of("0"),
+                Id.of("0"),
+                type,
+                Possible.of(data),
+                Possible.absent(),
+                Possible.absent(),
+                Possible.absent(),
+                Possible.absent(),
+                Possible.absent(),
+                "token",
+                1, // version
+                Possible.absent(),
+                Possible.absent(),
+                Possible.absent(),
+                Possible.absent()
+        );
+    }
+
+    private static DiscordEventsMetadata createMetadata(int commands, int routes) {
+        BenchmarkCommands bean = new BenchmarkCommands();
+        Method add = getMethod("add");
+        Method page = getMethod("page");
+
+        List<DiscordEventsMetadata.EventMethod> commandMethods = new ArrayList<>(commands);
+        for (int i = 0; i < commands; i++) {
+            commandMethods.add(new DiscordEventsMetadata.EventMethod(bean, add, getParameters(add),
+                    List.of(new SyntheticSlashCommand("command" + i, "Synthetic command " + i))));
+        }
+        List<DiscordEventsMetadata.EventMethod> componentMethods = new ArrayList<>(routes);
+        for (int i = 0; i < routes; i++) {
+            componentMethods.add(new DiscordEventsMetadata.EventMethod(bean, page, getParameters(page),
+                    List.of(new SyntheticComponentInteraction(ButtonInteractionEvent.class, "route" + i + "-(?<page>\\d+)"))));
+        }
+        commandMethods.add(DiscordEventsMetadata.EventMethod.of(bean, getMethod("give")));
+        return new DiscordEventsMetadata(commandMethods, componentMethods);
+    }
+
+    private static List<DiscordEventsMetadata.EventParameter> getParameters(Method method) {
+        return Arrays.stream(method.getParameters()).map(DiscordEventsMetadata.EventParameter::of).toList();
+    }
+
+    private static Method getMethod(String name) {
+        for (Method method : BenchmarkCommands.class.getMethods()) {
+            if (method.getName().equals(name)) return method;
+        }
+        throw new IllegalStateException("No method \"" + name + "\" in " + BenchmarkCommands.class.getName() + "!");
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @SuppressWarnings("ClassExplicitlyAnnotation")
+    private record SyntheticSlashCommand(String name, String description) implements SlashCommand {
+
+        @Override
+        public long[] guilds() {
+            return new long[0];
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return SlashCommand.class;
+        }
+    }
+
+    @SuppressWarnings("ClassExplicitlyAnnotation")
+    private record SyntheticComponentInteraction(Class<? extends ComponentInteractionEvent> event, String regex)
+            implements ComponentInteraction {
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return ComponentInteraction.class;
+        }
+    }
+
+    @SpringBootConfiguration
+    @ComponentScan("io.github.stelitop.mad4j")
+    static class BenchmarkConfiguration {
+
+        @Bean
+        @Primary
+        public DiscordEventsScanner syntheticEventsScanner(ApplicationContext applicationContext, DiscordEventsMetadata benchmarkMetadata) {
+            return new DiscordEventsScanner(applicationContext) {
+                @Override
+                public DiscordEventsMetadata getMetadata() {
+                    return benchmarkMetadata;
+                }
+            };
+        }
+
+        @Bean
+        public MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        public GatewayDiscordClient gatewayDiscordClient(DiscordClient clientMock, RegisteredHandlers benchmarkHandlers) {
+            GatewayDiscordClient gatewayDiscordClientMock = mock(GatewayDiscordClient.class);
+            when(gatewayDiscordClientMock.getRestClient()).thenReturn(clientMock);
+            when(gatewayDiscordClientMock.rest()).thenReturn(clientMock);
+            when(gatewayDiscordClientMock.on(any(), any())).thenAnswer(invocation -> {
+                benchmarkHandlers.byEventType.put(invocation.getArgument(0), invocation.getArgument(1));
+                return Flux.empty();
+            });
+            return gatewayDiscordClientMock;
+        }
+
+        @Bean
+        public DiscordClient client(ApplicationService applicationServiceMock) {
+            DiscordClient clientMock = mock(DiscordClient.class);
+            when(clientMock.getApplicationId()).thenReturn(Mono.just(1L));
+            when(clientMock.getApplicationService()).thenReturn(applicationServiceMock);
+            return clientMock;
+        }
+
+        @Bean
+        public ApplicationService applicationService() {
+            return mock(ApplicationService.class);
+        }
+    }
+}
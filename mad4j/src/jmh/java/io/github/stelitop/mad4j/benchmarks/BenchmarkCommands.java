@@ -0,0 +1,51 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import io.github.stelitop.mad4j.commands.Command;
+import io.github.stelitop.mad4j.commands.CommandParam;
+import io.github.stelitop.mad4j.commands.CommandType;
+import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.commands.SlashCommand;
+import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+import io.github.stelitop.mad4j.commands.components.CustomIdGroup;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>The methods the synthetic commands and component interactions of the benchmarks are
+ * declared with. The {@link BenchmarkApplication} registers every synthetic command with
+ * {@link #add} and every synthetic component interaction with {@link #page}, under different
+ * names and regexes. The text command {@link #give} is registered once, under its own name.</p>
+ *
+ * <p>The methods only assemble their replies, so the benchmarks never reach the rest client.
+ * Replying to a message needs its channel to be fetched, so the text command does not reply.</p>
+ */
+public class BenchmarkCommands {
+
+    @SlashCommand(name = "add", description = "Adds two numbers together")
+    public Mono<Void> add(
+            @InteractionEvent ChatInputInteractionEvent event,
+            @CommandParam(name = "x", description = "The first number") long x,
+            @CommandParam(name = "y", description = "The second number") long y
+    ) {
+        return event.reply(String.valueOf(x + y));
+    }
+
+    @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "page-(?<page>\\d+)")
+    public Mono<Void> page(
+            @InteractionEvent ButtonInteractionEvent event,
+            @CustomIdGroup("page") int page
+    ) {
+        return event.reply("Page " + page);
+    }
+
+    @Command(name = "give", description = "Gives an amount of an item", types = CommandType.Text)
+    public Mono<Void> give(
+            @InteractionEvent MessageCreateEvent event,
+            @CommandParam(name = "amount", description = "The amount to give") Long amount,
+            @CommandParam(name = "item", description = "The item to give") String item
+    ) {
+        return Mono.empty();
+    }
+}
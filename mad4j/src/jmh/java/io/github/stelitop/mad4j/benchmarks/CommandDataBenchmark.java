@@ -0,0 +1,51 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import io.github.stelitop.mad4j.commands.CommandData;
+import io.github.stelitop.mad4j.commands.CommandType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding a slash command by its name, depending on how many commands are declared.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandDataBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int commands;
+
+    private BenchmarkApplication application;
+    private CommandData commandData;
+    private String lastCommand;
+    private String mixedCaseCommand;
+
+    @Setup
+    public void setup() {
+        application = BenchmarkApplication.start(commands, 0);
+        commandData = application.getBean(CommandData.class);
+        lastCommand = "command" + (commands - 1);
+        mixedCaseCommand = "Command" + (commands / 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public CommandData.Entry hit() {
+        return commandData.get(lastCommand, CommandType.Slash);
+    }
+
+    @Benchmark
+    public CommandData.Entry mixedCaseHit() {
+        return commandData.get(mixedCaseCommand, CommandType.Slash);
+    }
+
+    @Benchmark
+    public CommandData.Entry miss() {
+        return commandData.get("missing", CommandType.Slash);
+    }
+}
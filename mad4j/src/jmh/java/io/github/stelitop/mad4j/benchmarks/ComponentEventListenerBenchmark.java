@@ -0,0 +1,55 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures routing a button event to its component interaction and assembling its reply,
+ * depending on how many regexes are declared. The reply is not sent.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComponentEventListenerBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int routes;
+
+    private BenchmarkApplication application;
+    private Function<ButtonInteractionEvent, Mono<Void>> handler;
+    private ButtonInteractionEvent firstRouteEvent;
+    private ButtonInteractionEvent lastRouteEvent;
+    private ButtonInteractionEvent unknownEvent;
+
+    @Setup
+    public void setup() {
+        application = BenchmarkApplication.start(0, routes);
+        handler = application.getHandler(ButtonInteractionEvent.class);
+        firstRouteEvent = application.createButtonEvent("route0-15");
+        lastRouteEvent = application.createButtonEvent("route" + (routes - 1) + "-15");
+        unknownEvent = application.createButtonEvent("missing-15");
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Mono<Void> firstRoute() {
+        return handler.apply(firstRouteEvent);
+    }
+
+    @Benchmark
+    public Mono<Void> lastRoute() {
+        return handler.apply(lastRouteEvent);
+    }
+
+    @Benchmark
+    public Mono<Void> unknownRoute() {
+        return handler.apply(unknownEvent);
+    }
+}
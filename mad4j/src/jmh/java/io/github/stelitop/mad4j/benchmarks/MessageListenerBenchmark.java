@@ -0,0 +1,72 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import io.github.stelitop.mad4j.listeners.MessageListener;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures handling messages, from checking their prefix to invoking their text command, and
+ * splitting the content of text commands into their parts.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageListenerBenchmark {
+
+    private BenchmarkApplication application;
+    private MessageListener messageListener;
+    private Function<MessageCreateEvent, Mono<Void>> handler;
+    private MessageCreateEvent commandEvent;
+    private MessageCreateEvent unknownCommandEvent;
+    private MessageCreateEvent chatEvent;
+
+    @Setup
+    public void setup() {
+        application = BenchmarkApplication.start(0, 0);
+        messageListener = application.getBean(MessageListener.class);
+        handler = application.getHandler(MessageCreateEvent.class);
+        commandEvent = application.createMessageEvent("!give 150 \"gold coins\"");
+        unknownCommandEvent = application.createMessageEvent("!take 150 \"gold coins\"");
+        chatEvent = application.createMessageEvent("did anyone see the match yesterday?");
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Mono<Void> handleCommand() {
+        return handler.apply(commandEvent);
+    }
+
+    @Benchmark
+    public Mono<Void> handleUnknownCommand() {
+        return handler.apply(unknownCommandEvent);
+    }
+
+    @Benchmark
+    public Mono<Void> handleChatMessage() {
+        return handler.apply(chatEvent);
+    }
+
+    @Benchmark
+    public List<String> plain() {
+        return messageListener.splitMessage("give user 150 gold coins");
+    }
+
+    @Benchmark
+    public List<String> quoted() {
+        return messageListener.splitMessage("rename \"The Old Name\" \"A \\\"New\\\" Name\" now");
+    }
+
+    @Benchmark
+    public List<String> longMessage() {
+        return messageListener.splitMessage("echo lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod "
+                + "tempor incididunt ut labore et dolore magna aliqua ut enim ad minim veniam quis nostrud exercitation");
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import io.github.stelitop.mad4j.utils.MethodInvoker;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares invoking a command method through {@link Method#invoke(Object, Object...)}, which
+ * was used by the listeners before, against the precompiled {@link MethodInvoker}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MethodInvokerBenchmark {
+
+    public static class TestBean {
+        public String command(Object event, long x, long y) {
+            return (x + y) > 0 ? "positive" : "negative";
+        }
+    }
+
+    private TestBean bean;
+    private Method method;
+    private MethodInvoker methodHandleInvoker;
+    private MethodInvoker reflectiveInvoker;
+    private Object event;
+    private long x;
+    private long y;
+
+    @Setup
+    public void setup() throws Exception {
+        bean = new TestBean();
+        method = TestBean.class.getMethod("command", Object.class, long.class, long.class);
+        methodHandleInvoker = MethodInvoker.of(bean, method);
+        reflectiveInvoker = MethodInvoker.reflectiveInvoker(bean, method);
+        event = new Object();
+        x = 5;
+        y = 14;
+    }
+
+    @Benchmark
+    public Object directCall() {
+        return bean.command(event, x, y);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        return method.invoke(bean, new Object[]{event, x, y});
+    }
+
+    @Benchmark
+    public Object reflectiveInvoker() throws Exception {
+        return reflectiveInvoker.invoke(new Object[]{event, x, y});
+    }
+
+    @Benchmark
+    public Object methodHandleInvoker() throws Exception {
+        return methodHandleInvoker.invoke(new Object[]{event, x, y});
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.stelitop.mad4j.benchmarks;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.discordjson.json.ApplicationCommandInteractionOptionData;
+import io.github.stelitop.mad4j.utils.OptionType;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures a slash command event from when the gateway hands it to mad4j until its reply is
+ * assembled, through the lookup, requirements, binding and invoking of the command. The reply
+ * is not sent.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SlashCommandListenerBenchmark {
+
+    @Param({"100"})
+    public int commands;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private BenchmarkApplication application;
+    private Function<ChatInputInteractionEvent, Mono<Void>> handler;
+    private ChatInputInteractionEvent addEvent;
+    private ChatInputInteractionEvent unknownEvent;
+
+    @Setup
+    public void setup() {
+        application = BenchmarkApplication.start(commands, 0, "mad4j.metrics.enabled=" + metrics);
+        handler = application.getHandler(ChatInputInteractionEvent.class);
+        addEvent = application.createSlashCommandEvent("command" + (commands - 1),
+                ApplicationCommandInteractionOptionData.builder().name("x").value("5").type(OptionType.INTEGER).build(),
+                ApplicationCommandInteractionOptionData.builder().name("y").value("14").type(OptionType.INTEGER).build());
+        unknownEvent = application.createSlashCommandEvent("missing");
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public Mono<Void> command() {
+        return handler.apply(addEvent);
+    }
+
+    @Benchmark
+    public Mono<Void> unknownCommand() {
+        return handler.apply(unknownEvent);
+    }
+}
@@ -19,4 +19,9 @@ import java.lang.annotation.Target;
 @Component
 public @interface DiscordEventsComponent {
 
+    /**
+     * The ids of the guilds the slash commands of this component are registered in. If empty,
+     * the commands are registered globally. Commands can override this with their own guilds.
+     */
+    long[] guilds() default {};
 }
@@ -0,0 +1,142 @@
+package io.github.stelitop.mad4j;
+
+import io.github.stelitop.mad4j.commands.Command;
+import io.github.stelitop.mad4j.commands.SlashCommand;
+import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The methods of all {@link DiscordEventsComponent} beans that handle discord events,
+ * found when the application starts by the {@link DiscordEventsScanner}.</p>
+ *
+ * <p>The metadata is immutable and shared by all listeners, so the beans are only reflected
+ * over once. This includes the annotations of the parameters, which the parameter binders
+ * are compiled from.</p>
+ *
+ * @param commands The methods annotated with {@link Command} or {@link SlashCommand}.
+ * @param components The methods annotated with {@link ComponentInteraction}.
+ */
+public record DiscordEventsMetadata(List<EventMethod> commands, List<EventMethod> components) {
+
+    public DiscordEventsMetadata {
+        commands = List.copyOf(commands);
+        components = List.copyOf(components);
+    }
+
+    /**
+     * A method that handles discord events, with its reflected data.
+     *
+     * @param bean The bean the method belongs to.
+     * @param method The method.
+     * @param parameters The parameters of the method, in order.
+     * @param annotations The annotations of the method.
+     */
+    public record EventMethod(Object bean, Method method, List<EventParameter> parameters, List<Annotation> annotations) {
+
+        public EventMethod {
+            parameters = List.copyOf(parameters);
+            annotations = List.copyOf(annotations);
+        }
+
+        /**
+         * Reflects over a method of a bean.
+         *
+         * @param bean The bean the method belongs to.
+         * @param method The method.
+         * @return The method with its reflected data.
+         */
+        public static EventMethod of(Object bean, Method method) {
+            List<EventParameter> parameters = new ArrayList<>();
+            for (Parameter parameter : method.getParameters()) {
+                parameters.add(EventParameter.of(parameter));
+            }
+            return new EventMethod(bean, method, parameters, Arrays.asList(method.getAnnotations()));
+        }
+
+        /**
+         * Gets an annotation of the method.
+         *
+         * @param annotationClass The class of the annotation.
+         * @return The annotation, or null if the method does not have it.
+         * @param <A> The type of the annotation.
+         */
+        public <A extends Annotation> A getAnnotation(Class<A> annotationClass) {
+            for (var annotation : annotations) {
+                if (annotation.annotationType() == annotationClass) return annotationClass.cast(annotation);
+            }
+            return null;
+        }
+
+        /**
+         * Checks whether the method has an annotation.
+         *
+         * @param annotationClass The class of the annotation.
+         * @return True if the method has the annotation.
+         */
+        public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
+            return getAnnotation(annotationClass) != null;
+        }
+    }
+
+    /**
+     * A parameter of a method that handles discord events, with its reflected data.
+     *
+     * @param parameter The parameter.
+     * @param annotations The annotations of the parameter.
+     */
+    public record EventParameter(Parameter parameter, List<Annotation> annotations) {
+
+        public EventParameter {
+            annotations = List.copyOf(annotations);
+        }
+
+        /**
+         * Reflects over a parameter.
+         *
+         * @param parameter The parameter.
+         * @return The parameter with its reflected data.
+         */
+        public static EventParameter of(Parameter parameter) {
+            return new EventParameter(parameter, Arrays.asList(parameter.getAnnotations()));
+        }
+
+        /**
+         * Gets the type of the parameter.
+         *
+         * @return The type of the parameter.
+         */
+        public Class<?> getType() {
+            return parameter.getType();
+        }
+
+        /**
+         * Gets an annotation of the parameter.
+         *
+         * @param annotationClass The class of the annotation.
+         * @return The annotation, or null if the parameter does not have it.
+         * @param <A> The type of the annotation.
+         */
+        public <A extends Annotation> A getAnnotation(Class<A> annotationClass) {
+            for (var annotation : annotations) {
+                if (annotation.annotationType() == annotationClass) return annotationClass.cast(annotation);
+            }
+            return null;
+        }
+
+        /**
+         * Checks whether the parameter has an annotation.
+         *
+         * @param annotationClass The class of the annotation.
+         * @return True if the parameter has the annotation.
+         */
+        public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
+            return getAnnotation(annotationClass) != null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.stelitop.mad4j;
+
+import io.github.stelitop.mad4j.commands.Command;
+import io.github.stelitop.mad4j.commands.SlashCommand;
+import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Finds the methods of all {@link DiscordEventsComponent} beans that handle discord events.
+ * The beans are scanned the first time the metadata is needed and are reflected over only
+ * once. The scan runs in parallel across the beans.</p>
+ *
+ * @see DiscordEventsMetadata
+ */
+@Component
+public class DiscordEventsScanner {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    private final ApplicationContext applicationContext;
+    private volatile DiscordEventsMetadata metadata;
+
+    @Autowired
+    public DiscordEventsScanner(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Gets the metadata of all event methods, scanning the beans if they have not been
+     * scanned yet.
+     *
+     * @return The metadata.
+     */
+    public DiscordEventsMetadata getMetadata() {
+        DiscordEventsMetadata current = metadata;
+        if (current != null) return current;
+        synchronized (this) {
+            if (metadata == null) metadata = scan();
+            return metadata;
+        }
+    }
+
+    private DiscordEventsMetadata scan() {
+        long start = System.nanoTime();
+        List<Object> beans = List.copyOf(applicationContext.getBeansWithAnnotation(DiscordEventsComponent.class).values());
+        List<List<DiscordEventsMetadata.EventMethod>> methodsPerBean = beans.parallelStream()
+                .map(this::scanBean)
+                .toList();
+
+        List<DiscordEventsMetadata.EventMethod> commands = new ArrayList<>();
+        List<DiscordEventsMetadata.EventMethod> components = new ArrayList<>();
+        for (var methods : methodsPerBean) {
+            for (var method : methods) {
+                if (method.isAnnotationPresent(Command.class) || method.isAnnotationPresent(SlashCommand.class)) {
+                    commands.add(method);
+                }
+                if (method.isAnnotationPresent(ComponentInteraction.class)) {
+                    components.add(method);
+                }
+            }
+        }
+        LOGGER.debug("Scanned " + beans.size() + " discord events component(s) in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms.");
+        return new DiscordEventsMetadata(commands, components);
+    }
+
+    /**
+     * Finds the event methods of a single bean.
+     *
+     * @param bean The bean.
+     * @return The methods annotated with any event annotation.
+     */
+    private List<DiscordEventsMetadata.EventMethod> scanBean(Object bean) {
+        List<DiscordEventsMetadata.EventMethod> ret = new ArrayList<>();
+        for (var method : bean.getClass().getMethods()) {
+            if (!method.isAnnotationPresent(Command.class)
+                    && !method.isAnnotationPresent(SlashCommand.class)
+                    && !method.isAnnotationPresent(ComponentInteraction.class)) {
+                continue;
+            }
+            ret.add(DiscordEventsMetadata.EventMethod.of(bean, method));
+        }
+        return ret;
+    }
+}
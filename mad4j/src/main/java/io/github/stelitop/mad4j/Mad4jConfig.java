@@ -1,15 +1,21 @@
 package io.github.stelitop.mad4j;
 
+import io.github.stelitop.mad4j.aot.Mad4jRuntimeHints;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * <p>Configuration for mad4j.</p>
  *
  * <p>This loads all components part of the package when used into another project.</p>
+ *
+ * <p>It also registers the runtime hints of mad4j, so that it can be compiled into a GraalVM
+ * native image.</p>
  */
 @ComponentScan("io.github.stelitop.mad4j")
 @Configuration
+@ImportRuntimeHints(Mad4jRuntimeHints.class)
 public class Mad4jConfig {
 
 }
@@ -0,0 +1,81 @@
+package io.github.stelitop.mad4j.aot;
+
+import io.github.stelitop.mad4j.DiscordEventsComponent;
+import io.github.stelitop.mad4j.commands.CommandParam;
+import io.github.stelitop.mad4j.commands.autocomplete.AutocompletionExecutor;
+import io.github.stelitop.mad4j.commands.autocomplete.NullAutocompleteExecutor;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.events.AllowedEventResult;
+import io.github.stelitop.mad4j.utils.GeneratedInvokers;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.beans.factory.aot.BeanRegistrationAotContribution;
+import org.springframework.beans.factory.aot.BeanRegistrationAotProcessor;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+
+/**
+ * <p>Registers the runtime hints of the beans that mad4j reflects over, so that they keep
+ * working in a GraalVM native image.</p>
+ *
+ * <p>For {@link DiscordEventsComponent} beans, all public methods are registered for
+ * invocation, since their event methods are found and invoked through reflection. Enum types
+ * of the parameters are registered as well, as their constants are read reflectively, and so
+ * are the generated invokers of the bean, if the mad4j annotation processor was used.</p>
+ *
+ * <p>{@link AllowedEventResult}, {@link CommandRequirementExecutor} and
+ * {@link AutocompletionExecutor} beans are registered for their public methods, as they are
+ * looked up by their classes and annotations.</p>
+ */
+public class DiscordEventsBeanRegistrationAotProcessor implements BeanRegistrationAotProcessor {
+
+    @Override
+    public BeanRegistrationAotContribution processAheadOfTime(RegisteredBean registeredBean) {
+        Class<?> beanClass = registeredBean.getBeanClass();
+        if (AnnotationUtils.findAnnotation(beanClass, DiscordEventsComponent.class) != null) {
+            return (generationContext, beanRegistrationCode) ->
+                    registerEventsComponentHints(generationContext.getRuntimeHints(), beanClass);
+        }
+        if (AllowedEventResult.class.isAssignableFrom(beanClass)
+                || CommandRequirementExecutor.class.isAssignableFrom(beanClass)
+                || AutocompletionExecutor.class.isAssignableFrom(beanClass)) {
+            return (generationContext, beanRegistrationCode) -> generationContext.getRuntimeHints().reflection()
+                    .registerType(beanClass, MemberCategory.INTROSPECT_PUBLIC_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        return null;
+    }
+
+    private void registerEventsComponentHints(RuntimeHints hints, Class<?> beanClass) {
+        ReflectionHints reflection = hints.reflection();
+        reflection.registerType(beanClass, MemberCategory.INTROSPECT_PUBLIC_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        for (Method method : beanClass.getMethods()) {
+            for (Annotation annotation : method.getAnnotations()) {
+                CommandRequirement requirement = annotation.annotationType().getAnnotation(CommandRequirement.class);
+                if (requirement != null) {
+                    reflection.registerType(requirement.implementation(), MemberCategory.INTROSPECT_PUBLIC_METHODS);
+                }
+            }
+            for (Parameter parameter : method.getParameters()) {
+                if (parameter.getType().isEnum()) {
+                    reflection.registerType(parameter.getType(), MemberCategory.INVOKE_PUBLIC_METHODS);
+                }
+                CommandParam commandParam = parameter.getAnnotation(CommandParam.class);
+                if (commandParam != null && commandParam.autocomplete() != NullAutocompleteExecutor.class) {
+                    reflection.registerType(commandParam.autocomplete(), MemberCategory.INTROSPECT_PUBLIC_METHODS);
+                }
+            }
+        }
+
+        String generatedInvokers = beanClass.getName() + "_Mad4jInvokers";
+        reflection.registerTypeIfPresent(beanClass.getClassLoader(), generatedInvokers,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        reflection.registerType(GeneratedInvokers.class);
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.stelitop.mad4j.aot;
+
+import io.github.stelitop.mad4j.commands.autocomplete.NullAutocompleteExecutor;
+import io.github.stelitop.mad4j.utils.GeneratedInvokers;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.concurrent.Executors;
+
+/**
+ * <p>Runtime hints of mad4j itself, needed when the application is compiled into a GraalVM
+ * native image.</p>
+ *
+ * <p>The hints of the event methods of the application are registered separately for every
+ * bean by the {@link DiscordEventsBeanRegistrationAotProcessor}.</p>
+ */
+public class Mad4jRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // invokers generated by the mad4j annotation processor are loaded as services
+        hints.resources().registerPattern("META-INF/services/" + GeneratedInvokers.class.getName());
+        // the default autocomplete executor is only referenced from annotations
+        hints.reflection().registerType(NullAutocompleteExecutor.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        // the executor of virtual threads is looked up reflectively, as it needs Java 21
+        hints.reflection().registerType(Executors.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.stelitop.mad4j.commands;
+
+import discord4j.discordjson.json.ApplicationCommandData;
+import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
+import discord4j.discordjson.json.ApplicationCommandOptionData;
+import discord4j.discordjson.json.ApplicationCommandRequest;
+import discord4j.discordjson.possible.Possible;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * <p>Computes content hashes of slash commands, so that the commands generated by the
+ * application can be compared with the ones already registered in discord.</p>
+ *
+ * <p>Both are first written into the same canonical form. Values that discord leaves out
+ * when they have their default value, like a parameter not being required, are written
+ * as their default value, so a command and its registered copy always have the same
+ * hash.</p>
+ */
+public final class ApplicationCommandHasher {
+
+    private static final int CHAT_INPUT_TYPE = 1;
+
+    private ApplicationCommandHasher() {
+
+    }
+
+    /**
+     * Computes the hash of a command that is to be registered.
+     *
+     * @param request The command request.
+     * @return The hash as a hex string.
+     */
+    public static String hash(ApplicationCommandRequest request) {
+        return hash(canonical(request.name(), request.description().toOptional().orElse(""),
+                request.type().toOptional().orElse(CHAT_INPUT_TYPE), request.options()));
+    }
+
+    /**
+     * Computes the hash of a command that has been registered.
+     *
+     * @param data The registered command.
+     * @return The hash as a hex string.
+     */
+    public static String hash(ApplicationCommandData data) {
+        return hash(canonical(data.name(), data.description(),
+                data.type().toOptional().orElse(CHAT_INPUT_TYPE), data.options()));
+    }
+
+    private static String canonical(String name, String description, int type, Possible<List<ApplicationCommandOptionData>> options) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, name);
+        append(sb, description);
+        sb.append(type).append(';');
+        appendOptions(sb, options);
+        return sb.toString();
+    }
+
+    private static void appendOptions(StringBuilder sb, Possible<List<ApplicationCommandOptionData>> options) {
+        List<ApplicationCommandOptionData> list = options.toOptional().orElse(List.of());
+        sb.append('[');
+        for (var option : list) {
+            append(sb, option.name());
+            append(sb, option.description());
+            sb.append(option.type()).append(';');
+            sb.append(option.required().toOptional().orElse(false)).append(';');
+            sb.append(option.autocomplete().toOptional().orElse(false)).append(';');
+            appendPossible(sb, option.minValue());
+            appendPossible(sb, option.maxValue());
+            appendPossible(sb, option.minLength());
+            appendPossible(sb, option.maxLength());
+            appendPossible(sb, option.channelTypes());
+            sb.append('[');
+            for (ApplicationCommandOptionChoiceData choice : option.choices().toOptional().orElse(List.of())) {
+                append(sb, choice.name());
+                append(sb, String.valueOf(choice.value()));
+            }
+            sb.append(']');
+            appendOptions(sb, option.options());
+        }
+        sb.append(']');
+    }
+
+    private static void appendPossible(StringBuilder sb, Possible<?> value) {
+        append(sb, value.toOptional().map(x -> x instanceof Number n ? String.valueOf(n.doubleValue()) : String.valueOf(x)).orElse(""));
+    }
+
+    /**
+     * Appends a string prefixed with its length, so that no two different sequences of
+     * strings have the same canonical form.
+     */
+    private static void append(StringBuilder sb, String value) {
+        sb.append(value.length()).append(':').append(value);
+    }
+
+    private static String hash(String canonical) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported!", e);
+        }
+    }
+}
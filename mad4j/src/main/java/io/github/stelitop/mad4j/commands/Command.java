@@ -27,4 +27,9 @@ public @interface Command {
      */
     // TODO: Replace these with enum types
     CommandType[] types() default {};
+    /**
+     * The ids of the guilds the command is registered in as a slash command. If empty, the
+     * guilds of the {@link io.github.stelitop.mad4j.DiscordEventsComponent} are used instead.
+     */
+    long[] guilds() default {};
 }
@@ -2,6 +2,22 @@ package io.github.stelitop.mad4j.commands;
 
 import discord4j.core.GatewayDiscordClient;
 import io.github.stelitop.mad4j.DiscordEventsComponent;
+import io.github.stelitop.mad4j.DiscordEventsMetadata;
+import io.github.stelitop.mad4j.DiscordEventsScanner;
+import io.github.stelitop.mad4j.commands.binding.SlashCommandParamBinder;
+import io.github.stelitop.mad4j.commands.binding.SlashCommandParamBinders;
+import io.github.stelitop.mad4j.commands.binding.TextCommandParamBinder;
+import io.github.stelitop.mad4j.commands.binding.TextCommandParamBinders;
+import io.github.stelitop.mad4j.commands.requirements.AnnotatedCommandRequirementExecutor;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.Cooldown;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimit;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimitRule;
+import io.github.stelitop.mad4j.execution.ExecutionPolicies;
+import io.github.stelitop.mad4j.execution.ExecutionPolicy;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.MethodInvoker;
 import lombok.Builder;
 import lombok.Getter;
 import io.github.stelitop.mad4j.listeners.CommandOptionAutocompleteListener;
@@ -12,6 +28,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
@@ -30,7 +47,17 @@ public class CommandData implements ApplicationRunner {
     private final CommandOptionAutocompleteListener commandOptionAutocompleteListener;
     private final ApplicationContext applicationContext;
     private final Environment environment;
+    private final DiscordEventsScanner discordEventsScanner;
     private final List<Entry> commandsInfo = new ArrayList<>();
+    /**
+     * Lookup index built at startup. For every command type it maps the normalised full
+     * name of a command to its entry, so resolving a command is a single hash lookup.
+     */
+    private Map<CommandType, Map<String, Entry>> commandsByType = Map.of();
+    /**
+     * The entries of every command type, precomputed at startup.
+     */
+    private Map<CommandType, List<Entry>> commandListsByType = Map.of();
 
     private static final Set<CommandType> DEFAULT_COMMAND_TYPES = Set.of(CommandType.Slash);
 
@@ -42,6 +69,45 @@ public class CommandData implements ApplicationRunner {
         private Set<CommandType> types;
         private Object bean;
         private Method method;
+        /**
+         * The parameters of the method with their annotations, read once when the command
+         * is loaded.
+         */
+        private List<DiscordEventsMetadata.EventParameter> parameters;
+        /**
+         * Invoker of the method, created once when the command is loaded.
+         */
+        private MethodInvoker invoker;
+        /**
+         * Binders of the method parameters when invoked as a slash command. Null if
+         * this is not a slash command.
+         */
+        private SlashCommandParamBinder[] slashBinders;
+        /**
+         * Binders of the method parameters when invoked as a text command. Null if this is
+         * not a text command.
+         */
+        private TextCommandParamBinder[] textBinders;
+        /**
+         * Executors of the {@link CommandRequirement}s of the method, in the order the
+         * annotations are declared. Rate limits are not included.
+         */
+        private CommandRequirementExecutor[] requirements;
+        /**
+         * The {@link RateLimit}s and {@link Cooldown}s of the method. They are used only
+         * after all other requirements are fulfilled, so that commands that do not run are
+         * not counted against them.
+         */
+        private RateLimitRule[] rateLimits;
+        /**
+         * The ids of the guilds the command is registered in as a slash command. Empty if
+         * the command is registered globally.
+         */
+        private long[] guilds;
+        /**
+         * The policy the method is invoked with.
+         */
+        private ExecutionPolicy execution;
     }
 
     @Autowired
@@ -49,67 +115,228 @@ public class CommandData implements ApplicationRunner {
             GatewayDiscordClient gatewayDiscordClient,
             CommandOptionAutocompleteListener commandOptionAutocompleteListener,
             ApplicationContext applicationContext,
-            Environment environment
+            Environment environment,
+            DiscordEventsScanner discordEventsScanner
     ) {
         this.gatewayDiscordClient = gatewayDiscordClient;
         this.commandOptionAutocompleteListener = commandOptionAutocompleteListener;
         this.applicationContext = applicationContext;
         this.environment = environment;
+        this.discordEventsScanner = discordEventsScanner;
     }
 
     @Override
     public void run(ApplicationArguments args) {
-        Collection<Object> commandBeans = applicationContext.getBeansWithAnnotation(DiscordEventsComponent.class).values();
-
         commandsInfo.clear();
-        for (var bean : commandBeans) {
-            for (var method : bean.getClass().getMethods()) {
-                Entry data = getCommandData(bean, method);
-                if (data == null) continue;
-                commandsInfo.add(data);
+        Map<Class<? extends CommandRequirementExecutor>, CommandRequirementExecutor> requirementBeans = new HashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (var eventMethod : discordEventsScanner.getMetadata().commands()) {
+            Entry data = getCommandData(eventMethod, requirementBeans, errors);
+            if (data == null) continue;
+            commandsInfo.add(data);
+        }
+        if (!errors.isEmpty()) {
+            String errorMsg = errors.size() + " command(s) are incorrectly declared or have requirements that could not be resolved!";
+            LOGGER.error(errorMsg);
+            for (var error : errors) {
+                LOGGER.error("-- " + error);
             }
+            throw new RuntimeException(errorMsg + " Check the error logs for more detail on what went wrong.");
         }
-        // TODO: Verify no overlap
+        buildIndex();
     }
 
-    private Entry getCommandData(Object bean, Method method) {
-        if (method.isAnnotationPresent(Command.class)) {
-            Command c = method.getAnnotation(Command.class);
+    /**
+     * Builds the immutable lookup index from the loaded commands. Every command is indexed
+     * under each of its types by its normalised name. Two commands that resolve to the same
+     * name for the same type are rejected.
+     */
+    private void buildIndex() {
+        Map<CommandType, Map<String, Entry>> index = new EnumMap<>(CommandType.class);
+        for (CommandType type : CommandType.values()) {
+            index.put(type, new HashMap<>());
+        }
+        for (var entry : commandsInfo) {
+            for (var type : entry.types) {
+                Entry previous = index.get(type).putIfAbsent(normaliseName(entry.name), entry);
+                if (previous != null) {
+                    throw new RuntimeException("The " + type + " command \"" + entry.name + "\" has been declared multiple times! "
+                            + "Declared by \"" + previous.method + "\" and \"" + entry.method + "\".");
+                }
+            }
+        }
+
+        Map<CommandType, Map<String, Entry>> commandsByType = new EnumMap<>(CommandType.class);
+        Map<CommandType, List<Entry>> commandListsByType = new EnumMap<>(CommandType.class);
+        for (CommandType type : CommandType.values()) {
+            commandsByType.put(type, Map.copyOf(index.get(type)));
+            commandListsByType.put(type, commandsInfo.stream().filter(x -> x.types.contains(type)).toList());
+        }
+        this.commandsByType = commandsByType;
+        this.commandListsByType = commandListsByType;
+    }
+
+    /**
+     * Normalises the name of a command so that lookups are case-insensitive. For names that
+     * are already lowercase, no new string is allocated.
+     *
+     * @param commandName The name of the command.
+     * @return The normalised name.
+     */
+    private static String normaliseName(String commandName) {
+        return commandName.toLowerCase(Locale.ROOT);
+    }
+
+    private Entry getCommandData(
+            DiscordEventsMetadata.EventMethod eventMethod,
+            Map<Class<? extends CommandRequirementExecutor>, CommandRequirementExecutor> requirementBeans,
+            List<String> errors
+    ) {
+        Object bean = eventMethod.bean();
+        Method method = eventMethod.method();
+        List<RateLimitRule> rateLimits = new ArrayList<>();
+        if (eventMethod.isAnnotationPresent(Command.class)) {
+            Command c = eventMethod.getAnnotation(Command.class);
+            Set<CommandType> types = getCommandTypes(c.types());
             return Entry.builder()
                     .name(c.name().toLowerCase())
                     .description(c.description())
-                    .types(getCommandTypes(c.types()))
+                    .types(types)
                     .bean(bean)
                     .method(method)
+                    .parameters(eventMethod.parameters())
+                    .invoker(MethodInvoker.of(bean, method))
+                    .slashBinders(types.contains(CommandType.Slash) ? SlashCommandParamBinders.compile(eventMethod.parameters()) : null)
+                    .textBinders(types.contains(CommandType.Text) ? compileTextBinders(eventMethod, errors) : null)
+                    .requirements(resolveRequirements(eventMethod, requirementBeans, errors, rateLimits))
+                    .rateLimits(rateLimits.toArray(new RateLimitRule[0]))
+                    .guilds(getGuilds(bean, c.guilds()))
+                    .execution(ExecutionPolicies.getPolicy(bean, method))
                     .build();
-        } else if (method.isAnnotationPresent(SlashCommand.class)) {
-            SlashCommand sc = method.getAnnotation(SlashCommand.class);
+        } else if (eventMethod.isAnnotationPresent(SlashCommand.class)) {
+            SlashCommand sc = eventMethod.getAnnotation(SlashCommand.class);
             return Entry.builder()
                     .name(sc.name().toLowerCase())
                     .description(sc.description())
                     .types(Set.of(CommandType.Slash))
                     .bean(bean)
                     .method(method)
+                    .parameters(eventMethod.parameters())
+                    .invoker(MethodInvoker.of(bean, method))
+                    .slashBinders(SlashCommandParamBinders.compile(eventMethod.parameters()))
+                    .requirements(resolveRequirements(eventMethod, requirementBeans, errors, rateLimits))
+                    .rateLimits(rateLimits.toArray(new RateLimitRule[0]))
+                    .guilds(getGuilds(bean, sc.guilds()))
+                    .execution(ExecutionPolicies.getPolicy(bean, method))
                     .build();
         }
         return null;
     }
 
+    /**
+     * Compiles the binders of a text command method. If the method is incorrectly declared,
+     * the error is added to the errors.
+     *
+     * @param eventMethod The command method.
+     * @param errors The list the errors are added to.
+     * @return The binders, or null if the method is incorrectly declared.
+     */
+    private static TextCommandParamBinder[] compileTextBinders(DiscordEventsMetadata.EventMethod eventMethod, List<String> errors) {
+        ActionResult<TextCommandParamBinder[]> binders = TextCommandParamBinders.compile(eventMethod);
+        if (binders.hasFailed()) {
+            errors.add(binders.errorMessage());
+            return null;
+        }
+        return binders.getResponse();
+    }
+
+    /**
+     * Finds the executors of all {@link CommandRequirement} annotations of a command method.
+     * Requirements whose executor has no unique bean are added to the errors. Executors that
+     * are {@link AnnotatedCommandRequirementExecutor}s are replaced with their executor for
+     * the annotation of the method. Rate limits are kept apart from the other requirements.
+     *
+     * @param eventMethod The command method.
+     * @param requirementBeans The executors that have already been found, by their class.
+     * @param errors The list the errors are added to.
+     * @param rateLimits The list the rate limits are added to.
+     * @return The executors that are not rate limits, in the order the annotations are declared.
+     */
+    private CommandRequirementExecutor[] resolveRequirements(
+            DiscordEventsMetadata.EventMethod eventMethod,
+            Map<Class<? extends CommandRequirementExecutor>, CommandRequirementExecutor> requirementBeans,
+            List<String> errors,
+            List<RateLimitRule> rateLimits
+    ) {
+        Method method = eventMethod.method();
+        List<CommandRequirementExecutor> executors = new ArrayList<>();
+        for (var annotation : eventMethod.annotations()) {
+            CommandRequirement requirement = annotation.annotationType().getAnnotation(CommandRequirement.class);
+            if (requirement == null) continue;
+            CommandRequirementExecutor executor = requirementBeans.get(requirement.implementation());
+            if (executor == null) {
+                var beans = applicationContext.getBeansOfType(requirement.implementation());
+                if (beans.size() != 1) {
+                    errors.add("Method \"" + method.getName() + "\" in class \"" + method.getDeclaringClass().getName()
+                            + "\" requires @" + annotation.annotationType().getSimpleName() + ", but "
+                            + (beans.isEmpty() ? "no bean" : "multiple beans") + " of \""
+                            + requirement.implementation().getName() + "\" were found!");
+                    continue;
+                }
+                executor = beans.values().iterator().next();
+                requirementBeans.put(requirement.implementation(), executor);
+            }
+            if (executor instanceof AnnotatedCommandRequirementExecutor annotatedExecutor) {
+                executor = annotatedExecutor.forAnnotation(annotation, method);
+            }
+            if (executor instanceof RateLimitRule rateLimit) {
+                rateLimits.add(rateLimit);
+            } else {
+                executors.add(executor);
+            }
+        }
+        return executors.toArray(new CommandRequirementExecutor[0]);
+    }
+
+    /**
+     * Gets the guilds a command is registered in. The guilds of the command take priority
+     * over the guilds of its component.
+     *
+     * @param bean The bean of the command.
+     * @param commandGuilds The guilds declared on the command.
+     * @return The ids of the guilds, or an empty array if the command is global.
+     */
+    private long[] getGuilds(Object bean, long[] commandGuilds) {
+        if (commandGuilds.length > 0) return commandGuilds;
+        DiscordEventsComponent component = AnnotationUtils.findAnnotation(bean.getClass(), DiscordEventsComponent.class);
+        return component == null ? new long[0] : component.guilds();
+    }
+
     private Set<CommandType> getCommandTypes(CommandType[] types) {
         if (types.length == 0) return DEFAULT_COMMAND_TYPES;
         else return Arrays.stream(types).collect(Collectors.toSet());
     }
 
+    /**
+     * Finds the command with the given name and type.
+     *
+     * @param commandName The full name of the command. The lookup is case-insensitive.
+     * @param type The type of the command.
+     * @return The command entry, or null if no such command exists.
+     */
     public @Nullable Entry get(String commandName, CommandType type) {
-        String nameLower = commandName.toLowerCase();
-        return commandsInfo.stream()
-                .filter(x -> x.name.toLowerCase().equals(nameLower) && x.types.contains(type))
-                .findFirst()
-                .orElse(null);
+        Map<String, Entry> commands = commandsByType.get(type);
+        if (commands == null) return null;
+        return commands.get(normaliseName(commandName));
     }
+
+    /**
+     * Gets all commands of a specific type.
+     *
+     * @param type The type of the commands.
+     * @return An immutable list of the commands of this type.
+     */
     public List<Entry> getFromType(CommandType type) {
-        return commandsInfo.stream()
-                .filter(x -> x.types.contains(type))
-                .toList();
+        return commandListsByType.getOrDefault(type, List.of());
     }
 }
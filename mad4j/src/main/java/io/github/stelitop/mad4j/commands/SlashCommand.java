@@ -20,4 +20,11 @@ public @interface SlashCommand {
      * @return The description of the slash command.
      */
     String description();
+    /**
+     * The ids of the guilds the slash command is registered in. If empty, the guilds of the
+     * {@link io.github.stelitop.mad4j.DiscordEventsComponent} are used instead.
+     *
+     * @return The ids of the guilds.
+     */
+    long[] guilds() default {};
 }
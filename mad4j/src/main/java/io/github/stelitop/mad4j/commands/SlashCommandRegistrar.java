@@ -1,14 +1,18 @@
 package io.github.stelitop.mad4j.commands;
 
+import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import discord4j.core.object.entity.User;
+import discord4j.discordjson.json.ApplicationCommandData;
 import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
 import discord4j.discordjson.json.ApplicationCommandOptionData;
 import discord4j.discordjson.json.ApplicationCommandRequest;
 import discord4j.discordjson.json.ImmutableApplicationCommandOptionData;
 import discord4j.rest.RestClient;
+import discord4j.rest.service.ApplicationService;
 import io.github.stelitop.mad4j.DiscordEventsComponent;
+import io.github.stelitop.mad4j.DiscordEventsMetadata;
 import io.github.stelitop.mad4j.utils.ActionResult;
 import io.github.stelitop.mad4j.utils.OptionType;
 import lombok.AllArgsConstructor;
@@ -24,8 +28,9 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.lang.reflect.Parameter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -38,9 +43,19 @@ import java.util.stream.Collectors;
  * {@link CommandOptionAutocompleteListener} component. This behaviour might be moved to that
  * component instead directly.</p>
  *
- * <p>You can disable the registering of commands by setting the property "slashcommands.update"
- * to false in the application.properties file. This can be used because sometimes discord will
- * "outdate" the commands and require you to wait.</p>
+ * <p>By default, only the commands that have changed since they were last registered are sent
+ * to discord. This is controlled by the property "mad4j.slashcommands.update" in the
+ * application.properties file. It can be set to "incremental" (the default, "true" works as
+ * well), "overwrite" to overwrite all commands in bulk, or "false" to not register the commands
+ * at all.</p>
+ *
+ * <p>Commands can be registered in specific guilds instead of globally, through
+ * {@link SlashCommand#guilds()}, {@link Command#guilds()} or
+ * {@link DiscordEventsComponent#guilds()}. Changes to guild commands are visible immediately,
+ * so this can be used to try out commands in a test guild first. The property
+ * "mad4j.slashcommands.guilds" registers all other commands in the given guilds instead of globally.
+ * While it is set, the registered global commands are neither updated nor deleted. Guilds that
+ * no longer have any commands are not cleaned up.</p>
  */
 @Component
 public class SlashCommandRegistrar implements ApplicationRunner {
@@ -71,11 +86,11 @@ public class SlashCommandRegistrar implements ApplicationRunner {
      * <p>First all annotated methods are collected. Then, the names of the commands are
      * used to structure them into a tree hierarchy. The first name of the commands is used
      * as the base command. Finally, each command tree is individually parsed into a single
-     * command request, which are then overwritten in bulk.</p>
+     * command request. The requests are compared with the registered commands and only the
+     * ones that have changed are sent.</p>
      *
-     * <p>In the environmental variables it can specifically specified to not register
-     * the commands and instead use the old ones. This can be used when there aren't any
-     * changes and to prevent potential "outdating" of the command signatures.</p>
+     * <p>In the environmental variables it can specifically specified to overwrite all
+     * commands in bulk, or to not register the commands and instead use the old ones.</p>
      *
      * @param args incoming application arguments
      */
@@ -98,9 +113,24 @@ public class SlashCommandRegistrar implements ApplicationRunner {
             throw new RuntimeException(errorMsg + " Check the error logs for more detail on what went wrong.");
         }
 
-        var slashCommandRequests = createCommandRequestsFromCommandData(slashCommands);
+        long[] defaultGuilds = getDefaultGuilds();
+        List<CommandData.Entry> globalCommands = new ArrayList<>();
+        Map<Long, List<CommandData.Entry>> guildCommands = new TreeMap<>();
+        for (var command : slashCommands) {
+            long[] guilds = command.getGuilds().length > 0 ? command.getGuilds() : defaultGuilds;
+            if (guilds.length == 0) {
+                globalCommands.add(command);
+            }
+            for (long guildId : guilds) {
+                guildCommands.computeIfAbsent(guildId, x -> new ArrayList<>()).add(command);
+            }
+        }
+
+        var slashCommandRequests = createCommandRequestsFromCommandData(globalCommands);
+        Map<Long, List<ApplicationCommandRequest>> guildCommandRequests = new TreeMap<>();
+        guildCommands.forEach((guildId, commands) -> guildCommandRequests.put(guildId, createCommandRequestsFromCommandData(commands)));
 
-        String updateCommands = Optional.ofNullable(environment.getProperty("mad4j.slashcommands.update")).orElse("true");
+        String updateCommands = Optional.ofNullable(environment.getProperty("mad4j.slashcommands.update")).orElse("incremental");
         if (updateCommands.equalsIgnoreCase("false")) {
             LOGGER.warn("No slash command signatures were updated due to the environment settings!");
             return;
@@ -109,12 +139,169 @@ public class SlashCommandRegistrar implements ApplicationRunner {
         RestClient restClient = gatewayDiscordClient.getRestClient();
         var applicationService = restClient.getApplicationService();
         Long applicationId = restClient.getApplicationId().block();
-        LOGGER.info("Started registering global commands...");
-        applicationService.bulkOverwriteGlobalApplicationCommand(applicationId, slashCommandRequests)
-                .doOnNext(c -> LOGGER.info("Successfully registered command " + c.name() + "."))
-                .doOnError(e -> LOGGER.error("Failed to register global commands.", e))
-                .doOnComplete(() -> LOGGER.info("Finished registering global commands."))
-                .subscribe();
+        boolean overwrite = updateCommands.equalsIgnoreCase("overwrite");
+        if (defaultGuilds.length > 0) {
+            // The global commands may belong to another deployment of the same application,
+            // such as production when this is a development bot, so they are not touched.
+            LOGGER.info("The global commands were not updated, as the commands are registered in the guilds "
+                    + Arrays.toString(defaultGuilds) + ".");
+        } else if (overwrite) {
+            LOGGER.info("Started registering global commands...");
+            applicationService.bulkOverwriteGlobalApplicationCommand(applicationId, slashCommandRequests)
+                    .doOnNext(c -> LOGGER.info("Successfully registered command " + c.name() + "."))
+                    .doOnError(e -> LOGGER.error("Failed to register global commands.", e))
+                    .doOnComplete(() -> LOGGER.info("Finished registering global commands."))
+                    .subscribe();
+        } else {
+            LOGGER.info("Started updating global commands...");
+            applicationService.getGlobalApplicationCommands(applicationId)
+                    .collectList()
+                    .flatMap(registered -> updateGlobalCommands(applicationService, applicationId, registered, slashCommandRequests))
+                    .doOnError(e -> LOGGER.error("Failed to update global commands.", e))
+                    .doOnSuccess(x -> LOGGER.info("Finished updating global commands."))
+                    .subscribe();
+        }
+
+        if (!guildCommandRequests.isEmpty()) {
+            LOGGER.info("Started updating the commands of " + guildCommandRequests.size() + " guild(s)...");
+            updateGuildCommands(applicationService, applicationId, guildCommandRequests, overwrite)
+                    .doOnSuccess(x -> LOGGER.info("Finished updating guild commands."))
+                    .subscribe();
+        }
+    }
+
+    /**
+     * Gets the guilds that commands without their own guilds are registered in, from the
+     * property "mad4j.slashcommands.guilds". This can be used to register all commands in a
+     * test guild, where changes are visible immediately. While it is set, the global commands
+     * are left as they are.
+     *
+     * @return The ids of the guilds, or an empty array if the commands are global.
+     */
+    private long[] getDefaultGuilds() {
+        String guilds = environment.getProperty("mad4j.slashcommands.guilds");
+        if (guilds == null || guilds.isBlank()) return new long[0];
+        return Arrays.stream(guilds.split(","))
+                .map(String::trim)
+                .filter(x -> !x.isEmpty())
+                .mapToLong(Long::parseLong)
+                .toArray();
+    }
+
+    /**
+     * <p>Updates the commands of every guild that has guild commands. The guilds are updated
+     * in parallel, with at most "mad4j.slashcommands.guildconcurrency" (4 by default) at the
+     * same time, to stay within the rate limits of discord.</p>
+     *
+     * <p>The commands of a guild are overwritten in bulk, but only if they differ from the
+     * registered ones, unless everything is to be overwritten. A guild that fails to update
+     * does not stop the others.</p>
+     *
+     * @param applicationService The application service of the rest client.
+     * @param applicationId The id of the application.
+     * @param guildCommandRequests The commands of every guild.
+     * @param overwrite Whether to overwrite the commands even if they have not changed.
+     * @return A mono that completes when all guilds have been updated.
+     */
+    private Mono<Void> updateGuildCommands(
+            ApplicationService applicationService,
+            long applicationId,
+            Map<Long, List<ApplicationCommandRequest>> guildCommandRequests,
+            boolean overwrite
+    ) {
+        int concurrency = Integer.parseInt(
+                Optional.ofNullable(environment.getProperty("mad4j.slashcommands.guildconcurrency")).orElse("4"));
+
+        return Flux.fromIterable(guildCommandRequests.entrySet())
+                .flatMap(entry -> {
+                    long guildId = entry.getKey();
+                    List<ApplicationCommandRequest> requests = entry.getValue();
+                    Mono<Boolean> changed = overwrite
+                            ? Mono.just(true)
+                            : applicationService.getGuildApplicationCommands(applicationId, guildId)
+                                    .collectList()
+                                    .map(registered -> !haveSameCommands(registered, requests));
+                    return changed
+                            .flatMap(isChanged -> {
+                                if (!isChanged) {
+                                    LOGGER.info("The commands of guild " + guildId + " are up to date.");
+                                    return Mono.<Void>empty();
+                                }
+                                return applicationService.bulkOverwriteGuildApplicationCommand(applicationId, guildId, requests)
+                                        .then()
+                                        .doOnSuccess(x -> LOGGER.info("Successfully registered "
+                                                + requests.size() + " command(s) in guild " + guildId + "."));
+                            })
+                            .onErrorResume(e -> {
+                                LOGGER.error("Failed to register the commands of guild " + guildId + ".", e);
+                                return Mono.empty();
+                            });
+                }, concurrency)
+                .then();
+    }
+
+    /**
+     * Checks whether the registered commands are exactly the commands that are to be
+     * registered, by comparing their content hashes.
+     *
+     * @param registered The registered commands.
+     * @param requests The commands to register.
+     * @return True if nothing has changed.
+     */
+    private boolean haveSameCommands(List<ApplicationCommandData> registered, List<ApplicationCommandRequest> requests) {
+        if (registered.size() != requests.size()) return false;
+        Map<String, String> registeredHashes = new HashMap<>();
+        for (var data : registered) {
+            registeredHashes.put(data.name(), ApplicationCommandHasher.hash(data));
+        }
+        for (var request : requests) {
+            if (!ApplicationCommandHasher.hash(request).equals(registeredHashes.get(request.name()))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * <p>Updates only the global commands that have changed. The commands are matched with
+     * the registered ones by their names and compared by their content hashes. New commands
+     * are created, changed commands are edited and registered commands that no longer exist
+     * are deleted. Unchanged commands are not sent at all.</p>
+     *
+     * @param applicationService The application service of the rest client.
+     * @param applicationId The id of the application.
+     * @param registered The commands currently registered in discord.
+     * @param requests The commands of the application.
+     * @return A mono that completes when all changes have been sent.
+     */
+    private Mono<Void> updateGlobalCommands(
+            ApplicationService applicationService,
+            long applicationId,
+            List<ApplicationCommandData> registered,
+            List<ApplicationCommandRequest> requests
+    ) {
+        Map<String, ApplicationCommandData> registeredByName = new HashMap<>();
+        for (var data : registered) {
+            registeredByName.put(data.name(), data);
+        }
+
+        List<Mono<?>> changes = new ArrayList<>();
+        for (var request : requests) {
+            ApplicationCommandData current = registeredByName.remove(request.name());
+            if (current == null) {
+                changes.add(applicationService.createGlobalApplicationCommand(applicationId, request)
+                        .doOnNext(c -> LOGGER.info("Successfully created command " + c.name() + ".")));
+            } else if (!ApplicationCommandHasher.hash(request).equals(ApplicationCommandHasher.hash(current))) {
+                changes.add(applicationService.modifyGlobalApplicationCommand(applicationId, Snowflake.of(current.id()).asLong(), request)
+                        .doOnNext(c -> LOGGER.info("Successfully updated command " + c.name() + ".")));
+            }
+        }
+        for (var removed : registeredByName.values()) {
+            changes.add(applicationService.deleteGlobalApplicationCommand(applicationId, Snowflake.of(removed.id()).asLong())
+                    .doOnSuccess(x -> LOGGER.info("Successfully deleted command " + removed.name() + ".")));
+        }
+
+        LOGGER.info((requests.size() - changes.size() + registeredByName.size()) + " global command(s) are up to date, "
+                + changes.size() + " change(s) will be sent.");
+        return Flux.concat(changes).then();
     }
 
     /**
@@ -245,7 +432,7 @@ public class SlashCommandRegistrar implements ApplicationRunner {
      */
     private List<ApplicationCommandOptionData> getOptionsFromMethod(CommandData.Entry commandData) {
         List<ApplicationCommandOptionData> ret = new ArrayList<>();
-        var parameters = Arrays.stream(commandData.getMethod().getParameters())
+        var parameters = commandData.getParameters().stream()
                 .filter(x -> x.isAnnotationPresent(CommandParam.class))
                 .toList();
 
@@ -269,7 +456,7 @@ public class SlashCommandRegistrar implements ApplicationRunner {
      */
     private ApplicationCommandOptionData parseRegularCommandParam(
             CommandParam annotation,
-            Parameter parameter,
+            DiscordEventsMetadata.EventParameter parameter,
             String commandName)
     {
         var acodBuilder = ApplicationCommandOptionData.builder()
@@ -339,8 +526,8 @@ public class SlashCommandRegistrar implements ApplicationRunner {
             return ActionResult.fail("The slash command name " + commandData.getName() + " has too many parts! Maximum 3.");
         }
 
-        for (Parameter par : commandData.getMethod().getParameters()) {
-            String msgStart = "Parameter \"" + par + "\" of method \"" + commandData.getMethod() + "\" ";
+        for (DiscordEventsMetadata.EventParameter par : commandData.getParameters()) {
+            String msgStart = "Parameter \"" + par.parameter() + "\" of method \"" + commandData.getMethod() + "\" ";
             List<Class<?>> presentAnnotations = new ArrayList<>();
             if (par.isAnnotationPresent(CommandParam.class)) {
                 presentAnnotations.add(CommandParam.class);
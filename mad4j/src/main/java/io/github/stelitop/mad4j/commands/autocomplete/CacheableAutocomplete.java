@@ -0,0 +1,37 @@
+package io.github.stelitop.mad4j.commands.autocomplete;
+
+import io.github.stelitop.mad4j.utils.CacheScope;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Can be annotated to an {@link AutocompletionExecutor} class to cache its suggestions.
+ * Suggestions are cached by the command, the option and the value the user has typed so far,
+ * and optionally by the guild or the user, depending on the {@link #scope()}.</p>
+ *
+ * <p>This should only be used by executors whose suggestions do not change within the
+ * time to live of the cache.</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableAutocomplete {
+
+    /**
+     * How long the suggestions stay in the cache, in seconds.
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * The maximum number of cached suggestion lists. When the cache is full, the least
+     * recently used list is evicted.
+     */
+    int maxSize() default 1000;
+
+    /**
+     * Who the cached suggestions are shared between.
+     */
+    CacheScope scope() default CacheScope.GLOBAL;
+}
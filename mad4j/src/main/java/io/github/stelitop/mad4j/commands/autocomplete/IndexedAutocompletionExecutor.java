@@ -0,0 +1,64 @@
+package io.github.stelitop.mad4j.commands.autocomplete;
+
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>An autocomplete executor that suggests entries from a fixed or slowly changing list,
+ * such as item names. The list is indexed once by a {@link SuggestionIndex}, so every
+ * keystroke only searches the index instead of filtering the whole list.</p>
+ *
+ * <p>The list is loaded with {@link #loadSuggestions()} the first time it is needed. When
+ * the list changes, {@link #reload()} builds a new index and replaces the old one. Searches
+ * running at that time keep using the old index, so they never wait for the reload.</p>
+ *
+ * <p>Classes extending this class must also be recognised as beans by spring.</p>
+ */
+public abstract class IndexedAutocompletionExecutor implements AutocompletionExecutor {
+
+    /**
+     * The maximum amount of suggestions that Discord accepts.
+     */
+    private static final int MAX_SUGGESTIONS = 25;
+
+    private volatile SuggestionIndex index;
+
+    /**
+     * Loads all suggestions that can be given.
+     *
+     * @return The suggestions.
+     */
+    protected abstract Collection<InputSuggestion> loadSuggestions();
+
+    @Override
+    public List<InputSuggestion> execute(ChatInputAutoCompleteEvent event) {
+        String input = event.getFocusedOption().getValue()
+                .map(ApplicationCommandInteractionOptionValue::getRaw)
+                .orElse("");
+        return getIndex().search(input, MAX_SUGGESTIONS);
+    }
+
+    /**
+     * Loads the suggestions again and replaces the index with one containing them.
+     */
+    public void reload() {
+        index = SuggestionIndex.of(loadSuggestions());
+    }
+
+    /**
+     * Gets the current index, loading it if it has not been loaded yet.
+     *
+     * @return The index.
+     */
+    protected SuggestionIndex getIndex() {
+        SuggestionIndex current = index;
+        if (current != null) return current;
+        synchronized (this) {
+            if (index == null) index = SuggestionIndex.of(loadSuggestions());
+            return index;
+        }
+    }
+}
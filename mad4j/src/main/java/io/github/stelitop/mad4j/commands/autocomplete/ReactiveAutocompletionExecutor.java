@@ -0,0 +1,40 @@
+package io.github.stelitop.mad4j.commands.autocomplete;
+
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * <p>An autocomplete executor that returns its suggestions asynchronously. Discord ignores
+ * suggestions that arrive too late, so the suggestions are answered when the deadline set in
+ * the "mad4j.autocomplete.deadline" property (in milliseconds) runs out, even if the
+ * executor has not finished yet. Only the suggestions emitted until then are sent.</p>
+ *
+ * <p>Executors that already hold their suggestions in a {@code Mono<List<InputSuggestion>>}
+ * can return it with {@link reactor.core.publisher.Mono#flatMapIterable}.</p>
+ *
+ * <p>Classes implementing this interface must also be recognised as beans by spring.</p>
+ */
+public interface ReactiveAutocompletionExecutor extends AutocompletionExecutor {
+
+    /**
+     * Gives the suggestions of the event. The event must NOT be answered in this method,
+     * as it is answered later on. At most 25 suggestions are used.
+     *
+     * @param event The event.
+     * @return The suggestions for the event.
+     */
+    Flux<InputSuggestion> suggest(ChatInputAutoCompleteEvent event);
+
+    /**
+     * Gets the suggestions of the event by blocking until {@link #suggest} completes.
+     *
+     * @param event The event.
+     * @return The suggestions for the event.
+     */
+    @Override
+    default List<InputSuggestion> execute(ChatInputAutoCompleteEvent event) {
+        return suggest(event).collectList().block();
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.stelitop.mad4j.commands.autocomplete;
+
+import io.github.stelitop.mad4j.utils.LongObjectMap;
+
+import java.util.*;
+
+/**
+ * <p>An immutable index of suggestions that can be searched by what the user has typed
+ * so far.</p>
+ *
+ * <p>The suggestions are sorted by their lowercase names, so suggestions starting with the
+ * input are found with a binary search. If there are not enough of them, the remaining
+ * suggestions are found by the amount of three letter sequences (trigrams) their names share
+ * with the input, so that typos and words in the middle of the name are still matched.</p>
+ */
+public final class SuggestionIndex {
+
+    /**
+     * The buffers of the searches of every thread.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final InputSuggestion[] suggestions;
+    private final String[] keys;
+    private final LongObjectMap<int[]> trigramPostings;
+
+    /**
+     * Buffers reused by the searches of a thread. They grow to the largest index and query
+     * searched on the thread.
+     */
+    private static final class Scratch {
+        /**
+         * The amount of trigrams every suggestion shares with the query. All of them are 0
+         * between searches.
+         */
+        private int[] counts = new int[0];
+        /**
+         * The suggestions sharing at least one trigram with the query.
+         */
+        private int[] touched = new int[64];
+        /**
+         * The trigrams of the query.
+         */
+        private long[] trigrams = new long[32];
+        /**
+         * The best matching suggestions, sorted.
+         */
+        private int[] best = new int[25];
+    }
+
+    private SuggestionIndex(InputSuggestion[] suggestions, String[] keys, LongObjectMap<int[]> trigramPostings) {
+        this.suggestions = suggestions;
+        this.keys = keys;
+        this.trigramPostings = trigramPostings;
+    }
+
+    /**
+     * Builds the index of some suggestions.
+     *
+     * @param suggestions The suggestions.
+     * @return The index.
+     */
+    public static SuggestionIndex of(Collection<InputSuggestion> suggestions) {
+        InputSuggestion[] sorted = suggestions.toArray(new InputSuggestion[0]);
+        String[] keys = new String[sorted.length];
+        Integer[] order = new Integer[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = normalise(sorted[i].getName());
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+
+        InputSuggestion[] orderedSuggestions = new InputSuggestion[sorted.length];
+        String[] orderedKeys = new String[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            orderedSuggestions[i] = sorted[order[i]];
+            orderedKeys[i] = keys[order[i]];
+        }
+
+        Map<Long, List<Integer>> postingLists = new HashMap<>();
+        for (int i = 0; i < orderedKeys.length; i++) {
+            for (long trigram : trigrams(orderedKeys[i])) {
+                postingLists.computeIfAbsent(trigram, x -> new ArrayList<>()).add(i);
+            }
+        }
+        LongObjectMap<int[]> postings = new LongObjectMap<>(postingLists.size());
+        postingLists.forEach((trigram, list) -> postings.put(trigram, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new SuggestionIndex(orderedSuggestions, orderedKeys, postings);
+    }
+
+    /**
+     * Searches for the suggestions that best match the input. Suggestions starting with the
+     * input come first, in alphabetical order, followed by the suggestions sharing the most
+     * trigrams with the input, shorter names first.
+     *
+     * @param input What the user has typed so far.
+     * @param limit The maximum amount of suggestions returned.
+     * @return The matching suggestions.
+     */
+    public List<InputSuggestion> search(String input, int limit) {
+        String query = normalise(input);
+        List<InputSuggestion> ret = new ArrayList<>(Math.min(limit, suggestions.length));
+
+        int first = lowerBound(query);
+        int prefixEnd = first;
+        while (prefixEnd < keys.length && ret.size() < limit && keys[prefixEnd].startsWith(query)) {
+            ret.add(suggestions[prefixEnd++]);
+        }
+        if (ret.size() < limit) {
+            fuzzySearch(query, first, prefixEnd, limit - ret.size(), ret);
+        }
+        return ret;
+    }
+
+    /**
+     * Gets the amount of indexed suggestions.
+     *
+     * @return The amount of suggestions.
+     */
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * Adds the suggestions sharing the most trigrams with the query, ignoring the ones in
+     * the range that have already been added as prefix matches. Only the buffers of the
+     * thread are used, so this does not allocate.
+     */
+    private void fuzzySearch(String query, int skipFrom, int skipTo, int limit, List<InputSuggestion> ret) {
+        Scratch scratch = SCRATCH.get();
+        int trigramCount = queryTrigrams(query, scratch);
+        if (trigramCount == 0) return;
+
+        if (scratch.counts.length < suggestions.length) scratch.counts = new int[suggestions.length];
+        int[] counts = scratch.counts;
+        int touchedCount = 0;
+        for (int t = 0; t < trigramCount; t++) {
+            int[] postings = trigramPostings.get(scratch.trigrams[t]);
+            if (postings == null) continue;
+            for (int i : postings) {
+                if (counts[i]++ == 0) {
+                    if (touchedCount == scratch.touched.length) scratch.touched = Arrays.copyOf(scratch.touched, touchedCount * 2);
+                    scratch.touched[touchedCount++] = i;
+                }
+            }
+        }
+
+        int minimumScore = Math.max(1, (trigramCount + 1) / 2);
+        if (scratch.best.length < limit) scratch.best = new int[limit];
+        int[] best = scratch.best;
+        int bestCount = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int i = scratch.touched[t];
+            if (counts[i] >= minimumScore && (i < skipFrom || i >= skipTo)) {
+                bestCount = insertCandidate(best, bestCount, limit, i, counts);
+            }
+        }
+        // The counts are cleared for the next search.
+        for (int t = 0; t < touchedCount; t++) {
+            counts[scratch.touched[t]] = 0;
+        }
+        for (int k = 0; k < bestCount; k++) {
+            ret.add(suggestions[best[k]]);
+        }
+    }
+
+    /**
+     * Inserts a candidate into the best candidates found so far, which are kept sorted.
+     *
+     * @return The new amount of best candidates.
+     */
+    private int insertCandidate(int[] best, int size, int limit, int candidate, int[] counts) {
+        int position = size;
+        while (position > 0 && isBetterMatch(candidate, best[position - 1], counts)) position--;
+        if (position >= limit) return size;
+        int newSize = Math.min(size + 1, limit);
+        System.arraycopy(best, position, best, position + 1, newSize - position - 1);
+        best[position] = candidate;
+        return newSize;
+    }
+
+    /**
+     * Checks whether a suggestion matches better than another one: it shares more trigrams
+     * with the query, or as many but its name is shorter, or both but it comes first
+     * alphabetically.
+     */
+    private boolean isBetterMatch(int a, int b, int[] counts) {
+        if (counts[a] != counts[b]) return counts[a] > counts[b];
+        if (keys[a].length() != keys[b].length()) return keys[a].length() < keys[b].length();
+        return a < b;
+    }
+
+    /**
+     * Finds the first key that is not smaller than the query.
+     */
+    private int lowerBound(String query) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(query) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Gets the distinct trigrams of a text, each packed into a long.
+     */
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) return new long[0];
+        long[] ret = new long[text.length() - 2];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = trigram(text, i);
+        }
+        return Arrays.stream(ret).distinct().toArray();
+    }
+
+    /**
+     * Puts the distinct trigrams of the query into the buffer of the thread, sorted.
+     *
+     * @return The amount of distinct trigrams.
+     */
+    private static int queryTrigrams(String query, Scratch scratch) {
+        int length = query.length() - 2;
+        if (length <= 0) return 0;
+        if (scratch.trigrams.length < length) scratch.trigrams = new long[length];
+        long[] trigrams = scratch.trigrams;
+        for (int i = 0; i < length; i++) {
+            trigrams[i] = trigram(query, i);
+        }
+        Arrays.sort(trigrams, 0, length);
+        int distinct = 1;
+        for (int i = 1; i < length; i++) {
+            if (trigrams[i] != trigrams[distinct - 1]) trigrams[distinct++] = trigrams[i];
+        }
+        return distinct;
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static String normalise(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.stelitop.mad4j.commands.binding;
+
+import discord4j.core.event.domain.interaction.ComponentInteractionEvent;
+
+import java.util.regex.Matcher;
+
+/**
+ * <p>Produces the value of a single parameter of a component interaction method.</p>
+ *
+ * <p>Binders are compiled once per method when the application starts, see
+ * {@link ComponentParamBinders#compile(io.github.stelitop.mad4j.DiscordEventsMetadata.EventMethod, io.github.stelitop.mad4j.commands.components.ComponentInteraction)}.</p>
+ */
+@FunctionalInterface
+public interface ComponentParamBinder {
+
+    /**
+     * Gets the value to inject into the parameter.
+     *
+     * @param event The component interaction event.
+     * @param matcher The matcher that matched the custom id of the event.
+     * @return The value of the parameter. Can be null.
+     * @throws IllegalArgumentException If a value from the custom id cannot be converted
+     *     to the type of the parameter.
+     */
+    Object bind(ComponentInteractionEvent event, Matcher matcher);
+}
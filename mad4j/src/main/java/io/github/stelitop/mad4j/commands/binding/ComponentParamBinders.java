@@ -0,0 +1,263 @@
+package io.github.stelitop.mad4j.commands.binding;
+
+import discord4j.core.object.entity.User;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventMethod;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventParameter;
+import io.github.stelitop.mad4j.DiscordEventsScanner;
+import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+import io.github.stelitop.mad4j.commands.components.CustomIdGroup;
+import io.github.stelitop.mad4j.commands.convenience.EventUser;
+import io.github.stelitop.mad4j.commands.convenience.EventUserId;
+import io.github.stelitop.mad4j.utils.ActionResult;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Compiles the parameters of {@link ComponentInteraction} methods into
+ * {@link ComponentParamBinder}s.</p>
+ *
+ * <p>The types of the parameters are verified here, so that incorrectly declared methods
+ * are found when the application starts. This includes {@link CustomIdGroup} parameters of
+ * primitive types whose capture group might not match, as they cannot be null.</p>
+ */
+public class ComponentParamBinders {
+
+    /**
+     * Finds the names of the named capture groups in a regex.
+     */
+    private static final Pattern NAMED_GROUP_PATTERN = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+
+    private static final ComponentParamBinder EVENT_BINDER = (event, matcher) -> event;
+    private static final ComponentParamBinder USER_BINDER = (event, matcher) -> event.getInteraction().getUser();
+    private static final ComponentParamBinder USER_ID_BINDER = (event, matcher) -> event.getInteraction().getUser().getId().asLong();
+    private static final ComponentParamBinder NULL_BINDER = (event, matcher) -> null;
+
+    private ComponentParamBinders() {
+
+    }
+
+    /**
+     * Compiles the binders of all parameters of a component interaction method.
+     *
+     * @param eventMethod The component interaction method, as scanned by the
+     *     {@link DiscordEventsScanner}.
+     * @param annotation The {@link ComponentInteraction} annotation of the method.
+     * @return The binders, one for every parameter of the method, in order, or a failure
+     *     if any of the parameters is incorrectly declared.
+     */
+    public static ActionResult<ComponentParamBinder[]> compile(EventMethod eventMethod, ComponentInteraction annotation) {
+        Set<String> groupNames = getNamedGroups(annotation.regex());
+        Set<String> optionalGroups = getOptionalGroups(annotation.regex());
+        Method method = eventMethod.method();
+        List<EventParameter> parameters = eventMethod.parameters();
+        ComponentParamBinder[] binders = new ComponentParamBinder[parameters.size()];
+        for (int i = 0; i < binders.length; i++) {
+            ActionResult<ComponentParamBinder> binder = compile(annotation, parameters.get(i), groupNames, optionalGroups);
+            if (binder.hasFailed()) {
+                return ActionResult.fail("Method \"" + method.getName() + "\" in class \"" + method.getDeclaringClass().getName()
+                        + "\" has an incorrect parameter at position " + i + ". Message: " + binder.errorMessage());
+            }
+            binders[i] = binder.getResponse();
+        }
+        return ActionResult.success(binders);
+    }
+
+    /**
+     * Compiles the binder of a single parameter, depending on its annotations.
+     *
+     * @param annotation The {@link ComponentInteraction} annotation of the method.
+     * @param param The parameter.
+     * @param groupNames The names of the capture groups in the regex of the method.
+     * @param optionalGroups The names of the capture groups that might not match.
+     * @return The binder, or a failure if the parameter is incorrectly declared.
+     */
+    private static ActionResult<ComponentParamBinder> compile(ComponentInteraction annotation, EventParameter param,
+                                                              Set<String> groupNames, Set<String> optionalGroups) {
+        if (param.isAnnotationPresent(InteractionEvent.class)) {
+            if (!param.getType().isAssignableFrom(annotation.event())) {
+                return ActionResult.fail("The @InteractionEvent type is not compatible!");
+            }
+            return ActionResult.success(EVENT_BINDER);
+        }
+        if (param.isAnnotationPresent(EventUser.class)) {
+            if (param.getType() != User.class) {
+                return ActionResult.fail("The @EventUser type is not a User type!");
+            }
+            return ActionResult.success(USER_BINDER);
+        }
+        if (param.isAnnotationPresent(EventUserId.class)) {
+            if (param.getType() != Long.class && param.getType() != long.class) {
+                return ActionResult.fail("The @EventUserId type is not a long type!");
+            }
+            return ActionResult.success(USER_ID_BINDER);
+        }
+        if (param.isAnnotationPresent(CustomIdGroup.class)) {
+            String groupName = param.getAnnotation(CustomIdGroup.class).value();
+            if (!groupNames.contains(groupName)) {
+                return ActionResult.fail("The regex has no capture group named \"" + groupName + "\"!");
+            }
+            Function<String, Object> converter = getGroupConverter(param.getType());
+            if (converter == null) {
+                return ActionResult.fail("The @CustomIdGroup type " + param.getType().getName() + " is not supported!");
+            }
+            boolean primitive = param.getType().isPrimitive();
+            if (primitive && optionalGroups.contains(groupName)) {
+                return ActionResult.fail("The capture group \"" + groupName + "\" might not match, so the @CustomIdGroup type "
+                        + param.getType().getName() + " cannot be primitive! Long or Integer should be used instead.");
+            }
+            return ActionResult.success((event, matcher) -> {
+                String group = matcher.group(groupName);
+                if (group != null) return converter.apply(group);
+                if (primitive) {
+                    throw new IllegalArgumentException("The capture group \"" + groupName + "\" did not match, so it cannot "
+                            + "be injected into a parameter of type " + param.getType().getName() + "!");
+                }
+                return null;
+            });
+        }
+        return ActionResult.success(NULL_BINDER);
+    }
+
+    /**
+     * Gets the function that converts the value of a capture group to the type of the parameter.
+     *
+     * @param paramClass The type of the parameter.
+     * @return The converting function, or null if the type is not supported.
+     */
+    private static Function<String, Object> getGroupConverter(Class<?> paramClass) {
+        if (paramClass == String.class) return group -> group;
+        if (paramClass == long.class || paramClass == Long.class) return Long::parseLong;
+        if (paramClass == int.class || paramClass == Integer.class) return Integer::parseInt;
+        if (paramClass.isEnum()) {
+            Map<String, Object> constants = new HashMap<>();
+            for (Object constant : paramClass.getEnumConstants()) {
+                String name = ((Enum<?>) constant).name();
+                constants.put(name, constant);
+                constants.putIfAbsent(name.toLowerCase(Locale.ROOT), constant);
+            }
+            return group -> {
+                Object constant = constants.get(group);
+                if (constant == null) {
+                    throw new IllegalArgumentException("\"" + group + "\" is not a constant of " + paramClass.getName() + "!");
+                }
+                return constant;
+            };
+        }
+        return null;
+    }
+
+    /**
+     * A group of a regex, used to find the groups that might not match.
+     */
+    private static final class RegexGroup {
+        private final RegexGroup parent;
+        private final String name;
+        private final boolean negativeLookaround;
+        private boolean quantifiedOptional;
+        private boolean alternation;
+
+        private RegexGroup(RegexGroup parent, String name, boolean negativeLookaround) {
+            this.parent = parent;
+            this.name = name;
+            this.negativeLookaround = negativeLookaround;
+        }
+    }
+
+    /**
+     * <p>Gets the names of the named capture groups in a regex that might not take part in a
+     * match, in which case their value is null.</p>
+     *
+     * <p>A group might not match if it or one of the groups around it can be repeated zero
+     * times, is one of the alternatives of a <code>|</code>, or is in a negative lookaround.</p>
+     *
+     * @param regex The regex.
+     * @return The names of the optional groups.
+     */
+    private static Set<String> getOptionalGroups(String regex) {
+        RegexGroup root = new RegexGroup(null, null, false);
+        List<RegexGroup> namedGroups = new ArrayList<>();
+        RegexGroup current = root;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (regex.startsWith("Q", i + 1)) {
+                    int end = regex.indexOf("\\E", i + 2);
+                    i = end < 0 ? regex.length() : end + 1;
+                } else {
+                    i++;
+                }
+            } else if (c == '[') {
+                i = skipCharacterClass(regex, i);
+            } else if (c == '(') {
+                String name = null;
+                if (regex.startsWith("(?<", i) && i + 3 < regex.length() && Character.isLetter(regex.charAt(i + 3))) {
+                    name = regex.substring(i + 3, regex.indexOf('>', i));
+                }
+                boolean negativeLookaround = regex.startsWith("(?!", i) || regex.startsWith("(?<!", i);
+                current = new RegexGroup(current, name, negativeLookaround);
+                if (name != null) namedGroups.add(current);
+            } else if (c == ')' && current != root) {
+                if (i + 1 < regex.length()) {
+                    char quantifier = regex.charAt(i + 1);
+                    current.quantifiedOptional = quantifier == '?' || quantifier == '*' || regex.startsWith("{0", i + 1);
+                }
+                current = current.parent;
+            } else if (c == '|') {
+                current.alternation = true;
+            }
+        }
+
+        Set<String> optional = new HashSet<>();
+        for (RegexGroup group : namedGroups) {
+            for (RegexGroup g = group; g != root; g = g.parent) {
+                if (g.quantifiedOptional || g.negativeLookaround || g.parent.alternation) {
+                    optional.add(group.name);
+                    break;
+                }
+            }
+        }
+        return optional;
+    }
+
+    /**
+     * Finds the end of a character class, which can contain other classes.
+     *
+     * @param regex The regex.
+     * @param start The index of the opening bracket of the class.
+     * @return The index of the closing bracket of the class.
+     */
+    private static int skipCharacterClass(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return regex.length();
+    }
+
+    /**
+     * Gets the names of all named capture groups in a regex.
+     *
+     * @param regex The regex.
+     * @return The names of the groups.
+     */
+    private static Set<String> getNamedGroups(String regex) {
+        Set<String> names = new HashSet<>();
+        Matcher matcher = NAMED_GROUP_PATTERN.matcher(regex);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+}
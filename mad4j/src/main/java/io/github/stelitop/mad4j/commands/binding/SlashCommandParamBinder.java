@@ -0,0 +1,26 @@
+package io.github.stelitop.mad4j.commands.binding;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+
+import java.util.List;
+
+/**
+ * <p>Produces the value of a single parameter of a slash command method.</p>
+ *
+ * <p>Binders are compiled once per method when the application starts, see
+ * {@link SlashCommandParamBinders#compile(List)}, so that no
+ * annotations have to be read when the command is invoked.</p>
+ */
+@FunctionalInterface
+public interface SlashCommandParamBinder {
+
+    /**
+     * Gets the value to inject into the parameter.
+     *
+     * @param event The slash command event.
+     * @param options The options of the invoked (sub)command.
+     * @return The value of the parameter. Can be null.
+     */
+    Object bind(ChatInputInteractionEvent event, List<ApplicationCommandInteractionOption> options);
+}
@@ -0,0 +1,165 @@
+package io.github.stelitop.mad4j.commands.binding;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.ApplicationCommandInteraction;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
+import discord4j.core.object.command.ApplicationCommandInteractionResolved;
+import discord4j.core.object.entity.Role;
+import discord4j.core.object.entity.User;
+import discord4j.core.object.entity.channel.MessageChannel;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventParameter;
+import io.github.stelitop.mad4j.DiscordEventsScanner;
+import io.github.stelitop.mad4j.commands.CommandParam;
+import io.github.stelitop.mad4j.commands.DefaultValue;
+import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.commands.convenience.EventUser;
+import io.github.stelitop.mad4j.commands.convenience.EventUserId;
+import io.github.stelitop.mad4j.utils.PendingArgument;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * <p>Compiles the parameters of slash command methods into {@link SlashCommandParamBinder}s.</p>
+ *
+ * <p>All annotations of the parameters are read once here, from the metadata of the
+ * {@link DiscordEventsScanner}. Parameters annotated with {@link InteractionEvent},
+ * {@link EventUser} and {@link EventUserId} get convenience injectors, while parameters
+ * annotated with {@link CommandParam} get a binder that extracts the value of the option,
+ * typed for the parameter, or supplies its {@link DefaultValue}.</p>
+ */
+public class SlashCommandParamBinders {
+
+    private static final SlashCommandParamBinder EVENT_BINDER = (event, options) -> event;
+    private static final SlashCommandParamBinder USER_BINDER = (event, options) -> event.getInteraction().getUser();
+    private static final SlashCommandParamBinder USER_ID_BINDER = (event, options) -> event.getInteraction().getUser().getId().asLong();
+    private static final SlashCommandParamBinder NULL_BINDER = (event, options) -> null;
+
+    private SlashCommandParamBinders() {
+
+    }
+
+    /**
+     * Compiles the binders of all parameters of a slash command method.
+     *
+     * @param parameters The parameters of the slash command method, as scanned by the
+     *     {@link DiscordEventsScanner}.
+     * @return The binders, one for every parameter of the method, in order.
+     */
+    public static SlashCommandParamBinder[] compile(List<EventParameter> parameters) {
+        SlashCommandParamBinder[] binders = new SlashCommandParamBinder[parameters.size()];
+        for (int i = 0; i < binders.length; i++) {
+            binders[i] = compile(parameters.get(i));
+        }
+        return binders;
+    }
+
+    /**
+     * Compiles the binder of a single parameter. Parameters that have no injectable annotation
+     * get a binder that always returns null.
+     *
+     * @param param The parameter.
+     * @return The binder.
+     */
+    private static SlashCommandParamBinder compile(EventParameter param) {
+        // Convenience injectors.
+        // Inject the interaction event. Does not check if this is the correct event type
+        if (param.isAnnotationPresent(InteractionEvent.class)) return EVENT_BINDER;
+        // Inject the User object
+        if (param.isAnnotationPresent(EventUser.class)) return USER_BINDER;
+        // Inject the Discord ID of the user
+        if (param.isAnnotationPresent(EventUserId.class)) return USER_ID_BINDER;
+
+        // Finally, check for actual command parameters.
+        if (!param.isAnnotationPresent(CommandParam.class)) return NULL_BINDER;
+        String optionName = param.getAnnotation(CommandParam.class).name().toLowerCase(Locale.ROOT);
+        BiFunction<ChatInputInteractionEvent, ApplicationCommandInteractionOptionValue, Object> extractor = getValueExtractor(param.getType());
+        Supplier<Object> defaultValue = getDefaultValueSupplier(param);
+
+        return (event, options) -> {
+            for (int i = 0; i < options.size(); i++) {
+                ApplicationCommandInteractionOption option = options.get(i);
+                if (!option.getName().equalsIgnoreCase(optionName)) continue;
+                Optional<ApplicationCommandInteractionOptionValue> value = option.getValue();
+                return value.isPresent() ? extractor.apply(event, value.get()) : defaultValue.get();
+            }
+            return defaultValue.get();
+        };
+    }
+
+    /**
+     * <p>Gets the function that extracts the value of an option as the type of the parameter.</p>
+     *
+     * <p>Users, channels and roles are not fetched here. Instead, a {@link PendingArgument} is
+     * returned, which is resolved without blocking before the method is invoked. Users and roles
+     * are built from the resolved data of the interaction if it is present, which avoids a
+     * request to Discord.</p>
+     *
+     * @param paramClass The type of the parameter.
+     * @return The extracting function. For unsupported types, it always returns null.
+     */
+    private static BiFunction<ChatInputInteractionEvent, ApplicationCommandInteractionOptionValue, Object> getValueExtractor(Class<?> paramClass) {
+        if (paramClass == long.class || paramClass == Long.class) return (event, value) -> value.asLong();
+        if (paramClass == double.class || paramClass == Double.class) return (event, value) -> value.asDouble();
+        if (paramClass == float.class || paramClass == Float.class) return (event, value) -> (float) value.asDouble();
+        if (paramClass == boolean.class || paramClass == Boolean.class) return (event, value) -> value.asBoolean();
+        if (paramClass == String.class) return (event, value) -> value.asString();
+        if (paramClass == User.class) {
+            return (event, value) -> PendingArgument.of(getResolved(event)
+                    .flatMap(resolved -> resolved.getUser(value.asSnowflake()))
+                    .map(Mono::just)
+                    .orElseGet(value::asUser));
+        }
+        if (paramClass == Role.class) {
+            return (event, value) -> PendingArgument.of(getResolved(event)
+                    .flatMap(resolved -> resolved.getRole(value.asSnowflake()))
+                    .map(Mono::just)
+                    .orElseGet(value::asRole));
+        }
+        if (MessageChannel.class.isAssignableFrom(paramClass)) {
+            return (event, value) -> PendingArgument.of(value.asChannel().ofType(paramClass));
+        }
+        return (event, value) -> null;
+    }
+
+    /**
+     * Gets the resolved data sent together with the interaction.
+     *
+     * @param event The slash command event.
+     * @return The resolved data, if present.
+     */
+    private static Optional<ApplicationCommandInteractionResolved> getResolved(ChatInputInteractionEvent event) {
+        return event.getInteraction()
+                .getCommandInteraction()
+                .flatMap(ApplicationCommandInteraction::getResolved);
+    }
+
+    /**
+     * Gets the supplier of the value used when the option is not given. If the parameter
+     * has a {@link DefaultValue}, it is converted to the type of the parameter beforehand.
+     *
+     * @param param The parameter.
+     * @return The supplier of the default value. If there is no usable default value,
+     *     it supplies null.
+     */
+    private static Supplier<Object> getDefaultValueSupplier(EventParameter param) {
+        DefaultValue dv = param.getAnnotation(DefaultValue.class);
+        if (dv == null) return () -> null;
+
+        Class<?> paramClass = param.getType();
+        Object value;
+        if (paramClass == double.class || paramClass == Double.class) value = dv.number();
+        else if (paramClass == float.class || paramClass == Float.class) value = (float) dv.number();
+        else if (paramClass == long.class || paramClass == Long.class) value = (long) dv.number();
+        else if (paramClass == int.class || paramClass == Integer.class) value = (int) dv.number();
+        else if (paramClass == String.class) value = dv.string();
+        else if (paramClass == boolean.class || paramClass == Boolean.class) value = dv.bool();
+        else value = null;
+        return () -> value;
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.stelitop.mad4j.commands.binding;
+
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import io.github.stelitop.mad4j.commands.text.TextCommandTokens;
+
+/**
+ * <p>Produces the value of a single parameter of a text command method.</p>
+ *
+ * <p>Binders are compiled once per method when the application starts, see
+ * {@link TextCommandParamBinders#compile(io.github.stelitop.mad4j.DiscordEventsMetadata.EventMethod)}, so that no annotations have to be
+ * read when the command is invoked.</p>
+ */
+@FunctionalInterface
+public interface TextCommandParamBinder {
+
+    /**
+     * Gets the value to inject into the parameter.
+     *
+     * @param event The message event of the command.
+     * @param tokens The tokens of the message.
+     * @param firstParam The index of the first token after the command name.
+     * @return The value of the parameter. Can be null.
+     */
+    Object bind(MessageCreateEvent event, TextCommandTokens tokens, int firstParam);
+}
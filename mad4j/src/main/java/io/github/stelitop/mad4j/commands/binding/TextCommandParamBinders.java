@@ -0,0 +1,181 @@
+package io.github.stelitop.mad4j.commands.binding;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.core.object.entity.Role;
+import discord4j.core.object.entity.User;
+import discord4j.core.object.entity.channel.MessageChannel;
+import discord4j.discordjson.Id;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventMethod;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventParameter;
+import io.github.stelitop.mad4j.DiscordEventsScanner;
+import io.github.stelitop.mad4j.commands.CommandParam;
+import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.commands.convenience.EventUser;
+import io.github.stelitop.mad4j.commands.convenience.EventUserId;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.PendingArgument;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>Compiles the parameters of text command methods into {@link TextCommandParamBinder}s.</p>
+ *
+ * <p>All annotations of the parameters are read once here, from the metadata of the
+ * {@link DiscordEventsScanner}. Parameters annotated with {@link CommandParam} take the inputs
+ * of the command in order, so every one of them is bound to the index of its input when it
+ * is compiled. Parameters annotated with {@link InteractionEvent}, {@link EventUser} and
+ * {@link EventUserId} get convenience injectors, which take the author of the message
+ * directly from the message, without fetching it.</p>
+ *
+ * <p>Inputs that are missing or cannot be parsed are injected as null, so inputs cannot have
+ * primitive types. Methods that declare them are rejected when the application starts.</p>
+ */
+public class TextCommandParamBinders {
+
+    private static final TextCommandParamBinder USER_BINDER = (event, tokens, firstParam) -> event.getMessage().getAuthor().orElse(null);
+    private static final TextCommandParamBinder USER_ID_BINDER = (event, tokens, firstParam) -> event.getMessage().getUserData().id().asLong();
+    private static final TextCommandParamBinder NULL_BINDER = (event, tokens, firstParam) -> null;
+
+    private TextCommandParamBinders() {
+
+    }
+
+    /**
+     * Compiles the binders of all parameters of a text command method.
+     *
+     * @param eventMethod The text command method, as scanned by the {@link DiscordEventsScanner}.
+     * @return The binders, one for every parameter of the method, in order, or a failure
+     *     if any of the inputs has a primitive type.
+     */
+    public static ActionResult<TextCommandParamBinder[]> compile(EventMethod eventMethod) {
+        Method method = eventMethod.method();
+        List<EventParameter> parameters = eventMethod.parameters();
+        TextCommandParamBinder[] binders = new TextCommandParamBinder[parameters.size()];
+        int input = 0;
+        for (int i = 0; i < binders.length; i++) {
+            EventParameter param = parameters.get(i);
+            if (param.isAnnotationPresent(CommandParam.class)) {
+                if (param.getType().isPrimitive()) {
+                    return ActionResult.fail("Method \"" + method.getName() + "\" in class \"" + method.getDeclaringClass().getName()
+                            + "\" has an incorrect parameter at position " + i + ". Message: The text command input type "
+                            + param.getType().getName() + " cannot be primitive, as missing or invalid inputs are null! "
+                            + "Long, Double and Boolean should be used instead.");
+                }
+                binders[i] = compileInput(param.getType(), input++);
+            } else {
+                binders[i] = compile(param);
+            }
+        }
+        return ActionResult.success(binders);
+    }
+
+    /**
+     * Compiles the binder of a parameter that is not an input of the command. Parameters that
+     * have no injectable annotation get a binder that always returns null.
+     *
+     * @param param The parameter.
+     * @return The binder.
+     */
+    private static TextCommandParamBinder compile(EventParameter param) {
+        if (param.isAnnotationPresent(InteractionEvent.class)) {
+            Class<?> type = param.getType();
+            return (event, tokens, firstParam) -> type.isInstance(event) ? event : null;
+        }
+        if (param.isAnnotationPresent(EventUser.class)) return USER_BINDER;
+        if (param.isAnnotationPresent(EventUserId.class)) return USER_ID_BINDER;
+        return NULL_BINDER;
+    }
+
+    /**
+     * Compiles the binder of an input of the command. Only the token of the input is turned
+     * into a string.
+     *
+     * @param type The type of the parameter.
+     * @param input The index of the input among the inputs of the command.
+     * @return The binder. If the input is missing or cannot be parsed, it returns null.
+     */
+    private static TextCommandParamBinder compileInput(Class<?> type, int input) {
+        BiFunction<String, MessageCreateEvent, Object> parser = getParser(type);
+        return (event, tokens, firstParam) -> {
+            int token = firstParam + input;
+            return token < tokens.size() ? parser.apply(tokens.get(token), event) : null;
+        };
+    }
+
+    /**
+     * <p>Gets the function that parses an input of the command, as it was written in the
+     * message, into the type of the parameter.</p>
+     *
+     * <p>Users, roles and channels are given as mentions and are returned as
+     * {@link PendingArgument}s, so they can be fetched without blocking.</p>
+     *
+     * @param type The type of the parameter.
+     * @return The parsing function. It returns null if the input could not be parsed, and
+     *     always for unsupported types.
+     */
+    private static BiFunction<String, MessageCreateEvent, Object> getParser(Class<?> type) {
+        if (type == Long.class) return (s, event) -> parseNumber(s, Long::parseLong);
+        if (type == Double.class) return (s, event) -> parseNumber(s, Double::parseDouble);
+        if (type == Float.class) return (s, event) -> parseNumber(s, Float::parseFloat);
+        if (type == Boolean.class) {
+            return (s, event) -> {
+                if (s.equalsIgnoreCase("true")) return true;
+                if (s.equalsIgnoreCase("false")) return false;
+                return null;
+            };
+        }
+        if (type == String.class) return (s, event) -> s;
+        if (type == Role.class) {
+            return (s, event) -> {
+                if (!isMention(s, "<@&") || event.getGuildId().isEmpty()) return null;
+                Snowflake roleId = Snowflake.of(Id.of(s.substring(3, s.length() - 1)));
+                return PendingArgument.of(event.getClient().getRoleById(event.getGuildId().get(), roleId));
+            };
+        }
+        if (type == User.class) {
+            return (s, event) -> {
+                if (!isMention(s, "<@")) return null;
+                String id = s.startsWith("<@!") ? s.substring(3, s.length() - 1) : s.substring(2, s.length() - 1);
+                return PendingArgument.of(event.getClient().getUserById(Snowflake.of(Id.of(id))));
+            };
+        }
+        if (MessageChannel.class.isAssignableFrom(type)) {
+            return (s, event) -> {
+                if (!isMention(s, "<#")) return null;
+                Snowflake channelId = Snowflake.of(Id.of(s.substring(2, s.length() - 1)));
+                return PendingArgument.of(event.getClient().getChannelById(channelId).ofType(type));
+            };
+        }
+        return (s, event) -> null;
+    }
+
+    /**
+     * Parses a number.
+     *
+     * @param s The input.
+     * @param parser The function parsing the number.
+     * @return The number, or null if the input is not a number.
+     */
+    private static Object parseNumber(String s, Function<String, Object> parser) {
+        try {
+            return parser.apply(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether an input is a mention, like <code>&lt;@123&gt;</code>.
+     *
+     * @param s The input.
+     * @param start The start of the mention.
+     * @return True if the input is a mention with the given start.
+     */
+    private static boolean isMention(String s, String start) {
+        return s.endsWith(">") && s.length() > 3 && s.startsWith(start);
+    }
+}
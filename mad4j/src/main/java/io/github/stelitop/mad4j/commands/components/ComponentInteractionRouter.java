@@ -0,0 +1,229 @@
+package io.github.stelitop.mad4j.commands.components;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Routes the custom ids of component interactions to the targets declared with a
+ * {@link ComponentInteraction#regex()}. The router is built once when the application starts.</p>
+ *
+ * <p>Regexes without any special characters are literal ids and are kept in a hash map. All
+ * other regexes are compiled once and put in a trie under their literal prefix, the part of the
+ * regex before the first special character. When routing an id, only the regexes whose prefix
+ * is a prefix of the id are tested, starting from the longest prefix.</p>
+ *
+ * <p>Literal ids have priority over regexes. Two targets with the same regex, or a literal id
+ * that is also matched by another regex, are reported as ambiguous when the router is built.</p>
+ *
+ * @param <T> The type of the targets.
+ */
+public class ComponentInteractionRouter<T> {
+
+    /**
+     * Characters that have a special meaning in a regex.
+     */
+    private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    /**
+     * A single route of the router.
+     *
+     * @param regex The regex of the route.
+     * @param pattern The compiled regex.
+     * @param target The target the route leads to.
+     */
+    public record Route<T>(String regex, Pattern pattern, T target) {
+
+    }
+
+    /**
+     * The result of routing an id.
+     *
+     * @param target The target the id was routed to.
+     * @param matcher The matcher that matched the id against the regex of the target.
+     */
+    public record Match<T>(T target, Matcher matcher) {
+
+    }
+
+    private static class TrieNode<T> {
+        private final Map<Character, TrieNode<T>> children = new HashMap<>();
+        private final List<Route<T>> routes = new ArrayList<>();
+    }
+
+    private final Map<String, Route<T>> literalRoutes;
+    private final TrieNode<T> prefixTrie;
+    private final int maxPrefixLength;
+
+    private ComponentInteractionRouter(Map<String, Route<T>> literalRoutes, TrieNode<T> prefixTrie, int maxPrefixLength) {
+        this.literalRoutes = literalRoutes;
+        this.prefixTrie = prefixTrie;
+        this.maxPrefixLength = maxPrefixLength;
+    }
+
+    /**
+     * Routes a custom id to its target.
+     *
+     * @param customId The custom id of the component.
+     * @return The match of the id, or null if no route matches it.
+     */
+    public @Nullable Match<T> route(String customId) {
+        Route<T> literal = literalRoutes.get(customId);
+        if (literal != null) {
+            Matcher matcher = literal.pattern.matcher(customId);
+            matcher.matches();
+            return new Match<>(literal.target, matcher);
+        }
+
+        // Walk down the trie along the id, remembering the nodes on the way.
+        int depth = Math.min(customId.length(), maxPrefixLength);
+        List<TrieNode<T>> path = new ArrayList<>(depth + 1);
+        TrieNode<T> node = prefixTrie;
+        path.add(node);
+        for (int i = 0; i < depth; i++) {
+            node = node.children.get(customId.charAt(i));
+            if (node == null) break;
+            path.add(node);
+        }
+
+        // Test the regexes with the longest prefixes first.
+        for (int i = path.size() - 1; i >= 0; i--) {
+            for (Route<T> route : path.get(i).routes) {
+                Matcher matcher = route.pattern.matcher(customId);
+                if (matcher.matches()) return new Match<>(route.target, matcher);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the routes that match a custom id. Unlike {@link #route(String)}, every regex
+     * that could match the id is tested, so this is only meant for diagnostics. Ids matched
+     * by more than one route are routed to the first of them.
+     *
+     * @param customId The custom id of the component.
+     * @return The number of routes that match the id.
+     */
+    public int countMatches(String customId) {
+        int count = literalRoutes.containsKey(customId) ? 1 : 0;
+        int depth = Math.min(customId.length(), maxPrefixLength);
+        TrieNode<T> node = prefixTrie;
+        for (int i = 0; node != null; i++) {
+            for (Route<T> route : node.routes) {
+                if (route.pattern.matcher(customId).matches()) count++;
+            }
+            node = i < depth ? node.children.get(customId.charAt(i)) : null;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the literal prefix of a regex. Every string matched by the regex starts with it.
+     *
+     * @param regex The regex.
+     * @return The literal prefix. Can be empty.
+     */
+    static String getLiteralPrefix(String regex) {
+        // Alternations can make the prefix of every branch different.
+        if (regex.indexOf('|') >= 0) return "";
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (REGEX_META_CHARACTERS.indexOf(c) >= 0) {
+                // Quantifiers that allow zero repetitions make the previous character optional.
+                if ((c == '?' || c == '*' || c == '{') && !prefix.isEmpty()) {
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * Checks if a regex only matches a single literal string, which is the regex itself.
+     *
+     * @param regex The regex.
+     * @return True if the regex is a literal, false otherwise.
+     */
+    static boolean isLiteral(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(regex.charAt(i)) >= 0) return false;
+        }
+        return true;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static class Builder<T> {
+
+        private final List<Route<T>> routes = new ArrayList<>();
+
+        private Builder() {
+
+        }
+
+        /**
+         * Adds a route to the router.
+         *
+         * @param regex The regex the custom ids must match.
+         * @param target The target of the route.
+         * @return This builder.
+         */
+        public Builder<T> add(String regex, T target) {
+            routes.add(new Route<>(regex, Pattern.compile(regex), target));
+            return this;
+        }
+
+        /**
+         * Builds the router and verifies that no routes are ambiguous.
+         *
+         * @return The router.
+         * @throws IllegalStateException If some of the routes are ambiguous.
+         */
+        public ComponentInteractionRouter<T> build() {
+            List<String> errors = new ArrayList<>();
+            Map<String, Route<T>> literalRoutes = new HashMap<>();
+            Map<String, Route<T>> regexRoutes = new HashMap<>();
+            TrieNode<T> root = new TrieNode<>();
+            int maxPrefixLength = 0;
+
+            for (var route : routes) {
+                boolean literal = isLiteral(route.regex);
+                Route<T> previous = (literal ? literalRoutes : regexRoutes).putIfAbsent(route.regex, route);
+                if (previous != null) {
+                    errors.add("Targets " + previous.target + " and " + route.target + " have the same regex \"" + route.regex + "\"!");
+                    continue;
+                }
+                if (literal) continue;
+
+                String prefix = getLiteralPrefix(route.regex);
+                TrieNode<T> node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode<>());
+                }
+                node.routes.add(route);
+                maxPrefixLength = Math.max(maxPrefixLength, prefix.length());
+            }
+
+            for (var literal : literalRoutes.values()) {
+                for (var route : regexRoutes.values()) {
+                    if (route.pattern.matcher(literal.regex).matches()) {
+                        errors.add("The id \"" + literal.regex + "\" of " + literal.target + " is also matched by the regex \""
+                                + route.regex + "\" of " + route.target + "!");
+                    }
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                throw new IllegalStateException("Ambiguous component interactions:\n" + String.join("\n", errors));
+            }
+            return new ComponentInteractionRouter<>(Map.copyOf(literalRoutes), root, maxPrefixLength);
+        }
+    }
+}
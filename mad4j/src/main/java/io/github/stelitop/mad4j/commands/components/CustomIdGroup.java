@@ -0,0 +1,32 @@
+package io.github.stelitop.mad4j.commands.components;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Can be annotated to a parameter of a {@link ComponentInteraction} method to inject the
+ * value of a named capture group of its {@link ComponentInteraction#regex()}. The value is
+ * taken from the match that routed the event to the method, so the custom id is not parsed
+ * a second time.</p>
+ *
+ * <p>The parameter can be a {@link String}, a long, an int or an enum, in which case the group
+ * must contain the name of one of its constants. For example, the regex
+ * <code>page-(?&lt;number&gt;\d+)</code> can inject the page number into a
+ * <code>@CustomIdGroup("number") int page</code> parameter.</p>
+ *
+ * <p>If the group might not match, for example because it is followed by <code>?</code>, the
+ * parameter is null when it doesn't, so it must be a {@link Long} or an {@link Integer}
+ * instead of a primitive type.</p>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CustomIdGroup {
+    /**
+     * The name of the capture group in the regex.
+     *
+     * @return The name of the capture group.
+     */
+    String value();
+}
@@ -0,0 +1,23 @@
+package io.github.stelitop.mad4j.commands.requirements;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * <p>A {@link CommandRequirementExecutor} whose requirement annotation has values that differ
+ * between commands, such as a limit or a duration.</p>
+ *
+ * <p>When a command is loaded, the executor is asked for a separate executor for the
+ * annotation of the command, which is used to verify the command from then on.</p>
+ */
+public interface AnnotatedCommandRequirementExecutor extends CommandRequirementExecutor {
+
+    /**
+     * Creates the executor that verifies a command with a specific requirement annotation.
+     *
+     * @param annotation The requirement annotation of the command.
+     * @param method The method of the command.
+     * @return The executor of the command.
+     */
+    CommandRequirementExecutor forAnnotation(Annotation annotation, Method method);
+}
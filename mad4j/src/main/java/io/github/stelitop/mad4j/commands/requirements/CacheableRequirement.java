@@ -0,0 +1,37 @@
+package io.github.stelitop.mad4j.commands.requirements;
+
+import io.github.stelitop.mad4j.utils.CacheScope;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Can be annotated to a {@link CommandRequirementExecutor} class to remember its verdicts.
+ * A verdict is reused for the same guild or user, depending on the {@link #scope()}, until
+ * it expires, so the requirement is not verified again for every command.</p>
+ *
+ * <p>This should only be used by requirements whose verdict depends on nothing other than
+ * the guild or the user, like a ban list.</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableRequirement {
+
+    /**
+     * How long the verdicts are remembered, in seconds.
+     */
+    long ttlSeconds() default 60;
+
+    /**
+     * The maximum number of remembered verdicts. When the cache is full, the least
+     * recently used verdict is forgotten.
+     */
+    int maxSize() default 10000;
+
+    /**
+     * Who the verdicts are shared between.
+     */
+    CacheScope scope() default CacheScope.USER;
+}
@@ -0,0 +1,134 @@
+package io.github.stelitop.mad4j.commands.requirements;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.CacheScope;
+import io.github.stelitop.mad4j.utils.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Verifies the {@link CommandRequirement}s of commands.</p>
+ *
+ * <p>Requirements annotated with {@link CacheableRequirement} have their verdicts remembered
+ * for the guild or user they were verified for.</p>
+ */
+@Component
+public class CommandRequirementVerifier {
+
+    /**
+     * The remembered verdicts of a requirement.
+     *
+     * @param scope Who the verdicts are shared between.
+     * @param cache The verdicts, by the id of their scope.
+     */
+    private record VerdictCache(CacheScope scope, ExpiringLruCache<Long, ActionResult<Void>> cache) {
+
+    }
+
+    private final Map<Class<? extends CommandRequirementExecutor>, VerdictCache> caches;
+
+    @Autowired
+    public CommandRequirementVerifier(List<CommandRequirementExecutor> requirementExecutors) {
+        this.caches = new HashMap<>();
+        for (var executor : requirementExecutors) {
+            CacheableRequirement cacheable = AnnotationUtils.findAnnotation(executor.getClass(), CacheableRequirement.class);
+            if (cacheable == null) continue;
+            caches.put(executor.getClass(), new VerdictCache(cacheable.scope(),
+                    new ExpiringLruCache<>(cacheable.maxSize(), Duration.ofSeconds(cacheable.ttlSeconds()))));
+        }
+    }
+
+    /**
+     * Checks whether all requirements can be verified without waiting.
+     *
+     * @param requirements The requirements.
+     * @return True if none of the requirements are {@link ReactiveCommandRequirementExecutor}s.
+     */
+    public boolean isSynchronous(CommandRequirementExecutor[] requirements) {
+        for (var requirement : requirements) {
+            if (requirement instanceof ReactiveCommandRequirementExecutor) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Verifies requirements that are all synchronous, one after another. The first
+     * requirement that fails stops the verification.
+     *
+     * @param event The event that triggered the command.
+     * @param requirements The requirements, in order.
+     * @return A success, or the failure of the first failed requirement.
+     */
+    public ActionResult<Void> verify(ChatInputInteractionEvent event, CommandRequirementExecutor[] requirements) {
+        for (var requirement : requirements) {
+            ActionResult<Void> result = verifyCached(event, requirement);
+            if (result.hasFailed()) return result;
+        }
+        return ActionResult.success();
+    }
+
+    /**
+     * Verifies requirements concurrently. If any of them fail, the failure of the first of
+     * them in order is returned, regardless of which one finished first.
+     *
+     * @param event The event that triggered the command.
+     * @param requirements The requirements, in order.
+     * @return A mono emitting a success, or the failure of the first failed requirement.
+     */
+    public Mono<ActionResult<Void>> verifyAsync(ChatInputInteractionEvent event, CommandRequirementExecutor[] requirements) {
+        return Flux.fromArray(requirements)
+                .flatMapSequential(requirement -> verifyCachedAsync(event, requirement))
+                .filter(ActionResult::hasFailed)
+                .next()
+                .defaultIfEmpty(ActionResult.success());
+    }
+
+    private ActionResult<Void> verifyCached(ChatInputInteractionEvent event, CommandRequirementExecutor requirement) {
+        VerdictCache cache = caches.get(requirement.getClass());
+        if (cache == null) return requirement.verify(event);
+
+        long scopeId = cache.scope().getId(event.getInteraction());
+        ActionResult<Void> result = cache.cache().get(scopeId);
+        if (result == null) {
+            result = requirement.verify(event);
+            cache.cache().put(scopeId, result);
+        }
+        return result;
+    }
+
+    private Mono<ActionResult<Void>> verifyCachedAsync(ChatInputInteractionEvent event, CommandRequirementExecutor requirement) {
+        if (!(requirement instanceof ReactiveCommandRequirementExecutor reactiveRequirement)) {
+            return Mono.fromSupplier(() -> verifyCached(event, requirement));
+        }
+        Mono<ActionResult<Void>> verdict = Mono.defer(() -> reactiveRequirement.verifyAsync(event))
+                .defaultIfEmpty(ActionResult.success());
+
+        VerdictCache cache = caches.get(requirement.getClass());
+        if (cache == null) return verdict;
+
+        long scopeId = cache.scope().getId(event.getInteraction());
+        ActionResult<Void> result = cache.cache().get(scopeId);
+        if (result != null) return Mono.just(result);
+        return verdict.doOnNext(x -> cache.cache().put(scopeId, x));
+    }
+
+    /**
+     * Forgets all remembered verdicts of a requirement, for example after the data it
+     * depends on has changed.
+     *
+     * @param requirementClass The class of the requirement.
+     */
+    public void invalidate(Class<? extends CommandRequirementExecutor> requirementClass) {
+        VerdictCache cache = caches.get(requirementClass);
+        if (cache != null) cache.cache().invalidateAll();
+    }
+}
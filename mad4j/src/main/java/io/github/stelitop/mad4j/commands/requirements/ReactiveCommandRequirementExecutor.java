@@ -0,0 +1,39 @@
+package io.github.stelitop.mad4j.commands.requirements;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>A command requirement that is verified asynchronously. This should be used by
+ * requirements that need to fetch data to be verified, like a role lookup, so that the
+ * gateway thread is not blocked while waiting for it.</p>
+ *
+ * <p>All requirements of a command are verified concurrently. If any of them fail, the
+ * failure of the first of them, in the order the annotations are declared, is returned as
+ * the response to the command.</p>
+ *
+ * @see CommandRequirement
+ */
+public interface ReactiveCommandRequirementExecutor extends CommandRequirementExecutor {
+
+    /**
+     * Verifies if the conditions for the requirement are met for the given command.
+     *
+     * @param event The slash command event that is to be verified.
+     * @return A mono emitting either a success or a failure with a message. If failure,
+     *     the message is returned as the response to the command.
+     */
+    Mono<ActionResult<Void>> verifyAsync(ChatInputInteractionEvent event);
+
+    /**
+     * Verifies the requirement by blocking until {@link #verifyAsync} completes.
+     *
+     * @param event The slash command event that is to be verified.
+     * @return The response to the event - either a success or a failure with a message.
+     */
+    @Override
+    default ActionResult<Void> verify(ChatInputInteractionEvent event) {
+        return verifyAsync(event).defaultIfEmpty(ActionResult.success()).block();
+    }
+}
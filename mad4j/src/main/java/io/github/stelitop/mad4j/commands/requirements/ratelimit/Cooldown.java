@@ -0,0 +1,44 @@
+package io.github.stelitop.mad4j.commands.requirements.ratelimit;
+
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Makes a command or component interaction unusable for some time after it's used. This is
+ * the same as a {@link RateLimit} with a capacity of 1.</p>
+ *
+ * <p>This works for slash commands, text commands and component interactions. Uses during the
+ * cooldown of slash commands and component interactions are answered with the
+ * {@link #message()}, while text commands during the cooldown are ignored.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@CommandRequirement(implementation = RateLimiter.class)
+public @interface Cooldown {
+
+    /**
+     * How long the cooldown lasts.
+     */
+    long value();
+
+    /**
+     * The unit of the cooldown.
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Who shares the same cooldown.
+     */
+    RateLimitScope scope() default RateLimitScope.USER;
+
+    /**
+     * The message shown during the cooldown. "%s" is replaced with the time until the
+     * cooldown ends.
+     */
+    String message() default "This is on cooldown! Try again in %s.";
+}
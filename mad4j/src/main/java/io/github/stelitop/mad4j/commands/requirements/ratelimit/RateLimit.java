@@ -0,0 +1,52 @@
+package io.github.stelitop.mad4j.commands.requirements.ratelimit;
+
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Limits how often a command or component interaction can be used. At most
+ * {@link #capacity()} uses are allowed in a row, after which one more use is allowed every
+ * {@link #period()} divided by the capacity.</p>
+ *
+ * <p>This works for slash commands, text commands and component interactions. Uses over the
+ * limit of slash commands and component interactions are answered with the
+ * {@link #message()}, while text commands over the limit are ignored.</p>
+ *
+ * @see Cooldown
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@CommandRequirement(implementation = RateLimiter.class)
+public @interface RateLimit {
+
+    /**
+     * How many uses are allowed in a row.
+     */
+    int capacity();
+
+    /**
+     * The time in which the full capacity is restored.
+     */
+    long period();
+
+    /**
+     * The unit of the {@link #period()}.
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Who shares the same limit.
+     */
+    RateLimitScope scope() default RateLimitScope.USER;
+
+    /**
+     * The message shown when the limit is reached. "%s" is replaced with the time until the
+     * next use is allowed.
+     */
+    String message() default "You are doing this too often! Try again in %s.";
+}
@@ -0,0 +1,105 @@
+package io.github.stelitop.mad4j.commands.requirements.ratelimit;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.Interaction;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.TokenBucketStore;
+
+/**
+ * <p>The {@link RateLimit} or {@link Cooldown} of a single command or component interaction,
+ * created by the {@link RateLimiter}. Every rule has its own buckets.</p>
+ */
+public final class RateLimitRule implements CommandRequirementExecutor {
+
+    private final long interval;
+    private final long burst;
+    private final RateLimitScope scope;
+    private final String message;
+    private final TokenBucketStore buckets;
+
+    RateLimitRule(int capacity, long periodNanos, RateLimitScope scope, String message, int maxBuckets) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity of a rate limit must be positive!");
+        if (periodNanos <= 0) throw new IllegalArgumentException("The period of a rate limit must be positive!");
+        this.interval = Math.max(1, periodNanos / capacity);
+        this.burst = interval * (capacity - 1);
+        this.scope = scope;
+        this.message = message;
+        this.buckets = new TokenBucketStore(maxBuckets);
+    }
+
+    /**
+     * Uses the limit once.
+     *
+     * @param userId The id of the user.
+     * @param guildId The id of the guild, or 0 outside of guilds.
+     * @param channelId The id of the channel.
+     * @return A success, or a failure with the message of the limit if it has been reached.
+     */
+    public ActionResult<Void> acquire(long userId, long guildId, long channelId) {
+        long wait = buckets.tryAcquire(scope.getId(userId, guildId, channelId), System.nanoTime(), interval, burst);
+        if (wait == 0) return ActionResult.success();
+        return ActionResult.fail(String.format(message, formatWait(wait)));
+    }
+
+    /**
+     * Checks whether the limit could be used once, without using it.
+     *
+     * @param userId The id of the user.
+     * @param guildId The id of the guild, or 0 outside of guilds.
+     * @param channelId The id of the channel.
+     * @return A success, or a failure with the message of the limit if it has been reached.
+     */
+    public ActionResult<Void> check(long userId, long guildId, long channelId) {
+        long wait = buckets.peek(scope.getId(userId, guildId, channelId), System.nanoTime(), burst);
+        if (wait == 0) return ActionResult.success();
+        return ActionResult.fail(String.format(message, formatWait(wait)));
+    }
+
+    /**
+     * Gives back a use of the limit taken by {@link #acquire(long, long, long)}, for a command
+     * that did not run after all.
+     *
+     * @param userId The id of the user.
+     * @param guildId The id of the guild, or 0 outside of guilds.
+     * @param channelId The id of the channel.
+     */
+    public void release(long userId, long guildId, long channelId) {
+        buckets.refund(scope.getId(userId, guildId, channelId), interval);
+    }
+
+    /**
+     * Uses the limit once for an interaction.
+     *
+     * @param interaction The interaction.
+     * @return A success, or a failure with the message of the limit if it has been reached.
+     */
+    public ActionResult<Void> acquire(Interaction interaction) {
+        return acquire(
+                interaction.getUser().getId().asLong(),
+                interaction.getGuildId().map(Snowflake::asLong).orElse(0L),
+                interaction.getChannelId().asLong());
+    }
+
+    @Override
+    public ActionResult<Void> verify(ChatInputInteractionEvent event) {
+        return acquire(event.getInteraction());
+    }
+
+    /**
+     * Removes the buckets that are full again.
+     */
+    void purge() {
+        buckets.purge(System.nanoTime());
+    }
+
+    private static String formatWait(long nanos) {
+        long seconds = (nanos + 999_999_999L) / 1_000_000_000L;
+        if (seconds < 60) return seconds + (seconds == 1 ? " second" : " seconds");
+        long minutes = (seconds + 59) / 60;
+        if (minutes < 60) return minutes + (minutes == 1 ? " minute" : " minutes");
+        long hours = (minutes + 59) / 60;
+        return hours + (hours == 1 ? " hour" : " hours");
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.stelitop.mad4j.commands.requirements.ratelimit;
+
+/**
+ * Who shares the same rate limit.
+ */
+public enum RateLimitScope {
+    /**
+     * Every user has their own limit.
+     */
+    USER,
+    /**
+     * Everyone in the same guild shares the limit. Direct messages share one limit.
+     */
+    GUILD,
+    /**
+     * Everyone in the same channel shares the limit.
+     */
+    CHANNEL,
+    /**
+     * Everyone shares the limit.
+     */
+    GLOBAL;
+
+    /**
+     * Gets the id whose limit is used in this scope.
+     *
+     * @param userId The id of the user.
+     * @param guildId The id of the guild, or 0 outside of guilds.
+     * @param channelId The id of the channel.
+     * @return The id of the user, guild or channel, or 0 if the limit is shared by everyone.
+     */
+    public long getId(long userId, long guildId, long channelId) {
+        return switch (this) {
+            case USER -> userId;
+            case GUILD -> guildId;
+            case CHANNEL -> channelId;
+            case GLOBAL -> 0;
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.stelitop.mad4j.commands.requirements.ratelimit;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.Interaction;
+import io.github.stelitop.mad4j.commands.requirements.AnnotatedCommandRequirementExecutor;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The built-in requirement behind {@link RateLimit} and {@link Cooldown}. Every annotated
+ * command gets its own {@link RateLimitRule}, which keeps a token bucket for every user,
+ * guild or channel, depending on its scope.</p>
+ *
+ * <p>Every rule keeps at most "mad4j.ratelimit.maxbuckets" (1000000 by default) buckets.
+ * Buckets that are full again are idle, and are removed every
+ * "mad4j.ratelimit.purgeinterval" seconds (60 by default).</p>
+ */
+@Component
+public class RateLimiter implements AnnotatedCommandRequirementExecutor, DisposableBean {
+
+    private final int maxBuckets;
+    private final List<RateLimitRule> rules = new CopyOnWriteArrayList<>();
+    private final Disposable purgeTask;
+
+    @Autowired
+    public RateLimiter(Environment environment) {
+        this.maxBuckets = Integer.parseInt(Optional.ofNullable(environment.getProperty("mad4j.ratelimit.maxbuckets")).orElse("1000000"));
+        long purgeInterval = Long.parseLong(Optional.ofNullable(environment.getProperty("mad4j.ratelimit.purgeinterval")).orElse("60"));
+        this.purgeTask = Schedulers.parallel().schedulePeriodically(this::purge, purgeInterval, purgeInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates the rule of a {@link RateLimit} or {@link Cooldown} annotation.
+     *
+     * @param annotation The annotation.
+     * @return The rule, or null if the annotation is neither.
+     */
+    private RateLimitRule createRule(Annotation annotation) {
+        RateLimitRule rule;
+        if (annotation instanceof RateLimit rateLimit) {
+            rule = new RateLimitRule(rateLimit.capacity(), rateLimit.unit().toNanos(rateLimit.period()),
+                    rateLimit.scope(), rateLimit.message(), maxBuckets);
+        } else if (annotation instanceof Cooldown cooldown) {
+            rule = new RateLimitRule(1, cooldown.unit().toNanos(cooldown.value()),
+                    cooldown.scope(), cooldown.message(), maxBuckets);
+        } else {
+            return null;
+        }
+        rules.add(rule);
+        return rule;
+    }
+
+    /**
+     * Creates the rules of all {@link RateLimit} and {@link Cooldown} annotations of a method.
+     * This is used for methods that do not go through the other command requirements, such as
+     * component interactions.
+     *
+     * @param method The method.
+     * @return The rules, in the order the annotations are declared.
+     */
+    public RateLimitRule[] getRules(Method method) {
+        List<RateLimitRule> methodRules = new ArrayList<>();
+        for (Annotation annotation : method.getAnnotations()) {
+            RateLimitRule rule = createRule(annotation);
+            if (rule != null) methodRules.add(rule);
+        }
+        return methodRules.toArray(new RateLimitRule[0]);
+    }
+
+    /**
+     * <p>Uses the limits of all rules once, only if none of them has been reached. If any
+     * limit has been reached, none of the limits are used.</p>
+     *
+     * <p>All rules are checked before any of them are used. A limit can still be reached
+     * by another thread in between, in which case the limits already used are given back.</p>
+     *
+     * @param rules The rules.
+     * @param userId The id of the user.
+     * @param guildId The id of the guild, or 0 outside of guilds.
+     * @param channelId The id of the channel.
+     * @return A success, or the failure of the first rule whose limit has been reached.
+     */
+    public static ActionResult<Void> acquire(RateLimitRule[] rules, long userId, long guildId, long channelId) {
+        if (rules.length == 1) return rules[0].acquire(userId, guildId, channelId);
+        for (RateLimitRule rule : rules) {
+            ActionResult<Void> result = rule.check(userId, guildId, channelId);
+            if (result.hasFailed()) return result;
+        }
+        for (int i = 0; i < rules.length; i++) {
+            ActionResult<Void> result = rules[i].acquire(userId, guildId, channelId);
+            if (result.hasFailed()) {
+                for (int j = 0; j < i; j++) {
+                    rules[j].release(userId, guildId, channelId);
+                }
+                return result;
+            }
+        }
+        return ActionResult.success();
+    }
+
+    /**
+     * Uses the limits of all rules once for an interaction, only if none of them has been
+     * reached.
+     *
+     * @param rules The rules.
+     * @param interaction The interaction.
+     * @return A success, or the failure of the first rule whose limit has been reached.
+     * @see #acquire(RateLimitRule[], long, long, long)
+     */
+    public static ActionResult<Void> acquire(RateLimitRule[] rules, Interaction interaction) {
+        if (rules.length == 0) return ActionResult.success();
+        return acquire(
+                rules,
+                interaction.getUser().getId().asLong(),
+                interaction.getGuildId().map(Snowflake::asLong).orElse(0L),
+                interaction.getChannelId().asLong());
+    }
+
+    @Override
+    public CommandRequirementExecutor forAnnotation(Annotation annotation, Method method) {
+        RateLimitRule rule = createRule(annotation);
+        if (rule == null) {
+            throw new IllegalArgumentException("@" + annotation.annotationType().getSimpleName() + " is not a rate limit!");
+        }
+        return rule;
+    }
+
+    /**
+     * The rate limiter itself limits nothing. Every annotated command uses its own rule instead.
+     */
+    @Override
+    public ActionResult<Void> verify(ChatInputInteractionEvent event) {
+        return ActionResult.success();
+    }
+
+    /**
+     * Removes the idle buckets of all rules.
+     */
+    public void purge() {
+        for (RateLimitRule rule : rules) {
+            rule.purge();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        purgeTask.dispose();
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.stelitop.mad4j.commands.text;
+
+import io.github.stelitop.mad4j.utils.LongObjectMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * <p>The default {@link PrefixProvider}, which stores the prefixes of guilds in a properties
+ * file, with the ids of the guilds as the keys. The file is given by the property
+ * "mad4j.textcommands.prefixfile" ("prefixes.properties" by default) and is created when the
+ * first prefix is saved.</p>
+ *
+ * <p>The file is read once, when the provider is created. Every change rewrites the file, so
+ * this is meant for bots whose prefixes change rarely.</p>
+ */
+public class FilePrefixProvider implements PrefixProvider {
+
+    private final Path file;
+    private final LongObjectMap<String> prefixes = new LongObjectMap<>();
+
+    /**
+     * Creates a provider and reads the prefixes in the file, if it exists.
+     *
+     * @param file The file the prefixes are stored in.
+     */
+    public FilePrefixProvider(Path file) {
+        this.file = file;
+        if (!Files.exists(file)) return;
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the prefixes from \"" + file + "\"!", e);
+        }
+        for (String guildId : properties.stringPropertyNames()) {
+            prefixes.put(Long.parseLong(guildId.trim()), properties.getProperty(guildId));
+        }
+    }
+
+    @Override
+    public synchronized @Nullable String loadPrefix(long guildId) {
+        return prefixes.get(guildId);
+    }
+
+    @Override
+    public synchronized void savePrefix(long guildId, @Nullable String prefix) {
+        if (prefix == null) prefixes.remove(guildId);
+        else prefixes.put(guildId, prefix);
+
+        Properties properties = new Properties();
+        prefixes.forEach((id, value) -> properties.setProperty(Long.toString(id), value));
+        try {
+            // Written to a temporary file first, so that a crash never leaves a partial file.
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "The text command prefixes of guilds");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the prefixes to \"" + file + "\"!", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.stelitop.mad4j.commands.text;
+
+import io.github.stelitop.mad4j.utils.LongObjectMap;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.function.LongFunction;
+
+/**
+ * <p>A bounded cache of the prefixes of guilds, which never blocks the thread reading it.</p>
+ *
+ * <p>When a guild is seen for the first time, {@link #get(long)} returns null right away and
+ * its prefix is loaded in the background. Guilds without a prefix of their own are cached as
+ * well, so they are not loaded again for every message. Once 80% of the time to live of a
+ * prefix has passed, it is reloaded in the background the next time it is read. Until the
+ * reload finishes, the old prefix is still returned, so guilds that have been quiet for a
+ * while never fall back to the default prefix.</p>
+ *
+ * <p>When the cache is full, guilds are evicted with the clock algorithm: the guilds of a
+ * segment are kept in a ring, and a hand goes around it, skipping the guilds that were read
+ * since the hand last passed them. This costs constant time per insert on average.</p>
+ *
+ * <p>Reading a prefix takes no lock. The entries are split into segments by the id of the
+ * guild, and each segment publishes its entries as a table that is never changed. Loading,
+ * setting and evicting prefixes build a new table while holding the lock of the segment, and
+ * then replace the old one, so only writes to the same segment wait for each other.</p>
+ */
+public class PrefixCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    private final LongFunction<String> loader;
+    private final Scheduler scheduler;
+    private final long refreshNanos;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * A cached prefix. An entry that has not been loaded yet is a placeholder, which prevents
+     * loading the same prefix multiple times at once.
+     */
+    private static final class Entry {
+        private final @Nullable String prefix;
+        private final long loadedAt;
+        private final boolean loaded;
+        private volatile boolean loading;
+        /**
+         * Whether the entry was read since the clock hand last passed it. Races on it only
+         * make the eviction slightly less precise, so it is not synchronized.
+         */
+        private boolean referenced;
+
+        private Entry(@Nullable String prefix, long loadedAt, boolean loaded) {
+            this.prefix = prefix;
+            this.loadedAt = loadedAt;
+            this.loaded = loaded;
+        }
+    }
+
+    /**
+     * The entries of a segment, with the ring of their guilds the clock hand goes around.
+     * Only {@link #get(long)} can be called without holding the lock of the segment.
+     */
+    private static final class Segment {
+        /**
+         * The published table of entries. It is never changed after it's published, only
+         * replaced.
+         */
+        private volatile LongObjectMap<Entry> entries = new LongObjectMap<>();
+        private final long[] ring;
+        private int hand;
+
+        private Segment(int capacity) {
+            this.ring = new long[capacity];
+        }
+
+        private @Nullable Entry get(long guildId) {
+            return entries.get(guildId);
+        }
+
+        /**
+         * Adds or replaces the entry of a guild and publishes the new table. A new guild
+         * takes a free place in the ring, or the place of the guild evicted for it if the
+         * segment is full.
+         */
+        private void put(long guildId, Entry entry) {
+            LongObjectMap<Entry> current = entries;
+            LongObjectMap<Entry> next = new LongObjectMap<>(current.size() + 1);
+            current.forEach(next::put);
+
+            Entry previous = next.put(guildId, entry);
+            if (previous != null) {
+                entry.referenced = previous.referenced;
+            } else if (next.size() <= ring.length) {
+                ring[next.size() - 1] = guildId;
+            } else {
+                while (true) {
+                    Entry candidate = next.get(ring[hand]);
+                    if (candidate == null || !candidate.referenced) break;
+                    candidate.referenced = false;
+                    hand = (hand + 1) % ring.length;
+                }
+                next.remove(ring[hand]);
+                ring[hand] = guildId;
+                hand = (hand + 1) % ring.length;
+            }
+            entries = next;
+        }
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param loader Loads the prefix of a guild, or null if the guild has no prefix. This can
+     *               block, as it runs on the scheduler.
+     * @param maxSize The maximum number of cached guilds.
+     * @param ttl How long a prefix is used after it's loaded, before it is reloaded.
+     * @param scheduler The scheduler the prefixes are loaded on.
+     */
+    public PrefixCache(LongFunction<String> loader, int maxSize, Duration ttl, Scheduler scheduler) {
+        if (maxSize <= 0) throw new IllegalArgumentException("The size of the cache must be positive!");
+        this.loader = loader;
+        this.scheduler = scheduler;
+        this.refreshNanos = ttl.toNanos() / 5 * 4;
+        int segmentCapacity = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    private Segment segmentOf(long guildId) {
+        long h = guildId * 0x9E3779B97F4A7C15L;
+        return segments[(int) (h >>> 60)];
+    }
+
+    /**
+     * Gets the cached prefix of a guild. If the prefix is not cached, or should be refreshed,
+     * it is loaded in the background. A prefix that is being refreshed is still returned.
+     *
+     * @param guildId The id of the guild.
+     * @return The prefix of the guild, or null if it has no prefix or it's not in the cache yet.
+     */
+    public @Nullable String get(long guildId) {
+        Entry entry = segmentOf(guildId).get(guildId);
+        if (entry == null) {
+            load(guildId);
+            return null;
+        }
+        entry.referenced = true;
+        if (!entry.loaded) return null;
+
+        if (System.nanoTime() - entry.loadedAt >= refreshNanos && !entry.loading) load(guildId);
+        return entry.prefix;
+    }
+
+    /**
+     * Loads the prefix of a guild in the background, unless it is already being loaded. This
+     * can be used to fill the cache before the first message of a guild arrives.
+     *
+     * @param guildId The id of the guild.
+     */
+    public void load(long guildId) {
+        Segment segment = segmentOf(guildId);
+        Entry current;
+        synchronized (segment) {
+            current = segment.get(guildId);
+            if (current != null && current.loading) return;
+            if (current == null) {
+                current = new Entry(null, System.nanoTime(), false);
+                segment.put(guildId, current);
+            }
+            current.loading = true;
+        }
+
+        Entry loadingEntry = current;
+        scheduler.schedule(() -> {
+            Entry loaded;
+            try {
+                loaded = new Entry(loader.apply(guildId), System.nanoTime(), true);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not load the prefix of guild " + guildId + ".", e);
+                // Keeps the previous prefix, and tries again after the refresh interval.
+                loaded = new Entry(loadingEntry.prefix, System.nanoTime(), true);
+            }
+            synchronized (segment) {
+                // The entry was changed or invalidated during the load, so the result is outdated.
+                if (segment.get(guildId) != loadingEntry) return;
+                segment.put(guildId, loaded);
+            }
+        });
+    }
+
+    /**
+     * Sets the prefix of a guild in the cache, for example after it was changed.
+     *
+     * @param guildId The id of the guild.
+     * @param prefix The prefix of the guild, or null if it has no prefix.
+     */
+    public void put(long guildId, @Nullable String prefix) {
+        Segment segment = segmentOf(guildId);
+        Entry entry = new Entry(prefix, System.nanoTime(), true);
+        synchronized (segment) {
+            segment.put(guildId, entry);
+        }
+    }
+
+    /**
+     * Marks the prefix of a guild as outdated, so that it's loaded again the next time it's
+     * read. Until then, the outdated prefix is still used.
+     *
+     * @param guildId The id of the guild.
+     */
+    public void invalidate(long guildId) {
+        Segment segment = segmentOf(guildId);
+        synchronized (segment) {
+            Entry current = segment.get(guildId);
+            if (current == null || !current.loaded) return;
+            // A new entry, so that a load that is already running is discarded.
+            segment.put(guildId, new Entry(current.prefix, System.nanoTime() - refreshNanos, true));
+        }
+    }
+
+    /**
+     * Gets the amount of guilds in the cache.
+     *
+     * @return The amount of guilds.
+     */
+    public int size() {
+        int size = 0;
+        for (var segment : segments) {
+            size += segment.entries.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.stelitop.mad4j.commands.text;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>The storage of the text command prefixes of guilds. A bean implementing this interface
+ * replaces the default {@link FilePrefixProvider}.</p>
+ *
+ * <p>The methods of a provider can block, for example to query a database. They are never
+ * called while a message is handled. The prefixes are kept in a {@link PrefixCache}, which
+ * loads them in the background.</p>
+ */
+public interface PrefixProvider {
+
+    /**
+     * Loads the prefix of a guild.
+     *
+     * @param guildId The id of the guild.
+     * @return The prefix of the guild, or null if the guild uses the default prefix.
+     */
+    @Nullable String loadPrefix(long guildId);
+
+    /**
+     * Stores the prefix of a guild.
+     *
+     * @param guildId The id of the guild.
+     * @param prefix The new prefix, or null if the guild uses the default prefix again.
+     */
+    void savePrefix(long guildId, @Nullable String prefix);
+}
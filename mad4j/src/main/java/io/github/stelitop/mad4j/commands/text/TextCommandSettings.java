@@ -0,0 +1,173 @@
+package io.github.stelitop.mad4j.commands.text;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * <p>Settings that decide which messages are checked for text commands.</p>
+ *
+ * <p>The default prefix is read from the property "mad4j.textcommands.prefix" ("!" by default).
+ * Guilds can have their own prefixes, which are stored by the {@link PrefixProvider} bean, or
+ * by a {@link FilePrefixProvider} if there is none, and changed with
+ * {@link #setPrefix(long, String)}. Text commands are ignored in the channels listed in
+ * "mad4j.textcommands.disabledchannels".</p>
+ *
+ * <p>Every message the bot can see is checked against these settings, so they never block.
+ * The prefixes of guilds are kept in a {@link PrefixCache}, whose size and time to live in
+ * seconds are read from "mad4j.textcommands.prefixcache.size" (10000 by default) and
+ * "mad4j.textcommands.prefixcache.ttl" (600 by default). Prefixes are reloaded in the
+ * background before they expire, and the old prefix is used until the reload finishes. Changes to the disabled channels
+ * replace them with an updated copy, which keeps lookups lock-free.</p>
+ */
+@Component
+public class TextCommandSettings {
+
+    private final String defaultPrefix;
+    private final PrefixProvider prefixProvider;
+    private final PrefixCache prefixCache;
+    /**
+     * The ids of the channels where text commands are disabled, sorted.
+     */
+    private volatile long[] disabledChannels;
+
+    @Autowired
+    public TextCommandSettings(Environment environment, ObjectProvider<PrefixProvider> prefixProviders) {
+        this(environment, prefixProviders.getIfAvailable(() -> new FilePrefixProvider(Path.of(
+                Optional.ofNullable(environment.getProperty("mad4j.textcommands.prefixfile")).orElse("prefixes.properties")))));
+    }
+
+    /**
+     * Creates the settings with a specific {@link PrefixProvider}.
+     *
+     * @param environment The environment the properties are read from.
+     * @param prefixProvider The storage of the prefixes of guilds.
+     */
+    public TextCommandSettings(Environment environment, PrefixProvider prefixProvider) {
+        this.defaultPrefix = Optional.ofNullable(environment.getProperty("mad4j.textcommands.prefix")).orElse("!");
+        if (defaultPrefix.isEmpty()) {
+            throw new RuntimeException("The property \"mad4j.textcommands.prefix\" cannot be empty!");
+        }
+        this.prefixProvider = prefixProvider;
+        this.prefixCache = new PrefixCache(
+                prefixProvider::loadPrefix,
+                Integer.parseInt(Optional.ofNullable(environment.getProperty("mad4j.textcommands.prefixcache.size")).orElse("10000")),
+                Duration.ofSeconds(Long.parseLong(Optional.ofNullable(environment.getProperty("mad4j.textcommands.prefixcache.ttl")).orElse("600"))),
+                Schedulers.boundedElastic()
+        );
+        this.disabledChannels = parseIds(environment.getProperty("mad4j.textcommands.disabledchannels"));
+    }
+
+    private static long[] parseIds(String property) {
+        if (property == null || property.isBlank()) return new long[0];
+        return Arrays.stream(property.split(","))
+                .map(String::trim)
+                .filter(x -> !x.isEmpty())
+                .mapToLong(Long::parseLong)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * Gets the prefix used when a guild has no prefix of its own, and in direct messages.
+     *
+     * @return The default prefix.
+     */
+    public String getDefaultPrefix() {
+        return defaultPrefix;
+    }
+
+    /**
+     * Gets the prefix of text commands in a guild. This never blocks: if the prefix of the
+     * guild has not been loaded yet, it is loaded in the background and the default prefix
+     * is used until then.
+     *
+     * @param guildId The id of the guild, or 0 for direct messages.
+     * @return The prefix of the guild, or the default prefix if it has none.
+     */
+    public String getPrefix(long guildId) {
+        if (guildId == 0) return defaultPrefix;
+        String prefix = prefixCache.get(guildId);
+        return prefix == null ? defaultPrefix : prefix;
+    }
+
+    /**
+     * Loads the prefix of a guild in the background, so that it's ready when the first
+     * message of the guild arrives.
+     *
+     * @param guildId The id of the guild.
+     */
+    public void preloadPrefix(long guildId) {
+        prefixCache.load(guildId);
+    }
+
+    /**
+     * Changes the prefix of text commands in a guild. The prefix is stored by the
+     * {@link PrefixProvider} and replaces the cached prefix of the guild.
+     *
+     * @param guildId The id of the guild.
+     * @param prefix The new prefix, or null to use the default prefix again.
+     * @return A mono that completes when the prefix has been stored.
+     */
+    public Mono<Void> setPrefix(long guildId, @Nullable String prefix) {
+        if (prefix != null && prefix.isEmpty()) return Mono.error(new IllegalArgumentException("The prefix cannot be empty!"));
+        return Mono.fromRunnable(() -> prefixProvider.savePrefix(guildId, prefix))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.fromRunnable(() -> prefixCache.put(guildId, prefix)));
+    }
+
+    /**
+     * Marks the cached prefix of a guild as outdated, so that it's loaded from the
+     * {@link PrefixProvider} again the next time it's used. The outdated prefix is used until
+     * then. This is only needed when the prefix is changed in the provider directly.
+     *
+     * @param guildId The id of the guild.
+     */
+    public void invalidatePrefix(long guildId) {
+        prefixCache.invalidate(guildId);
+    }
+
+    /**
+     * Checks whether text commands are disabled in a channel.
+     *
+     * @param channelId The id of the channel.
+     * @return True if text commands are disabled, false otherwise.
+     */
+    public boolean isDisabled(long channelId) {
+        long[] channels = disabledChannels;
+        return channels.length > 0 && Arrays.binarySearch(channels, channelId) >= 0;
+    }
+
+    /**
+     * Enables or disables text commands in a channel.
+     *
+     * @param channelId The id of the channel.
+     * @param disabled Whether text commands are disabled in the channel.
+     */
+    public synchronized void setDisabled(long channelId, boolean disabled) {
+        long[] channels = disabledChannels;
+        int index = Arrays.binarySearch(channels, channelId);
+        if (disabled == (index >= 0)) return;
+        long[] updated = new long[disabled ? channels.length + 1 : channels.length - 1];
+        if (disabled) {
+            int insertion = -index - 1;
+            System.arraycopy(channels, 0, updated, 0, insertion);
+            updated[insertion] = channelId;
+            System.arraycopy(channels, insertion, updated, insertion + 1, channels.length - insertion);
+        } else {
+            System.arraycopy(channels, 0, updated, 0, index);
+            System.arraycopy(channels, index + 1, updated, index, channels.length - index - 1);
+        }
+        disabledChannels = updated;
+    }
+}
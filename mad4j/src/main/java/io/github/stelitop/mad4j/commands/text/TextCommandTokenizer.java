@@ -0,0 +1,79 @@
+package io.github.stelitop.mad4j.commands.text;
+
+import java.util.Arrays;
+
+/**
+ * <p>Splits the content of a text command message into tokens in a single pass.</p>
+ *
+ * <p>Tokens are separated by whitespace. A token starting with a quotation mark continues
+ * until the closing quotation mark, so it can contain whitespace. A backslash escapes the
+ * character after it, both inside and outside of quotation marks, so <code>\"</code> is
+ * a quotation mark and <code>\\</code> is a backslash.</p>
+ */
+public final class TextCommandTokenizer {
+
+    private TextCommandTokenizer() {
+
+    }
+
+    /**
+     * Splits a message into tokens.
+     *
+     * @param content The message.
+     * @param offset The offset in the message to start from, for example after the prefix.
+     * @return The tokens.
+     */
+    public static TextCommandTokens tokenize(CharSequence content, int offset) {
+        int length = content.length();
+        int capacity = 8;
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        boolean[] escaped = new boolean[capacity];
+        int size = 0;
+
+        int i = offset;
+        while (i < length) {
+            char c = content.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            int start;
+            int end;
+            boolean isEscaped = false;
+            if (c == '"') {
+                isEscaped = true;
+                start = ++i;
+                while (i < length && content.charAt(i) != '"') {
+                    if (content.charAt(i) == '\\') i++;
+                    i++;
+                }
+                end = Math.min(i, length);
+                i = end + 1;
+            } else {
+                start = i;
+                while (i < length && !Character.isWhitespace(content.charAt(i))) {
+                    if (content.charAt(i) == '\\') {
+                        isEscaped = true;
+                        i++;
+                    }
+                    i++;
+                }
+                end = Math.min(i, length);
+            }
+
+            if (size == capacity) {
+                capacity *= 2;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                escaped = Arrays.copyOf(escaped, capacity);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            escaped[size] = isEscaped;
+            size++;
+        }
+        return new TextCommandTokens(content, starts, ends, escaped, size);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.stelitop.mad4j.commands.text;
+
+/**
+ * <p>The tokens of a text command message, created by {@link TextCommandTokenizer}.</p>
+ *
+ * <p>Tokens are stored as offsets into the original message, so no strings are created until
+ * the value of a token is needed with {@link #get(int)}. Tokens that contain escaped
+ * characters are unescaped only then.</p>
+ */
+public final class TextCommandTokens {
+
+    private final CharSequence source;
+    private final int[] starts;
+    private final int[] ends;
+    private final boolean[] escaped;
+    private final int size;
+
+    TextCommandTokens(CharSequence source, int[] starts, int[] ends, boolean[] escaped, int size) {
+        this.source = source;
+        this.starts = starts;
+        this.ends = ends;
+        this.escaped = escaped;
+        this.size = size;
+    }
+
+    /**
+     * Gets the amount of tokens.
+     *
+     * @return The amount of tokens.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the message the tokens are from.
+     *
+     * @return The message.
+     */
+    public CharSequence source() {
+        return source;
+    }
+
+    /**
+     * Gets the offset in the message where a token starts. For quoted tokens, this is the
+     * offset after the opening quotation mark.
+     *
+     * @param index The index of the token.
+     * @return The offset of the first character of the token.
+     */
+    public int start(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Gets the offset in the message where a token ends. For quoted tokens, this is the
+     * offset of the closing quotation mark.
+     *
+     * @param index The index of the token.
+     * @return The offset after the last character of the token.
+     */
+    public int end(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Checks whether a token was quoted or contains escaped characters, in which case its
+     * value differs from the characters of the message between its offsets.
+     *
+     * @param index The index of the token.
+     * @return True if the token needs to be unescaped.
+     */
+    public boolean isEscaped(int index) {
+        return escaped[index];
+    }
+
+    /**
+     * Gets the value of a token, with its quotation marks removed and its escaped characters
+     * unescaped.
+     *
+     * @param index The index of the token.
+     * @return The value of the token.
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        int start = starts[index];
+        int end = ends[index];
+        if (!escaped[index]) return source.subSequence(start, end).toString();
+
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (c == '\\' && i + 1 < end) c = source.charAt(++i);
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.stelitop.mad4j.commands.text;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * <p>Finds text commands whose names consist of multiple words. Every node of the trie is a
+ * word of a command name, so the command of a message is found in a single walk over its
+ * tokens, taking the longest name that matches.</p>
+ *
+ * <p>Words are compared case-insensitively, directly against the characters of the message,
+ * so no strings are created while searching. Quoted or escaped tokens never match a word.</p>
+ *
+ * @param <T> The type of the values stored under the command names.
+ */
+public final class TextCommandTrie<T> {
+
+    private final Node<T> root;
+
+    private TextCommandTrie(Node<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * The longest command name found at the start of the tokens.
+     *
+     * @param value The value stored under the command name.
+     * @param length The amount of tokens the command name consists of.
+     * @param <T> The type of the value.
+     */
+    public record Match<T>(T value, int length) {
+
+    }
+
+    /**
+     * Creates a trie from command names. Names are split into words by whitespace.
+     *
+     * @param commands The values, mapped by their command names.
+     * @param <T> The type of the values.
+     * @return The trie.
+     */
+    public static <T> TextCommandTrie<T> of(Map<String, T> commands) {
+        Node<T> root = new Node<>(null, 0);
+        for (var entry : commands.entrySet()) {
+            Node<T> node = root;
+            for (String word : entry.getKey().trim().split("\\s+")) {
+                if (word.isEmpty()) continue;
+                node = node.getOrAddChild(lowerCase(word));
+            }
+            if (node != root) node.value = entry.getValue();
+        }
+        return new TextCommandTrie<>(root);
+    }
+
+    /**
+     * Finds the command whose name is the longest sequence of words at the start of
+     * the tokens.
+     *
+     * @param tokens The tokens of the message.
+     * @return The match, or null if no command name matches.
+     */
+    public @Nullable Match<T> find(TextCommandTokens tokens) {
+        CharSequence source = tokens.source();
+        Node<T> node = root;
+        Node<T> longest = null;
+        int longestLength = 0;
+        for (int i = 0; i < tokens.size() && node.table != null; i++) {
+            if (tokens.isEscaped(i)) break;
+            node = node.getChild(source, tokens.start(i), tokens.end(i));
+            if (node == null) break;
+            if (node.value != null) {
+                longest = node;
+                longestLength = i + 1;
+            }
+        }
+        return longest == null ? null : new Match<>(longest.value, longestLength);
+    }
+
+    /**
+     * Lowercases a word the same way characters of messages are lowercased when compared.
+     */
+    private static String lowerCase(String word) {
+        char[] chars = new char[word.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(word.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Computes the case-insensitive hash of a word.
+     */
+    private static int hash(CharSequence source, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(source.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * A word of a command name. The children are kept in an open addressing hash table.
+     */
+    private static final class Node<T> {
+        private final String word;
+        private final int hash;
+        private Node<T>[] table;
+        private int size;
+        private T value;
+
+        private Node(String word, int hash) {
+            this.word = word;
+            this.hash = hash;
+        }
+
+        private boolean matches(int hash, CharSequence source, int start, int end) {
+            if (this.hash != hash || word.length() != end - start) return false;
+            for (int i = 0; i < word.length(); i++) {
+                if (word.charAt(i) != Character.toLowerCase(source.charAt(start + i))) return false;
+            }
+            return true;
+        }
+
+        private @Nullable Node<T> getChild(CharSequence source, int start, int end) {
+            if (table == null) return null;
+            int h = hash(source, start, end);
+            int mask = table.length - 1;
+            for (int i = h & mask; table[i] != null; i = (i + 1) & mask) {
+                if (table[i].matches(h, source, start, end)) return table[i];
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<T> getOrAddChild(String word) {
+            Node<T> existing = getChild(word, 0, word.length());
+            if (existing != null) return existing;
+            if (table == null) table = new Node[4];
+            else if ((size + 1) * 2 > table.length) resize();
+            Node<T> child = new Node<>(word, hash(word, 0, word.length()));
+            insert(table, child);
+            size++;
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize() {
+            Node<T>[] newTable = new Node[table.length * 2];
+            for (Node<T> child : table) {
+                if (child != null) insert(newTable, child);
+            }
+            table = newTable;
+        }
+
+        private static <T> void insert(Node<T>[] table, Node<T> child) {
+            int mask = table.length - 1;
+            int i = child.hash & mask;
+            while (table[i] != null) i = (i + 1) & mask;
+            table[i] = child;
+        }
+    }
+}
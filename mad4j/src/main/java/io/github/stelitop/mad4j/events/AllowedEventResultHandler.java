@@ -2,48 +2,127 @@ package io.github.stelitop.mad4j.events;
 
 import discord4j.core.event.domain.Event;
 import io.github.stelitop.mad4j.utils.ActionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * <p>Transforms the results of event methods into the responses to their events, using the
+ * {@link AllowedEventResult} that accepts both the type of the result and the type of the
+ * event.</p>
+ *
+ * <p>The matching {@link AllowedEventResult} is searched for only once for every pair of
+ * result and event classes, after which it is cached. When the application starts, it is
+ * verified that no two {@link AllowedEventResult}s can accept the same pair.</p>
+ */
 @Component
 public class AllowedEventResultHandler {
 
-    private final List<AllowedEventResult> responses;
+    private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    /**
+     * An allowed event result with its accepted types, read once when the application starts.
+     */
+    private record Candidate(AllowedEventResult response, Class<?>[] resultTypes, Class<?>[] eventTypes) {
+
+        private boolean accepts(Class<?> resultClass, Class<?> eventClass) {
+            return anyAssignableFrom(resultTypes, resultClass) && anyAssignableFrom(eventTypes, eventClass);
+        }
+    }
+
+    private final List<Candidate> candidates;
+    /**
+     * The matching result of every pair of result and event classes that has been handled.
+     * Keyed by the result class first and then by the event class.
+     */
+    private final ClassValue<Map<Class<?>, Optional<AllowedEventResult>>> matchingResults = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, Optional<AllowedEventResult>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     @Autowired
     public AllowedEventResultHandler(List<AllowedEventResult> responses) {
-        this.responses = responses;
+        this.candidates = responses.stream()
+                .map(x -> new Candidate(x, x.resultTypes().toArray(new Class<?>[0]), x.eventTypes().toArray(new Class<?>[0])))
+                .toList();
         verifyNoOverlap();
     }
 
     public ActionResult<Mono<Void>> handleEventResult(Object result, Event event) {
-        var allowedEventResult = getMatchingResult(result, event);
+        if (result == null) return ActionResult.fail("This event result type is not allowed!");
+        var allowedEventResult = getMatchingResult(result.getClass(), event.getClass());
         if (allowedEventResult == null) return ActionResult.fail("This event result type is not allowed!");
         return ActionResult.success(allowedEventResult.transform(result, event));
     }
 
-    private AllowedEventResult getMatchingResult(Object result, Event event) {
-        for (var response : responses) {
-            if (response.resultTypes().stream().anyMatch(r -> r.isAssignableFrom(result.getClass()))
-                    && response.eventTypes().stream().anyMatch(e -> e.isAssignableFrom(event.getClass()))) {
-                return response;
+    private AllowedEventResult getMatchingResult(Class<?> resultClass, Class<?> eventClass) {
+        Map<Class<?>, Optional<AllowedEventResult>> byEventClass = matchingResults.get(resultClass);
+        Optional<AllowedEventResult> match = byEventClass.get(eventClass);
+        if (match == null) {
+            match = byEventClass.computeIfAbsent(eventClass, x -> findMatchingResult(resultClass, eventClass));
+        }
+        return match.orElse(null);
+    }
+
+    private Optional<AllowedEventResult> findMatchingResult(Class<?> resultClass, Class<?> eventClass) {
+        for (var candidate : candidates) {
+            if (candidate.accepts(resultClass, eventClass)) {
+                return Optional.of(candidate.response());
             }
         }
-        return null;
+        return Optional.empty();
     }
 
+    /**
+     * Verifies that no result and event can be accepted by more than one allowed event result.
+     * Two allowed event results overlap if one of their result types is assignable to the
+     * other's and one of their event types is assignable to the other's.
+     */
     private void verifyNoOverlap() {
-        for (int i = 0; i < responses.size(); i++) {
-            for (int j = i + 1; j < responses.size(); j++) {
-                var x = responses.get(i);
-                var y = responses.get(j);
-
+        List<String> overlaps = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            for (int j = i + 1; j < candidates.size(); j++) {
+                var x = candidates.get(i);
+                var y = candidates.get(j);
+                if (typesOverlap(x.resultTypes(), y.resultTypes()) && typesOverlap(x.eventTypes(), y.eventTypes())) {
+                    overlaps.add("\"" + x.response().getClass().getName() + "\" and \""
+                            + y.response().getClass().getName() + "\" accept the same results for the same events!");
+                }
+            }
+        }
+        if (!overlaps.isEmpty()) {
+            String errorMsg = overlaps.size() + " pair(s) of allowed event results overlap!";
+            LOGGER.error(errorMsg);
+            for (var overlap : overlaps) {
+                LOGGER.error("-- " + overlap);
+            }
+            throw new RuntimeException(errorMsg + " Check the error logs for more detail on what went wrong.");
+        }
+    }
 
-                // actually implement allowing multiple things
+    private static boolean typesOverlap(Class<?>[] xs, Class<?>[] ys) {
+        for (var x : xs) {
+            for (var y : ys) {
+                if (x.isAssignableFrom(y) || y.isAssignableFrom(x)) return true;
             }
         }
+        return false;
+    }
+
+    private static boolean anyAssignableFrom(Class<?>[] types, Class<?> type) {
+        for (var t : types) {
+            if (t.isAssignableFrom(type)) return true;
+        }
+        return false;
     }
 }
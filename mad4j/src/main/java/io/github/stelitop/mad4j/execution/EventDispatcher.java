@@ -0,0 +1,293 @@
+package io.github.stelitop.mad4j.execution;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.Event;
+import discord4j.core.event.domain.interaction.DeferrableInteractionEvent;
+import discord4j.core.event.domain.interaction.InteractionCreateEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import discord4j.discordjson.Id;
+import discord4j.discordjson.json.InteractionData;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.possible.Possible;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>Subscribes the listeners of mad4j to the events of the gateway.</p>
+ *
+ * <p>By default, every listener subscribes to its events directly, like with
+ * {@link GatewayDiscordClient#on(Class, Function)}. When the property
+ * "mad4j.dispatch.partitions" is set to a positive number, or to "auto" for one partition
+ * per processor, the events are instead split into partitions by their guild, or by their
+ * channel if "mad4j.dispatch.partitionkey" is "channel". Events outside of guilds are
+ * partitioned by their channel.</p>
+ *
+ * <p>Every partition hands its events to their handlers one after the other, in the order
+ * they were received, on a thread of its own. The handlers of the same guild therefore start
+ * in order, and everything a handler does before its first asynchronous step, such as
+ * checking requirements and invoking an {@link ExecutionPolicy#INLINE} method, never races
+ * the handlers of the events before it. The partition does not wait for the rest of the
+ * handler, so methods running on another {@link ExecutionPolicy}, and replies to Discord,
+ * can finish in any order. This way a slow command never holds up the other guilds of its
+ * partition. The amount of events being handled at once is not limited by the partitions,
+ * but by the queues of the execution policies.</p>
+ *
+ * <p>Every partition queues at most "mad4j.dispatch.queue" (256 by default) events. When the
+ * partitions fall behind, up to "mad4j.dispatch.buffer" (10000 by default) more events are
+ * buffered, after which new events are dropped. Dropped interactions are answered with a
+ * message asking to try again, so that they don't fail without a reply. The amount of
+ * queued events of every partition and the amount of dropped events can be read from the
+ * dispatcher, and are registered as the gauges "mad4j.dispatch.queued", tagged by the
+ * partition, and "mad4j.dispatch.dropped" of {@link Mad4jMetrics}.</p>
+ */
+@Component
+public class EventDispatcher implements DisposableBean {
+
+    /**
+     * The reply to interactions that are dropped.
+     */
+    public static final String DROPPED_INTERACTION_REPLY = "The bot is too busy right now, please try again later!";
+
+    /**
+     * The least time between two warnings about dropped events.
+     */
+    private static final long DROP_WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    private final GatewayDiscordClient client;
+    private final int partitions;
+    private final boolean partitionByChannel;
+    private final int queueSize;
+    private final int bufferSize;
+    private final List<Route> routes = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, List<Route>> routesByEventClass = new ConcurrentHashMap<>();
+    private final AtomicIntegerArray queuedEvents;
+    private final LongAdder droppedEvents = new LongAdder();
+    private final AtomicLong nextDropWarning = new AtomicLong(System.nanoTime());
+    private Scheduler scheduler;
+    private Disposable subscription;
+
+    private record Route(Class<? extends Event> eventClass, Function<Event, Mono<Void>> handler) {
+
+    }
+
+    @Autowired
+    public EventDispatcher(GatewayDiscordClient client, Environment environment, Mad4jMetrics metrics) {
+        this(client, environment);
+        for (int i = 0; i < getPartitions(); i++) {
+            int partition = i;
+            metrics.gauge("mad4j.dispatch.queued", () -> queuedEvents.get(partition), "partition", String.valueOf(partition));
+        }
+        if (isPartitioned()) metrics.gauge("mad4j.dispatch.dropped", droppedEvents::sum);
+    }
+
+    /**
+     * Creates a dispatcher without metrics.
+     *
+     * @param client The client the events are received from.
+     * @param environment The environment the properties are read from.
+     */
+    public EventDispatcher(GatewayDiscordClient client, Environment environment) {
+        this.client = client;
+        String partitions = Optional.ofNullable(environment.getProperty("mad4j.dispatch.partitions")).orElse("0");
+        this.partitions = partitions.equalsIgnoreCase("auto") ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(partitions);
+        this.partitionByChannel = Optional.ofNullable(environment.getProperty("mad4j.dispatch.partitionkey")).orElse("guild")
+                .equalsIgnoreCase("channel");
+        this.queueSize = Integer.parseInt(Optional.ofNullable(environment.getProperty("mad4j.dispatch.queue")).orElse("256"));
+        this.bufferSize = Integer.parseInt(Optional.ofNullable(environment.getProperty("mad4j.dispatch.buffer")).orElse("10000"));
+        this.queuedEvents = new AtomicIntegerArray(Math.max(this.partitions, 0));
+    }
+
+    /**
+     * Subscribes a handler to the events of a type.
+     *
+     * @param eventClass The type of the events.
+     * @param handler The handler of the events.
+     * @param <E> The type of the events.
+     */
+    public <E extends Event> void on(Class<E> eventClass, Function<? super E, Mono<Void>> handler) {
+        if (!isPartitioned()) {
+            client.on(eventClass, handler::apply).subscribe();
+            return;
+        }
+        routes.add(new Route(eventClass, event -> handler.apply(eventClass.cast(event))));
+        routesByEventClass.clear();
+        start();
+    }
+
+    private synchronized void start() {
+        if (subscription != null) return;
+        scheduler = Schedulers.newParallel("mad4j-dispatch", partitions);
+        subscription = client.on(Event.class)
+                .filter(event -> !getRoutes(event.getClass()).isEmpty())
+                .onBackpressureBuffer(bufferSize, this::onDropped, BufferOverflowStrategy.DROP_LATEST)
+                .groupBy(this::enqueue, queueSize)
+                .flatMap(partition -> partition
+                        .publishOn(scheduler, queueSize)
+                        .doOnNext(event -> dispatch(partition.key(), event))
+                        .then(), partitions)
+                .subscribe();
+    }
+
+    private List<Route> getRoutes(Class<?> eventClass) {
+        return routesByEventClass.computeIfAbsent(eventClass, c -> {
+            List<Route> matching = new ArrayList<>();
+            for (Route route : routes) {
+                if (route.eventClass().isAssignableFrom(c)) matching.add(route);
+            }
+            return List.copyOf(matching);
+        });
+    }
+
+    private void onDropped(Event event) {
+        droppedEvents.increment();
+        if (event instanceof DeferrableInteractionEvent interactionEvent) {
+            interactionEvent.reply(DROPPED_INTERACTION_REPLY)
+                    .withEphemeral(true)
+                    .onErrorResume(e -> Mono.empty())
+                    .subscribe();
+        }
+        // Warns at most once per interval, as events are dropped in bursts.
+        long now = System.nanoTime();
+        long next = nextDropWarning.get();
+        if (now - next >= 0 && nextDropWarning.compareAndSet(next, now + DROP_WARNING_INTERVAL)) {
+            LOGGER.warn("Events are dropped because the event partitions are full. " + droppedEvents.sum()
+                    + " events were dropped so far.");
+        }
+    }
+
+    /**
+     * Finds the partition of an event and counts it as queued there. This is called once
+     * per event, when the event is grouped into its partition.
+     */
+    private int enqueue(Event event) {
+        int partition = getPartition(getPartitionKey(event), partitions);
+        queuedEvents.incrementAndGet(partition);
+        return partition;
+    }
+
+    /**
+     * Hands an event to its handlers, in the order they were subscribed. The handlers are
+     * subscribed to on the thread of the partition, but are not waited for.
+     */
+    private void dispatch(int partition, Event event) {
+        queuedEvents.decrementAndGet(partition);
+        for (Route route : getRoutes(event.getClass())) {
+            Mono<Void> handling;
+            try {
+                handling = route.handler().apply(event);
+            } catch (RuntimeException e) {
+                onHandlerError(event, e);
+                continue;
+            }
+            handling.subscribe(null, e -> onHandlerError(event, e));
+        }
+    }
+
+    private void onHandlerError(Event event, Throwable e) {
+        LOGGER.error("Handling " + event.getClass().getSimpleName() + " failed!", e);
+    }
+
+    /**
+     * Gets the key events are partitioned by: the id of the guild of the event, or the id of
+     * its channel if partitioning by channel or if the event is not in a guild.
+     *
+     * @param event The event.
+     * @return The key, or 0 if the event has neither a guild nor a channel.
+     */
+    public long getPartitionKey(Event event) {
+        Possible<Id> guildId;
+        Possible<Id> channelId;
+        if (event instanceof MessageCreateEvent messageEvent) {
+            MessageData data = messageEvent.getMessage().getData();
+            guildId = data.guildId();
+            channelId = Possible.of(data.channelId());
+        } else if (event instanceof InteractionCreateEvent interactionEvent) {
+            InteractionData data = interactionEvent.getInteraction().getData();
+            guildId = data.guildId();
+            channelId = data.channelId();
+        } else {
+            return 0;
+        }
+        if (!partitionByChannel && !guildId.isAbsent()) return guildId.get().asLong();
+        return channelId.isAbsent() ? 0 : channelId.get().asLong();
+    }
+
+    /**
+     * Gets the partition of a key.
+     *
+     * @param key The key, such as the id of a guild.
+     * @param partitions The amount of partitions.
+     * @return The index of the partition.
+     */
+    public static int getPartition(long key, int partitions) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) Long.remainderUnsigned(h ^ (h >>> 32), partitions);
+    }
+
+    /**
+     * Checks whether events are split into partitions.
+     *
+     * @return True if events are partitioned, false if every listener subscribes directly.
+     */
+    public boolean isPartitioned() {
+        return partitions > 0;
+    }
+
+    /**
+     * Gets the amount of partitions.
+     *
+     * @return The amount of partitions, or 0 if events are not partitioned.
+     */
+    public int getPartitions() {
+        return Math.max(partitions, 0);
+    }
+
+    /**
+     * Gets the amount of events in a partition that have not been handed to their handlers yet.
+     *
+     * @param partition The index of the partition.
+     * @return The amount of queued events.
+     */
+    public int getQueuedEvents(int partition) {
+        return queuedEvents.get(partition);
+    }
+
+    /**
+     * Gets the amount of events dropped because the partitions were full.
+     *
+     * @return The amount of dropped events.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (subscription != null) subscription.dispose();
+        if (scheduler != null) scheduler.dispose();
+    }
+}
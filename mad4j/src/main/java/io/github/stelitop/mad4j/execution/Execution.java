@@ -0,0 +1,24 @@
+package io.github.stelitop.mad4j.execution;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Selects the {@link ExecutionPolicy} of a command or component interaction method. When
+ * annotated to a class, it applies to all methods of the class that are not annotated
+ * themselves.</p>
+ *
+ * <p>Methods that block, for example by querying a database, should use
+ * {@link ExecutionPolicy#BOUNDED_ELASTIC} or {@link ExecutionPolicy#VIRTUAL_THREADS}.</p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Execution {
+
+    /**
+     * The policy the method is invoked with.
+     */
+    ExecutionPolicy value();
+}
@@ -0,0 +1,255 @@
+package io.github.stelitop.mad4j.execution;
+
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <p>Invokes the methods handling events according to their {@link ExecutionPolicy}.</p>
+ *
+ * <p>The global policy is read from the property "mad4j.execution.policy", which can be
+ * "inline" (the default), "bounded_elastic" or "virtual_threads". The pool of
+ * {@link ExecutionPolicy#BOUNDED_ELASTIC} is separate from the one of Reactor, and its size
+ * is read from "mad4j.execution.boundedelastic.threads" and
+ * "mad4j.execution.boundedelastic.queue". The schedulers are only created once they are
+ * first used.</p>
+ *
+ * <p>The invocations of every policy are counted, which can be read with
+ * {@link #getStats(ExecutionPolicy)}. The amounts of running and waiting invocations are also
+ * registered as the gauges "mad4j.execution.active" and "mad4j.execution.queued" of
+ * {@link Mad4jMetrics}, tagged by the policy.</p>
+ */
+@Component
+public class ExecutionPolicies implements DisposableBean {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
+
+    private final ExecutionPolicy globalPolicy;
+    private final int boundedElasticThreads;
+    private final int boundedElasticQueue;
+    private final Map<ExecutionPolicy, Counters> counters = new EnumMap<>(ExecutionPolicy.class);
+    private volatile Scheduler boundedElastic;
+    private volatile Scheduler virtualThreads;
+    private volatile boolean virtualThreadsUnavailable;
+
+    private static final class Counters {
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+
+    @Autowired
+    public ExecutionPolicies(Environment environment, Mad4jMetrics metrics) {
+        this(environment);
+        for (var entry : counters.entrySet()) {
+            String policy = entry.getKey().name().toLowerCase(Locale.ROOT);
+            Counters counter = entry.getValue();
+            metrics.gauge("mad4j.execution.active", counter.active::get, "policy", policy);
+            metrics.gauge("mad4j.execution.queued", counter.queued::get, "policy", policy);
+        }
+    }
+
+    /**
+     * Creates the execution policies without metrics.
+     *
+     * @param environment The environment the properties are read from.
+     */
+    public ExecutionPolicies(Environment environment) {
+        this.globalPolicy = parsePolicy(Optional.ofNullable(environment.getProperty("mad4j.execution.policy")).orElse("inline"));
+        this.boundedElasticThreads = Integer.parseInt(Optional.ofNullable(environment.getProperty("mad4j.execution.boundedelastic.threads"))
+                .orElse(String.valueOf(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE)));
+        this.boundedElasticQueue = Integer.parseInt(Optional.ofNullable(environment.getProperty("mad4j.execution.boundedelastic.queue"))
+                .orElse(String.valueOf(Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE)));
+        for (ExecutionPolicy policy : ExecutionPolicy.values()) {
+            if (policy != ExecutionPolicy.DEFAULT) counters.put(policy, new Counters());
+        }
+    }
+
+    private static ExecutionPolicy parsePolicy(String value) {
+        String normalised = value.trim().replace("-", "").replace("_", "");
+        for (ExecutionPolicy policy : ExecutionPolicy.values()) {
+            if (policy != ExecutionPolicy.DEFAULT && policy.name().replace("_", "").equalsIgnoreCase(normalised)) {
+                return policy;
+            }
+        }
+        throw new RuntimeException("The property \"mad4j.execution.policy\" has the unknown value \"" + value + "\"! "
+                + "Allowed values are \"inline\", \"bounded_elastic\" and \"virtual_threads\".");
+    }
+
+    /**
+     * Gets the policy of a method from its {@link Execution} annotation, or from the one of
+     * its class if the method has none.
+     *
+     * @param bean The bean the method is invoked from.
+     * @param method The method.
+     * @return The policy, or {@link ExecutionPolicy#DEFAULT} if neither is annotated.
+     */
+    public static ExecutionPolicy getPolicy(Object bean, Method method) {
+        Execution execution = AnnotationUtils.findAnnotation(method, Execution.class);
+        if (execution == null) execution = AnnotationUtils.findAnnotation(bean.getClass(), Execution.class);
+        return execution == null ? ExecutionPolicy.DEFAULT : execution.value();
+    }
+
+    /**
+     * Gets the global policy, used by methods whose policy is {@link ExecutionPolicy#DEFAULT}.
+     *
+     * @return The global policy.
+     */
+    public ExecutionPolicy getGlobalPolicy() {
+        return globalPolicy;
+    }
+
+    /**
+     * Gets the policy that is actually used for a policy. The default policy is replaced with
+     * the global one, and virtual threads are replaced with the bounded elastic pool when
+     * they are not supported.
+     *
+     * @param policy The policy.
+     * @return The policy used.
+     */
+    public ExecutionPolicy resolve(ExecutionPolicy policy) {
+        if (policy == ExecutionPolicy.DEFAULT) policy = globalPolicy;
+        if (policy == ExecutionPolicy.VIRTUAL_THREADS && getVirtualThreads() == null) return ExecutionPolicy.BOUNDED_ELASTIC;
+        return policy;
+    }
+
+    /**
+     * <p>Invokes a task according to a policy.</p>
+     *
+     * <p>Inline tasks are invoked right away, before this method returns. Other tasks are
+     * invoked once the returned mono is subscribed to.</p>
+     *
+     * @param policy The policy.
+     * @param task The task, which returns the mono of its result.
+     * @return The mono of the result of the task.
+     * @param <T> The type of the result.
+     */
+    public <T> Mono<T> execute(ExecutionPolicy policy, Supplier<? extends Mono<T>> task) {
+        ExecutionPolicy resolved = resolve(policy);
+        Counters counter = counters.get(resolved);
+        if (resolved == ExecutionPolicy.INLINE) {
+            counter.active.incrementAndGet();
+            Mono<T> result;
+            try {
+                result = task.get();
+            } catch (RuntimeException e) {
+                counter.failed.increment();
+                throw e;
+            } finally {
+                counter.active.decrementAndGet();
+            }
+            return count(result, counter);
+        }
+
+        Scheduler scheduler = resolved == ExecutionPolicy.VIRTUAL_THREADS ? getVirtualThreads() : getBoundedElastic();
+        return Mono.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean(false);
+            counter.queued.incrementAndGet();
+            return Mono.defer(() -> {
+                        if (started.compareAndSet(false, true)) counter.queued.decrementAndGet();
+                        counter.active.incrementAndGet();
+                        Mono<T> result;
+                        try {
+                            result = task.get();
+                        } catch (RuntimeException e) {
+                            counter.active.decrementAndGet();
+                            counter.failed.increment();
+                            return Mono.error(e);
+                        }
+                        return count(result, counter).doFinally(signal -> counter.active.decrementAndGet());
+                    })
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> {
+                        // Cancelled or rejected before the task started.
+                        if (started.compareAndSet(false, true)) counter.queued.decrementAndGet();
+                    });
+        });
+    }
+
+    private static <T> Mono<T> count(Mono<T> result, Counters counter) {
+        return result
+                .doOnSuccess(x -> counter.completed.increment())
+                .doOnError(e -> counter.failed.increment());
+    }
+
+    /**
+     * Gets the counts of the invocations of a policy.
+     *
+     * @param policy The policy.
+     * @return The counts of the policy that is actually used for it.
+     */
+    public ExecutionStats getStats(ExecutionPolicy policy) {
+        Counters counter = counters.get(resolve(policy));
+        return new ExecutionStats(counter.active.get(), counter.queued.get(), counter.completed.sum(), counter.failed.sum());
+    }
+
+    private Scheduler getBoundedElastic() {
+        Scheduler scheduler = boundedElastic;
+        if (scheduler != null) return scheduler;
+        synchronized (this) {
+            if (boundedElastic == null) {
+                boundedElastic = Schedulers.newBoundedElastic(boundedElasticThreads, boundedElasticQueue, "mad4j-execution");
+            }
+            return boundedElastic;
+        }
+    }
+
+    private Scheduler getVirtualThreads() {
+        Scheduler scheduler = virtualThreads;
+        if (scheduler != null || virtualThreadsUnavailable) return scheduler;
+        synchronized (this) {
+            if (virtualThreads == null && !virtualThreadsUnavailable) {
+                ExecutorService executor = newVirtualThreadExecutor();
+                if (executor == null) {
+                    LOGGER.warn("Virtual threads are not supported by this Java version. The bounded elastic "
+                            + "execution policy is used instead.");
+                    virtualThreadsUnavailable = true;
+                } else {
+                    virtualThreads = Schedulers.fromExecutorService(executor, "mad4j-virtual");
+                }
+            }
+            return virtualThreads;
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread for every task. The method is looked up
+     * reflectively, as mad4j is compiled for Java 17.
+     *
+     * @return The executor, or null if virtual threads are not supported.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (boundedElastic != null) boundedElastic.dispose();
+        if (virtualThreads != null) virtualThreads.dispose();
+    }
+}
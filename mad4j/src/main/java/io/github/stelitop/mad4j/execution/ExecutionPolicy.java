@@ -0,0 +1,27 @@
+package io.github.stelitop.mad4j.execution;
+
+/**
+ * Where the methods handling events are invoked.
+ */
+public enum ExecutionPolicy {
+    /**
+     * Uses the policy of the class of the method, or the global policy from the property
+     * "mad4j.execution.policy" if the class has none.
+     */
+    DEFAULT,
+    /**
+     * The method is invoked on the thread that received the event. This is the fastest, but
+     * a method that blocks holds up all other events while it runs.
+     */
+    INLINE,
+    /**
+     * The method is invoked on a bounded pool of threads, so it can block without holding
+     * up other events.
+     */
+    BOUNDED_ELASTIC,
+    /**
+     * The method is invoked on a new virtual thread. This needs Java 21 or newer. On older
+     * versions, {@link #BOUNDED_ELASTIC} is used instead.
+     */
+    VIRTUAL_THREADS
+}
@@ -0,0 +1,13 @@
+package io.github.stelitop.mad4j.execution;
+
+/**
+ * A snapshot of the invocations of an {@link ExecutionPolicy}.
+ *
+ * @param active The amount of invocations that have started and not finished yet.
+ * @param queued The amount of invocations waiting for a thread to start on.
+ * @param completed The amount of invocations that finished successfully.
+ * @param failed The amount of invocations that finished with an error.
+ */
+public record ExecutionStats(int active, int queued, long completed, long failed) {
+
+}
@@ -3,43 +3,113 @@ package io.github.stelitop.mad4j.listeners;
 import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import discord4j.discordjson.json.ApplicationCommandOptionChoiceData;
+import io.github.stelitop.mad4j.commands.autocomplete.CacheableAutocomplete;
+import io.github.stelitop.mad4j.utils.CacheScope;
+import io.github.stelitop.mad4j.utils.ExpiringLruCache;
 import io.github.stelitop.mad4j.utils.OptionType;
 import io.github.stelitop.mad4j.commands.autocomplete.AutocompletionExecutor;
 import io.github.stelitop.mad4j.commands.autocomplete.InputSuggestion;
+import io.github.stelitop.mad4j.commands.autocomplete.ReactiveAutocompletionExecutor;
+import io.github.stelitop.mad4j.execution.Execution;
+import io.github.stelitop.mad4j.execution.ExecutionPolicies;
+import io.github.stelitop.mad4j.execution.ExecutionPolicy;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Outcome;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Stage;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Component
 public class CommandOptionAutocompleteListener implements ApplicationRunner {
 
+    private static final Mad4jMetrics.Listener AUTOCOMPLETE = Mad4jMetrics.Listener.AUTOCOMPLETE;
+
     private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
     private final GatewayDiscordClient client;
     private final Map<Class<? extends AutocompletionExecutor>, AutocompletionExecutor> autocompletionExecutorBeans;
     private final Map<Pair<String, String>, Class<? extends AutocompletionExecutor>> commandNameParamToExecutor;
+    private final Map<Class<? extends AutocompletionExecutor>, AutocompleteCache> caches;
+    private final Duration deadline;
+    private final ExecutionPolicies executionPolicies;
+    private final Mad4jMetrics metrics;
+    /**
+     * The execution policies of the executors that are not reactive.
+     */
+    private final Map<Class<? extends AutocompletionExecutor>, ExecutionPolicy> executionPolicyOfExecutor;
+
+    /**
+     * The maximum amount of suggestions that Discord accepts.
+     */
+    private static final int MAX_SUGGESTIONS = 25;
+
+    /**
+     * The cached suggestions of an executor annotated with {@link CacheableAutocomplete}.
+     *
+     * @param scope Who the cached suggestions are shared between.
+     * @param cache The cached suggestions.
+     */
+    private record AutocompleteCache(CacheScope scope, ExpiringLruCache<CacheKey, List<ApplicationCommandOptionChoiceData>> cache) {
+
+    }
+
+    /**
+     * Key of cached suggestions.
+     *
+     * @param commandName The full name of the command.
+     * @param paramName The name of the focused option.
+     * @param value The value the user has typed so far.
+     * @param scopeId The id of the guild or user the suggestions are cached for, or 0 if
+     *     they are shared by everyone.
+     */
+    private record CacheKey(String commandName, String paramName, String value, long scopeId) {
+
+    }
 
     @Autowired
     public CommandOptionAutocompleteListener(
             GatewayDiscordClient client,
-            List<AutocompletionExecutor> autocompletionExecutors
+            List<AutocompletionExecutor> autocompletionExecutors,
+            Environment environment,
+            ExecutionPolicies executionPolicies,
+            Mad4jMetrics metrics
     ) {
         this.client = client;
+        this.executionPolicies = executionPolicies;
+        this.metrics = metrics;
+        this.deadline = Duration.ofMillis(Long.parseLong(
+                Optional.ofNullable(environment.getProperty("mad4j.autocomplete.deadline")).orElse("2500")));
         this.autocompletionExecutorBeans = autocompletionExecutors.stream()
                 .collect(Collectors.toMap(AutocompletionExecutor::getClass, x -> x));
         this.commandNameParamToExecutor = new HashMap<>();
+        this.caches = new HashMap<>();
+        this.executionPolicyOfExecutor = new HashMap<>();
+        for (var executor : autocompletionExecutors) {
+            Execution execution = AnnotationUtils.findAnnotation(executor.getClass(), Execution.class);
+            executionPolicyOfExecutor.put(executor.getClass(),
+                    execution == null ? ExecutionPolicy.BOUNDED_ELASTIC : execution.value());
+
+            CacheableAutocomplete cacheable = AnnotationUtils.findAnnotation(executor.getClass(), CacheableAutocomplete.class);
+            if (cacheable == null) continue;
+            caches.put(executor.getClass(), new AutocompleteCache(cacheable.scope(),
+                    new ExpiringLruCache<>(cacheable.maxSize(), Duration.ofSeconds(cacheable.ttlSeconds()))));
+        }
     }
 
     @Override
@@ -48,26 +118,126 @@ public class CommandOptionAutocompleteListener implements ApplicationRunner {
     }
 
     private Mono<Void> handle(ChatInputAutoCompleteEvent event) {
+        long lookupStart = metrics.start();
         String commandName = getCommandName(event);
         String paramName = event.getFocusedOption().getName();
         Class<? extends AutocompletionExecutor> executorClass = commandNameParamToExecutor.get(Pair.of(commandName, paramName));
         if (executorClass == null) {
+            metrics.record(AUTOCOMPLETE, Stage.LOOKUP, Mad4jMetrics.UNKNOWN_COMMAND, Outcome.MISS, lookupStart);
+            metrics.routingMiss(AUTOCOMPLETE);
             LOGGER.error("Command \"" + commandName + "\" had no bound autocomplete class for param \"" + paramName + "\"!");
             return Mono.empty();
         }
         AutocompletionExecutor executor = autocompletionExecutorBeans.get(executorClass);
         if (executor == null) {
+            metrics.record(AUTOCOMPLETE, Stage.LOOKUP, commandName, Outcome.ERROR, lookupStart);
             LOGGER.error("Command \"" + commandName + "\" had no autocomplete bean for param \"" + paramName + "\"!");
             return Mono.empty();
         }
 
-        List<InputSuggestion> suggestions = executor.execute(event);
-        List<ApplicationCommandOptionChoiceData> ret = new ArrayList<>();
-        suggestions.stream()
-                .limit(25)
+        AutocompleteCache cache = caches.get(executorClass);
+        if (cache == null) {
+            metrics.record(AUTOCOMPLETE, Stage.LOOKUP, commandName, Outcome.SUCCESS, lookupStart);
+            return metrics.time(AUTOCOMPLETE, Stage.EXECUTION, commandName, getSuggestions(executor, event, deadline))
+                    .flatMap(suggestions -> respond(event, commandName, suggestions.choices()));
+        }
+
+        CacheKey key = new CacheKey(commandName, paramName, getFocusedValue(event), cache.scope().getId(event.getInteraction()));
+        List<ApplicationCommandOptionChoiceData> cached = cache.cache().get(key);
+        metrics.record(AUTOCOMPLETE, Stage.LOOKUP, commandName, Outcome.SUCCESS, lookupStart);
+        if (cached != null) {
+            return respond(event, commandName, cached);
+        }
+        return metrics.time(AUTOCOMPLETE, Stage.EXECUTION, commandName, getSuggestions(executor, event, deadline))
+                .doOnNext(suggestions -> {
+                    if (suggestions.complete()) cache.cache().put(key, suggestions.choices());
+                })
+                .flatMap(suggestions -> respond(event, commandName, suggestions.choices()));
+    }
+
+    /**
+     * Sends the suggestions to Discord.
+     *
+     * @param event The autocomplete event.
+     * @param commandName The full name of the command.
+     * @param choices The suggestions.
+     * @return The response to the event.
+     */
+    private Mono<Void> respond(ChatInputAutoCompleteEvent event, String commandName, List<ApplicationCommandOptionChoiceData> choices) {
+        return metrics.time(AUTOCOMPLETE, Stage.RESPONSE, commandName, event.respondWithSuggestions(choices));
+    }
+
+    /**
+     * The choices sent to Discord as suggestions.
+     *
+     * @param choices The choices.
+     * @param complete Whether the executor finished before the deadline. Incomplete choices
+     *     are not cached.
+     */
+    private record Suggestions(List<ApplicationCommandOptionChoiceData> choices, boolean complete) {
+
+    }
+
+    /**
+     * <p>Executes an autocompletion executor and transforms its suggestions into the choices
+     * sent to Discord. At most 25 suggestions are kept.</p>
+     *
+     * <p>Executors implementing {@link ReactiveAutocompletionExecutor} are subscribed to
+     * directly. Other executors block, so they are executed with the policy of their
+     * {@link Execution} annotation, or on the bounded elastic pool if they have none, to not
+     * hold up the gateway thread. Either way, only the suggestions given before the
+     * deadline runs out are kept.</p>
+     *
+     * @param executor The executor.
+     * @param event The autocomplete event.
+     * @param deadline How long to wait for the suggestions.
+     * @return The choices.
+     */
+    private Mono<Suggestions> getSuggestions(AutocompletionExecutor executor, ChatInputAutoCompleteEvent event, Duration deadline) {
+        Flux<InputSuggestion> suggestions;
+        if (executor instanceof ReactiveAutocompletionExecutor reactiveExecutor) {
+            suggestions = Flux.defer(() -> reactiveExecutor.suggest(event));
+        } else {
+            suggestions = executionPolicies.execute(executionPolicyOfExecutor.get(executor.getClass()),
+                            () -> Mono.fromCallable(() -> executor.execute(event)))
+                    .flatMapIterable(x -> x);
+        }
+
+        AtomicBoolean complete = new AtomicBoolean(false);
+        return suggestions
+                .take(MAX_SUGGESTIONS)
+                .doOnComplete(() -> complete.set(true))
+                .take(deadline)
                 .map(x -> ApplicationCommandOptionChoiceData.builder().name(x.getName()).value(x.getValue()).build())
-                .forEach(ret::add);
-        return event.respondWithSuggestions(ret);
+                .collectList()
+                .onErrorResume(e -> {
+                    LOGGER.error("Autocompletion executor \"" + executor.getClass().getName() + "\" failed!", e);
+                    return Mono.just(List.of());
+                })
+                .map(choices -> new Suggestions(choices, complete.get()));
+    }
+
+    /**
+     * Gets the value the user has typed so far into the focused option.
+     *
+     * @param event The autocomplete event.
+     * @return The typed value. Empty if nothing has been typed yet.
+     */
+    private String getFocusedValue(ChatInputAutoCompleteEvent event) {
+        return event.getFocusedOption().getValue()
+                .map(ApplicationCommandInteractionOptionValue::getRaw)
+                .orElse("");
+    }
+
+    /**
+     * Gets the cache of the suggestions of an executor.
+     *
+     * @param executorClass The class of the executor.
+     * @return The cache, or an empty optional if the executor is not annotated with
+     *     {@link CacheableAutocomplete}.
+     */
+    public Optional<ExpiringLruCache<?, ?>> getCache(Class<? extends AutocompletionExecutor> executorClass) {
+        return Optional.ofNullable(caches.get(executorClass)).map(AutocompleteCache::cache);
     }
 
     private String getCommandName(ChatInputAutoCompleteEvent event) {
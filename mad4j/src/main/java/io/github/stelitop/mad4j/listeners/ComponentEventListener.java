@@ -1,101 +1,144 @@
 package io.github.stelitop.mad4j.listeners;
 
-import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
 import discord4j.core.event.domain.interaction.ComponentInteractionEvent;
 import discord4j.core.event.domain.interaction.ModalSubmitInteractionEvent;
 import discord4j.core.event.domain.interaction.SelectMenuInteractionEvent;
-import discord4j.core.object.entity.User;
-import io.github.stelitop.mad4j.DiscordEventsComponent;
-import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.DiscordEventsScanner;
+import io.github.stelitop.mad4j.commands.binding.ComponentParamBinder;
+import io.github.stelitop.mad4j.commands.binding.ComponentParamBinders;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimitRule;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimiter;
+import io.github.stelitop.mad4j.execution.EventDispatcher;
+import io.github.stelitop.mad4j.execution.ExecutionPolicies;
+import io.github.stelitop.mad4j.execution.ExecutionPolicy;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Outcome;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Stage;
 import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.MethodInvoker;
 import lombok.Builder;
-import lombok.ToString;
 import io.github.stelitop.mad4j.interactions.EventResponse;
 import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
-import io.github.stelitop.mad4j.commands.convenience.EventUser;
-import io.github.stelitop.mad4j.commands.convenience.EventUserId;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
+import io.github.stelitop.mad4j.commands.components.ComponentInteractionRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.regex.Matcher;
 
 @Component
 public class ComponentEventListener implements ApplicationRunner {
 
+    private static final Mad4jMetrics.Listener COMPONENT = Mad4jMetrics.Listener.COMPONENT;
+
     private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
-    private final GatewayDiscordClient client;
-    private final ApplicationContext applicationContext;
+    private final DiscordEventsScanner discordEventsScanner;
+    private final ExecutionPolicies executionPolicies;
+    private final EventDispatcher eventDispatcher;
+    private final RateLimiter rateLimiter;
+    private final Mad4jMetrics metrics;
 
     @Autowired
     public ComponentEventListener(
-            GatewayDiscordClient client,
-            ApplicationContext applicationContext
+            DiscordEventsScanner discordEventsScanner,
+            ExecutionPolicies executionPolicies,
+            EventDispatcher eventDispatcher,
+            RateLimiter rateLimiter,
+            Mad4jMetrics metrics
     ) {
-        this.client = client;
-        this.applicationContext = applicationContext;
+        this.discordEventsScanner = discordEventsScanner;
+        this.executionPolicies = executionPolicies;
+        this.eventDispatcher = eventDispatcher;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
     }
 
     /**
-     * Loaded data for the classes that can contain the implementation.
+     * Routers of the custom ids of every supported event type to their implementations.
      */
-    private Map<Class<? extends ComponentInteractionEvent>, List<ImplementationEntry>> methods;
+    private Map<Class<? extends ComponentInteractionEvent>, ComponentInteractionRouter<ImplementationEntry>> routers;
 
     @Builder
-    @ToString
     private static class ImplementationEntry {
         Object bean;
         String regex;
         Method method;
+        MethodInvoker invoker;
+        ComponentParamBinder[] binders;
+        ExecutionPolicy execution;
+        RateLimitRule[] rateLimits;
+
+        @Override
+        public String toString() {
+            return "method \"" + method.getName() + "\" in class \"" + bean.getClass().getName() + "\"";
+        }
     }
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
         loadBeans();
-        client.on(ButtonInteractionEvent.class, this::mapEvent).subscribe();
-        client.on(SelectMenuInteractionEvent.class, this::mapEvent).subscribe();
-        client.on(ModalSubmitInteractionEvent.class, this::mapEvent).subscribe();
+        eventDispatcher.on(ButtonInteractionEvent.class, this::mapEvent);
+        eventDispatcher.on(SelectMenuInteractionEvent.class, this::mapEvent);
+        eventDispatcher.on(ModalSubmitInteractionEvent.class, this::mapEvent);
     }
 
     /**
-     * Loads the beans annotated with {@link DiscordEventsComponent} and precomputes
-     * for all methods annotated with {@link ComponentInteraction} all the necessary
+     * Loads the methods annotated with {@link ComponentInteraction} from the shared
+     * {@link DiscordEventsScanner} metadata and precomputes for all of them all the necessary
      * information so that it can be cached for future use.
      */
     private void loadBeans() {
-        this.methods = new HashMap<>();
-        this.methods.put(ButtonInteractionEvent.class, new ArrayList<>());
-        this.methods.put(SelectMenuInteractionEvent.class, new ArrayList<>());
-        this.methods.put(ModalSubmitInteractionEvent.class, new ArrayList<>());
-
-        Collection<Object> beans = applicationContext.getBeansWithAnnotation(DiscordEventsComponent.class).values();
-        for (var bean : beans) {
-            List<Method> methods = Arrays.stream(bean.getClass().getMethods())
-                    .filter(x -> x.isAnnotationPresent(ComponentInteraction.class))
-                    .toList();
-
-            for (var method : methods) {
-                ComponentInteraction annotation = method.getAnnotation(ComponentInteraction.class);
-                this.methods.get(annotation.event()).add(ImplementationEntry.builder()
-                        .bean(bean)
-                        .method(method)
-                        .regex(annotation.regex())
-                        .build());
+        Map<Class<? extends ComponentInteractionEvent>, ComponentInteractionRouter.Builder<ImplementationEntry>> builders = new HashMap<>();
+        builders.put(ButtonInteractionEvent.class, ComponentInteractionRouter.builder());
+        builders.put(SelectMenuInteractionEvent.class, ComponentInteractionRouter.builder());
+        builders.put(ModalSubmitInteractionEvent.class, ComponentInteractionRouter.builder());
+
+        List<String> errors = new ArrayList<>();
+        for (var eventMethod : discordEventsScanner.getMetadata().components()) {
+            Object bean = eventMethod.bean();
+            Method method = eventMethod.method();
+            ComponentInteraction annotation = eventMethod.getAnnotation(ComponentInteraction.class);
+            var builder = builders.get(annotation.event());
+            if (builder == null) {
+                throw new RuntimeException("Method \"" + method + "\" uses the unsupported event type "
+                        + annotation.event().getName() + "!");
+            }
+            ActionResult<ComponentParamBinder[]> binders = ComponentParamBinders.compile(eventMethod, annotation);
+            if (binders.hasFailed()) {
+                errors.add(binders.errorMessage());
+                continue;
+            }
+            builder.add(annotation.regex(), ImplementationEntry.builder()
+                    .bean(bean)
+                    .method(method)
+                    .regex(annotation.regex())
+                    .invoker(MethodInvoker.of(bean, method))
+                    .binders(binders.getResponse())
+                    .execution(ExecutionPolicies.getPolicy(bean, method))
+                    .rateLimits(rateLimiter.getRules(method))
+                    .build());
+        }
+
+        if (!errors.isEmpty()) {
+            String errorMsg = errors.size() + " component interaction method(s) were incorrectly defined!";
+            LOGGER.error(errorMsg);
+            for (var error : errors) {
+                LOGGER.error("-- " + error);
             }
+            throw new RuntimeException(errorMsg + " Check the error logs for more detail on what went wrong.");
         }
+
+        this.routers = new HashMap<>();
+        builders.forEach((eventClass, builder) -> this.routers.put(eventClass, builder.build()));
     }
 
     /**
@@ -107,28 +150,35 @@ public class ComponentEventListener implements ApplicationRunner {
      *     error is logged.
      */
     private Mono<Void> mapEvent(ComponentInteractionEvent event) {
-        List<ImplementationEntry> possibleEntries = methods.getOrDefault(event.getClass(), null);
-        if (possibleEntries == null) {
+        var router = routers.get(event.getClass());
+        if (router == null) {
             LOGGER.error("Event type " + event.getClass().getName() + " not supported!");
             return Mono.empty();
         }
+        long lookupStart = metrics.start();
         String eventId = event.getCustomId();
-        List<ImplementationEntry> matches = possibleEntries.stream()
-                .filter(x -> eventId.matches(x.regex))
-                .toList();
-        if (matches.isEmpty()) {
+        var match = router.route(eventId);
+        if (match == null) {
+            metrics.record(COMPONENT, Stage.LOOKUP, Mad4jMetrics.UNKNOWN_COMMAND, Outcome.MISS, lookupStart);
+            metrics.routingMiss(COMPONENT);
             LOGGER.error("No declared interaction matched id \"" + eventId + "\" of event type " + event.getClass() + "!");
             return Mono.empty();
         }
-        if (matches.size() > 1) {
-            String errorMsg = matches.stream()
-                    .map(x -> "Method \"" + x.method.getName() + "\" in class \"" + x.bean.getClass().getName() + "\"!")
-                    .collect(Collectors.joining("\n"));
-            LOGGER.error("Multiple interactions match the id \"" + eventId + "\"!\n" + errorMsg);
-            return Mono.empty();
+        String regex = match.target().regex;
+        metrics.record(COMPONENT, Stage.LOOKUP, regex, Outcome.SUCCESS, lookupStart);
+        // Only checked when measured, as every candidate regex has to be tested.
+        if (metrics.isEnabled() && router.countMatches(eventId) > 1) metrics.ambiguousRoute(COMPONENT);
+
+        long requirementsStart = metrics.start();
+        var result = RateLimiter.acquire(match.target().rateLimits, event.getInteraction());
+        if (result.hasFailed()) {
+            metrics.record(COMPONENT, Stage.REQUIREMENTS, regex, Outcome.REJECTED, requirementsStart);
+            metrics.requirementRejected(COMPONENT, regex);
+            return event.reply(result.errorMessage()).withEphemeral(true);
         }
-
-        return executeEvent(event, matches.get(0));
+        metrics.record(COMPONENT, Stage.REQUIREMENTS, regex, Outcome.SUCCESS, requirementsStart);
+        return executionPolicies.execute(match.target().execution,
+                () -> executeEvent(event, match.target(), match.matcher()));
     }
 
     /**
@@ -136,75 +186,55 @@ public class ComponentEventListener implements ApplicationRunner {
      *
      * @param event The event to be executed.
      * @param imp The implementation data to use for execution.
+     * @param matcher The matcher that matched the custom id of the event to the implementation.
      * @return The reply to the event if it's successfully executed. If it's not,
      *     an empty mono is returned instead and an error is logged.
      */
-    private Mono<Void> executeEvent(ComponentInteractionEvent event, ImplementationEntry imp) {
-        Parameter[] parameters = imp.method.getParameters();
-        Object[] args = new Object[parameters.length];
+    private Mono<Void> executeEvent(ComponentInteractionEvent event, ImplementationEntry imp, Matcher matcher) {
+        ComponentParamBinder[] binders = imp.binders;
+        Object[] args = new Object[binders.length];
         String errorStart = "Method \"" + imp.method.getName() + "\" in class \"" + imp.bean.getClass().getName() + "\"";
 
-        for (int i = 0; i < parameters.length; i++) {
-            ActionResult<Object> mapParamAR = mapParam(event, parameters[i]);
-            if (mapParamAR.hasFailed()) {
-                LOGGER.error(errorStart + " had a problem injecting parameter at position " + i + ". Message: " + mapParamAR.errorMessage());
+        long bindingStart = metrics.start();
+        for (int i = 0; i < binders.length; i++) {
+            try {
+                args[i] = binders[i].bind(event, matcher);
+            } catch (IllegalArgumentException e) {
+                metrics.record(COMPONENT, Stage.BINDING, imp.regex, Outcome.ERROR, bindingStart);
+                LOGGER.error(errorStart + " had a problem injecting parameter at position " + i + ". Message: " + e.getMessage());
                 return Mono.empty();
             }
-            args[i] = mapParamAR.getResponse();
         }
 
+        metrics.record(COMPONENT, Stage.BINDING, imp.regex, Outcome.SUCCESS, bindingStart);
+
+        long executionStart = metrics.start();
         try {
-            Object result = imp.method.invoke(imp.bean, args);
+            Object result = imp.invoker.invoke(args);
+            Mono<Void> response;
             if (result instanceof EventResponse er) {
-                return er.respond(event);
+                response = er.respond(event);
             }
             else if (Mono.class.isAssignableFrom(result.getClass())) {
-                return ((Mono<?>) result).cast(Void.class);
+                response = ((Mono<?>) result).cast(Void.class);
             }
             else throw new ClassCastException();
+            metrics.record(COMPONENT, Stage.EXECUTION, imp.regex, Outcome.SUCCESS, executionStart);
+            return metrics.time(COMPONENT, Stage.RESPONSE, imp.regex, response);
 
         } catch (IllegalAccessException | InvocationTargetException e) {
+            metrics.record(COMPONENT, Stage.EXECUTION, imp.regex, Outcome.ERROR, executionStart);
             LOGGER.error(errorStart + " had a problem during invoking!");
             return event.reply("An error occurred invoking the button!")
                     .withEphemeral(true);
         } catch (ClassCastException e) {
+            metrics.record(COMPONENT, Stage.EXECUTION, imp.regex, Outcome.ERROR, executionStart);
             LOGGER.error(errorStart + "'s result could not be cast to any acceptable type. Check method signature.");
             return event.reply("Could not cast result of slash command.")
                     .withEphemeral(true);
         }
     }
 
-    /**
-     * Maps a single parameter from the method signature to the wanted value,
-     * depending on its annotations.
-     *
-     * @param event The event for the method.
-     * @param param The parameter data.
-     * @return The value to inject for the parameter. In case it doesn't match
-     *     anything, null is returned.
-     */
-    private @NotNull ActionResult<@Nullable Object> mapParam(@NotNull ComponentInteractionEvent event, @NotNull Parameter param) {
-        if (param.isAnnotationPresent(InteractionEvent.class)) {
-            if (!param.getType().isInstance(event)) {
-                return ActionResult.fail("The @InteractionEvent type is not compatible!");
-            }
-            return ActionResult.success(event);
-        }
-        if (param.isAnnotationPresent(EventUser.class)) {
-            if (param.getType() != User.class) {
-                return ActionResult.fail("The @EventUser type is not a User type!");
-            }
-            return ActionResult.success(event.getInteraction().getUser());
-        }
-        if (param.isAnnotationPresent(EventUserId.class)) {
-            if (param.getType() != Long.class && param.getType() != long.class) {
-                return ActionResult.fail("The @EventUserId type is not a long type!");
-            }
-            return ActionResult.success(event.getInteraction().getUser().getId().asLong());
-        }
-        return ActionResult.success(null);
-    }
-
 //    /**
 //     * <p>Redirects an event to use a different custom id, remapping it from the start.</p>
 //     *
@@ -1,14 +1,25 @@
 package io.github.stelitop.mad4j.listeners;
 
-import discord4j.common.util.Snowflake;
 import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.guild.GuildCreateEvent;
 import discord4j.core.event.domain.message.MessageCreateEvent;
-import discord4j.discordjson.Id;
-import io.github.stelitop.mad4j.commands.CommandParam;
+import discord4j.discordjson.json.MessageData;
+import discord4j.discordjson.possible.Possible;
 import io.github.stelitop.mad4j.commands.CommandType;
-import io.github.stelitop.mad4j.commands.convenience.EventUser;
 import io.github.stelitop.mad4j.commands.CommandData;
-import io.github.stelitop.mad4j.commands.convenience.EventUserId;
+import io.github.stelitop.mad4j.commands.binding.TextCommandParamBinder;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimitRule;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimiter;
+import io.github.stelitop.mad4j.commands.text.TextCommandSettings;
+import io.github.stelitop.mad4j.execution.EventDispatcher;
+import io.github.stelitop.mad4j.execution.ExecutionPolicies;
+import io.github.stelitop.mad4j.commands.text.TextCommandTokenizer;
+import io.github.stelitop.mad4j.commands.text.TextCommandTokens;
+import io.github.stelitop.mad4j.commands.text.TextCommandTrie;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Outcome;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Stage;
+import io.github.stelitop.mad4j.utils.PendingArgument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,67 +30,164 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Component
 public class MessageListener implements ApplicationRunner {
 
+    private static final Mad4jMetrics.Listener TEXT = Mad4jMetrics.Listener.TEXT;
+
     private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
     private final ApplicationContext applicationContext;
     private final GatewayDiscordClient client;
     private final CommandData commandData;
+    private final TextCommandSettings textCommandSettings;
+    private final ExecutionPolicies executionPolicies;
+    private final EventDispatcher eventDispatcher;
+    private final Mad4jMetrics metrics;
+    /**
+     * The text commands by their names, built at startup.
+     */
+    private TextCommandTrie<CommandData.Entry> textCommands = TextCommandTrie.of(Map.of());
 
     @Autowired
     public MessageListener(
             ApplicationContext applicationContext,
             GatewayDiscordClient client,
-            CommandData commandData
+            CommandData commandData,
+            TextCommandSettings textCommandSettings,
+            ExecutionPolicies executionPolicies,
+            EventDispatcher eventDispatcher,
+            Mad4jMetrics metrics
     ) {
         this.applicationContext = applicationContext;
         this.client = client;
         this.commandData = commandData;
+        this.textCommandSettings = textCommandSettings;
+        this.executionPolicies = executionPolicies;
+        this.eventDispatcher = eventDispatcher;
+        this.metrics = metrics;
     }
 
     @Override
     public void run(ApplicationArguments args) {
-        client.on(MessageCreateEvent.class, this::handle).subscribe();
+        Map<String, CommandData.Entry> commands = new HashMap<>();
+        for (var command : commandData.getFromType(CommandType.Text)) {
+            commands.put(command.getName(), command);
+        }
+        textCommands = TextCommandTrie.of(commands);
+        client.on(GuildCreateEvent.class, this::preloadPrefix).subscribe();
+        eventDispatcher.on(MessageCreateEvent.class, this::handle);
+    }
+
+    /**
+     * Loads the prefix of a guild as soon as the bot receives it, so that text commands with
+     * the prefix of the guild work from its first message.
+     *
+     * @param event The event of the guild.
+     * @return An empty mono.
+     */
+    private Mono<Void> preloadPrefix(GuildCreateEvent event) {
+        textCommandSettings.preloadPrefix(event.getGuild().getId().asLong());
+        return Mono.empty();
     }
 
     private Mono<Void> handle(MessageCreateEvent event) {
-        String content = event.getMessage().getContent();
-        // TODO: Replace with proper prefix check that is based on Guild ID or a default one in DMs
-        if (!content.startsWith("!")) return Mono.empty();
-
-        String contentNoPrefix = content.substring("!".length());
-        List<String> parts = splitMessage(contentNoPrefix);
-        if (parts.size() == 0) return Mono.empty();
-        String commandName = parts.get(0);
-        int commandCutoff = 1;
-        CommandData.Entry command = commandData.get(commandName, CommandType.Text);
-        while (commandCutoff < parts.size() && command == null) {
-            commandName += " " + parts.get(commandCutoff);
-            commandCutoff++;
-            command = commandData.get(commandName, CommandType.Text);
+        MessageData data = event.getMessage().getData();
+        int commandStart = getCommandStart(data);
+        if (commandStart < 0) return Mono.empty();
+
+        long lookupStart = metrics.start();
+        TextCommandTokens tokens = TextCommandTokenizer.tokenize(data.content(), commandStart);
+        TextCommandTrie.Match<CommandData.Entry> match = textCommands.find(tokens);
+        if (match == null) {
+            metrics.record(TEXT, Stage.LOOKUP, Mad4jMetrics.UNKNOWN_COMMAND, Outcome.MISS, lookupStart);
+            metrics.routingMiss(TEXT);
+            return Mono.empty();
         }
-        if (command == null) return Mono.empty();
+        CommandData.Entry command = match.value();
+        metrics.record(TEXT, Stage.LOOKUP, command.getName(), Outcome.SUCCESS, lookupStart);
 
-//        List<Object> commandParams = parts
-//                .subList(commandCutoff, parts.size())
-//                .stream()
-//                .map(s -> parseParam(s, event))
-//                .toList();
+        long requirementsStart = metrics.start();
+        if (isRateLimited(data, command)) {
+            metrics.record(TEXT, Stage.REQUIREMENTS, command.getName(), Outcome.REJECTED, requirementsStart);
+            metrics.requirementRejected(TEXT, command.getName());
+            return Mono.empty();
+        }
+        metrics.record(TEXT, Stage.REQUIREMENTS, command.getName(), Outcome.SUCCESS, requirementsStart);
+
+        long bindingStart = metrics.start();
+        Object[] methodParams = getOrderedMethodParams(event, tokens, match.length(), command.getTextBinders());
+        if (PendingArgument.anyPending(methodParams)) {
+            return metrics.time(TEXT, Stage.BINDING, command.getName(), PendingArgument.resolveAll(methodParams))
+                    .onErrorResume(e -> {
+                        // Like a failed invocation, this is not replied to.
+                        LOGGER.error("The arguments of " + command.getName() + " could not be resolved.", e);
+                        return Mono.empty();
+                    })
+                    .flatMap(args -> executionPolicies.execute(command.getExecution(), () -> invokeCommandMethod(command, args)));
+        }
+        metrics.record(TEXT, Stage.BINDING, command.getName(), Outcome.SUCCESS, bindingStart);
+        return executionPolicies.execute(command.getExecution(), () -> invokeCommandMethod(command, methodParams));
+    }
 
-        List<Object> methodParams = getOrderedMethodParams(event, parts, command.getMethod());
+    /**
+     * <p>Checks whether a message can be a text command, before doing any other work with it.
+     * Messages of bots and webhooks, messages in channels where text commands are disabled and
+     * messages that do not start with the prefix of their guild are dropped.</p>
+     *
+     * <p>This runs for every message the bot can see, so it only reads the raw data of the
+     * message and does not allocate.</p>
+     *
+     * @param data The data of the message.
+     * @return The offset in the content of the message after the prefix, or -1 if the message
+     * is not a text command.
+     */
+    private int getCommandStart(MessageData data) {
+        if (!data.webhookId().isAbsent()) return -1;
+        Possible<Boolean> bot = data.author().bot();
+        if (!bot.isAbsent() && bot.get()) return -1;
+        if (textCommandSettings.isDisabled(data.channelId().asLong())) return -1;
+        long guildId = data.guildId().isAbsent() ? 0 : data.guildId().get().asLong();
+        String prefix = textCommandSettings.getPrefix(guildId);
+        return data.content().startsWith(prefix) ? prefix.length() : -1;
+    }
+
+    /**
+     * Uses the {@link RateLimitRule}s of a text command once. Text commands over their limit
+     * are ignored, so that spamming a command does not make the bot spam replies.
+     *
+     * @param data The data of the message.
+     * @param command The text command.
+     * @return True if a limit of the command has been reached, false otherwise.
+     */
+    private boolean isRateLimited(MessageData data, CommandData.Entry command) {
+        RateLimitRule[] rateLimits = command.getRateLimits();
+        if (rateLimits.length == 0) return false;
+        long guildId = data.guildId().isAbsent() ? 0 : data.guildId().get().asLong();
+        return RateLimiter.acquire(rateLimits, data.author().id().asLong(), guildId, data.channelId().asLong()).hasFailed();
+    }
+
+    /**
+     * Invokes the method of a text command with all of its arguments ready.
+     *
+     * @param command The data about the command.
+     * @param methodParams The arguments of the method.
+     * @return The mono returned by the method, or an empty mono otherwise.
+     */
+    private Mono<Void> invokeCommandMethod(CommandData.Entry command, Object[] methodParams) {
+        long executionStart = metrics.start();
         try {
-            command.getMethod().invoke(command.getBean(), methodParams);
+            Object result = command.getInvoker().invoke(methodParams);
+            metrics.record(TEXT, Stage.EXECUTION, command.getName(), Outcome.SUCCESS, executionStart);
+            if (result instanceof Mono<?> mono) return metrics.time(TEXT, Stage.RESPONSE, command.getName(), mono.then());
         } catch (IllegalAccessException | InvocationTargetException e) {
             //throw new RuntimeException(e);
+            metrics.record(TEXT, Stage.EXECUTION, command.getName(), Outcome.ERROR, executionStart);
             return Mono.empty();
         }
 
@@ -87,85 +195,37 @@ public class MessageListener implements ApplicationRunner {
     }
 
     /**
-     * Splits a command message into separate parts separated by spaces. Parts surrounded
-     * by quotation marks are counted as a single string.
+     * Splits a command message into separate parts separated by whitespace. Parts surrounded
+     * by quotation marks are counted as a single string. See {@link TextCommandTokenizer} for
+     * how characters are escaped.
      *
      * @param rawContent The message received by the bot, with the command prefix excluded
-     * @return List of parts from the emssage.
+     * @return List of parts from the message.
      */
     public List<String> splitMessage(String rawContent) {
-        String[] parts = rawContent.split(" ");
-        List<String> ret = new ArrayList<>();
-        for (int i = 0; i < parts.length; i++) {
-            if (parts[i].isBlank()) continue;
-            if (parts[i].startsWith("\"")) {
-                List<String> segments = new ArrayList<>();
-                while (i < parts.length) {
-                    segments.add(parts[i]);
-                    if (parts[i].endsWith("\"") && !parts[i].endsWith("\\\"")) break;
-                    i++;
-                }
-                String part = String.join(" ", segments);
-                System.out.println(part);
-                if (part.endsWith("\"") && !part.endsWith("\\\"")) part = part.substring(1, part.length() - 1);
-                ret.add(part);
-            }
-            else {
-                ret.add(parts[i]);
-            }
+        TextCommandTokens tokens = TextCommandTokenizer.tokenize(rawContent, 0);
+        List<String> ret = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            ret.add(tokens.get(i));
         }
-
         return ret;
     }
 
     /**
-     * Parses a parameter from how it was input as a String into a java object
-     * @param s
-     * @return
-     */
-    private Object parseParam(String s, MessageCreateEvent event) {
-        Optional<Long> l; try {l = Optional.of(Long.parseLong(s));} catch (NumberFormatException e) {l = Optional.empty();}
-        if (l.isPresent()) return l.get();
-        Optional<Double> d; try {d = Optional.of(Double.parseDouble(s));} catch (NumberFormatException e) {d = Optional.empty();}
-        if (d.isPresent()) return d.get();
-        // TODO: Fix this, manual check
-        Optional<Boolean> b = Optional.empty();
-        if (s.equalsIgnoreCase("true")) b = Optional.of(true);
-        if (s.equalsIgnoreCase("false")) b = Optional.of(false);
-        if (b.isPresent()) return b.get();
-
-        if (s.endsWith(">") && s.length() > 3) {
-            // TODO: Verify that it is used in a guild
-            if (s.startsWith("<@&")) {
-                if (event.getGuildId().isPresent()) {
-                    return client.getRoleById(event.getGuildId().get(), Snowflake.of(Id.of(s.substring(3, s.length() - 1)))).block();
-                }
-            }
-            else if (s.startsWith("<@")) return client.getUserById(Snowflake.of(Id.of(s.substring(2, s.length() - 1)))).block();
-            else if (s.startsWith("<#")) return client.getChannelById(Snowflake.of(Id.of(s.substring(2, s.length() - 1)))).block();
-        }
-
-        return s;
-    }
-
-    /**
-     * Creates the parameters
-     * @param event
-     * @param commandParams
-     * @return
+     * Creates the arguments to invoke the method of a text command with, using the binders
+     * compiled for it when the command was loaded.
+     *
+     * @param event The message event of the command.
+     * @param tokens The tokens of the message.
+     * @param firstParam The index of the first token after the command name.
+     * @param binders The binders of the parameters of the command method.
+     * @return The arguments of the method. Some of them can be {@link PendingArgument}s.
      */
-    private List<Object> getOrderedMethodParams(MessageCreateEvent event, List<String> commandParams, Method method) {
-        int realParamCount = (int)Arrays.stream(method.getParameters()).filter(x -> x.isAnnotationPresent(CommandParam.class)).count();
-        int curRealParam = 0;
-        List<Object> paramsRet = new ArrayList<>();
-        for (Parameter param : method.getParameters()) {
-            if (param.isAnnotationPresent(CommandParam.class)) {
-                curRealParam++;
-            } else if (param.isAnnotationPresent(EventUser.class)) {
-                paramsRet.add(client.getUserById(Snowflake.of(event.getMessage().getUserData().id())).block());
-            } else if (param.isAnnotationPresent(EventUserId.class)) {
-                paramsRet.add(event.getMessage().getUserData().id().asLong());
-            }
+    private Object[] getOrderedMethodParams(MessageCreateEvent event, TextCommandTokens tokens, int firstParam,
+                                            TextCommandParamBinder[] binders) {
+        Object[] paramsRet = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            paramsRet[i] = binders[i].bind(event, tokens, firstParam);
         }
         return paramsRet;
     }
@@ -1,31 +1,33 @@
 package io.github.stelitop.mad4j.listeners;
 
-import discord4j.core.GatewayDiscordClient;
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
 import discord4j.core.object.command.ApplicationCommandInteractionOption;
-import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import io.github.stelitop.mad4j.DiscordEventsComponent;
 import io.github.stelitop.mad4j.commands.*;
+import io.github.stelitop.mad4j.commands.binding.SlashCommandParamBinder;
 import io.github.stelitop.mad4j.events.AllowedEventResultHandler;
+import io.github.stelitop.mad4j.execution.EventDispatcher;
+import io.github.stelitop.mad4j.execution.ExecutionPolicies;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Outcome;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Stage;
 import io.github.stelitop.mad4j.utils.ActionResult;
 import io.github.stelitop.mad4j.utils.OptionType;
-import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
-import io.github.stelitop.mad4j.commands.convenience.EventUser;
-import io.github.stelitop.mad4j.commands.convenience.EventUserId;
+import io.github.stelitop.mad4j.utils.PendingArgument;
 import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementVerifier;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Parameter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * <p>Listener for all slash command events, specifically all {@link ChatInputInteractionEvent}
@@ -43,30 +45,38 @@ import java.util.stream.Collectors;
 @Component
 public class SlashCommandListener implements ApplicationRunner {
 
+    private static final Mad4jMetrics.Listener SLASH = Mad4jMetrics.Listener.SLASH;
+
+    /**
+     * The reply to slash commands whose method could not be invoked.
+     */
+    private static final String INVOCATION_ERROR_REPLY = "An error occurred invoking this slash command!";
+
     private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
     // dependencies
-    private final ApplicationContext applicationContext;
-    private final GatewayDiscordClient client;
     private final CommandData commandData;
     private final AllowedEventResultHandler allowedEventResultHandler;
-
-    private final Map<Class<? extends CommandRequirementExecutor>, CommandRequirementExecutor> possibleRequirements;
+    private final CommandRequirementVerifier commandRequirementVerifier;
+    private final ExecutionPolicies executionPolicies;
+    private final EventDispatcher eventDispatcher;
+    private final Mad4jMetrics metrics;
 
     @Autowired
     public SlashCommandListener(
-            ApplicationContext applicationContext,
-            GatewayDiscordClient client,
             CommandData commandData,
             AllowedEventResultHandler allowedEventResultHandler,
-            List<CommandRequirementExecutor> possibleRequirements
+            CommandRequirementVerifier commandRequirementVerifier,
+            ExecutionPolicies executionPolicies,
+            EventDispatcher eventDispatcher,
+            Mad4jMetrics metrics
     ) {
-        this.applicationContext = applicationContext;
-        this.client = client;
         this.commandData = commandData;
         this.allowedEventResultHandler = allowedEventResultHandler;
-        this.possibleRequirements = possibleRequirements.stream()
-                .collect(Collectors.toMap(CommandRequirementExecutor::getClass, x -> x));
+        this.commandRequirementVerifier = commandRequirementVerifier;
+        this.executionPolicies = executionPolicies;
+        this.eventDispatcher = eventDispatcher;
+        this.metrics = metrics;
     }
 
     /**
@@ -78,11 +88,7 @@ public class SlashCommandListener implements ApplicationRunner {
      */
     @Override
     public void run(ApplicationArguments args) {
-
-        Collection<Object> commandBeans = applicationContext
-                .getBeansWithAnnotation(DiscordEventsComponent.class)
-                .values();
-        client.on(ChatInputInteractionEvent.class, this::handle).subscribe();
+        eventDispatcher.on(ChatInputInteractionEvent.class, this::handle);
     }
 
     /**
@@ -97,6 +103,7 @@ public class SlashCommandListener implements ApplicationRunner {
      * @return The mono emitted from the event.
      */
     public Mono<Void> handle(ChatInputInteractionEvent event) {
+        long lookupStart = metrics.start();
         StringBuilder commandNameBuilder = new StringBuilder(event.getCommandName().toLowerCase());
         List<ApplicationCommandInteractionOption> options = event.getOptions();
         while (options.size() == 1
@@ -108,44 +115,140 @@ public class SlashCommandListener implements ApplicationRunner {
         }
         String commandName = commandNameBuilder.toString();
 
-        Map<String, ApplicationCommandInteractionOption> optionsMap = options.stream()
-                .collect(Collectors.toMap(x -> x.getName().toLowerCase(), x -> x));
-
         CommandData.Entry command = commandData.get(commandName, CommandType.Slash);
 
         if (command == null) {
+            metrics.record(SLASH, Stage.LOOKUP, Mad4jMetrics.UNKNOWN_COMMAND, Outcome.MISS, lookupStart);
+            metrics.routingMiss(SLASH);
             return event.reply("Could not resolve command '" + commandName + "'.")
                     .withEphemeral(true);
         }
-        return invokeSlashCommand(event, optionsMap, command);
+        metrics.record(SLASH, Stage.LOOKUP, command.getName(), Outcome.SUCCESS, lookupStart);
+        return invokeSlashCommand(event, options, command);
     }
 
     private Mono<Void> invokeSlashCommand(
             ChatInputInteractionEvent event,
-            Map<String, ApplicationCommandInteractionOption> options,
+            List<ApplicationCommandInteractionOption> options,
             CommandData.Entry command
     ) {
+        CommandRequirementExecutor[] requirements = command.getRequirements();
+        long requirementsStart = metrics.start();
+        if (!commandRequirementVerifier.isSynchronous(requirements)) {
+            return commandRequirementVerifier.verifyAsync(event, requirements)
+                    .map(conditionsResult -> acquireRateLimits(event, command, conditionsResult))
+                    .flatMap(conditionsResult -> recordRequirements(command, conditionsResult, requirementsStart)
+                            ? event.reply(conditionsResult.errorMessage()).withEphemeral(true)
+                            : bindAndInvokeCommandMethod(event, options, command));
+        }
 
-        ActionResult<Void> conditionsResult = verifyCommandRequirements(event, command);
-        if (conditionsResult.hasFailed()) {
+        ActionResult<Void> conditionsResult = acquireRateLimits(event, command,
+                commandRequirementVerifier.verify(event, requirements));
+        if (recordRequirements(command, conditionsResult, requirementsStart)) {
             return event.reply(conditionsResult.errorMessage())
                     .withEphemeral(true);
         }
+        return bindAndInvokeCommandMethod(event, options, command);
+    }
 
-        Parameter[] parameters = command.getMethod().getParameters();
-        List<Object> invocationParams = Arrays.stream(parameters)
-                .map(p -> mapCommandParamToMethodParam(event, options, p))
-                .toList();
+    /**
+     * Uses the rate limits of a command, once all of its other requirements are fulfilled.
+     * Commands that do not run are not counted against the limits.
+     *
+     * @param event The slash command event.
+     * @param command The data about the command.
+     * @param conditionsResult The result of verifying the other requirements.
+     * @return The failure of the other requirements, or the result of the rate limits.
+     */
+    private ActionResult<Void> acquireRateLimits(
+            ChatInputInteractionEvent event,
+            CommandData.Entry command,
+            ActionResult<Void> conditionsResult
+    ) {
+        if (conditionsResult.hasFailed()) return conditionsResult;
+        return RateLimiter.acquire(command.getRateLimits(), event.getInteraction());
+    }
+
+    /**
+     * Records the verification of the requirements of a command.
+     *
+     * @param command The data about the command.
+     * @param conditionsResult The result of the verification.
+     * @param start The time the verification started, from {@link Mad4jMetrics#start()}.
+     * @return True if the requirements were not fulfilled, false otherwise.
+     */
+    private boolean recordRequirements(CommandData.Entry command, ActionResult<Void> conditionsResult, long start) {
+        if (conditionsResult.hasFailed()) {
+            metrics.record(SLASH, Stage.REQUIREMENTS, command.getName(), Outcome.REJECTED, start);
+            metrics.requirementRejected(SLASH, command.getName());
+            return true;
+        }
+        metrics.record(SLASH, Stage.REQUIREMENTS, command.getName(), Outcome.SUCCESS, start);
+        return false;
+    }
 
+    /**
+     * Binds the arguments of a slash command method and invokes it once all of them
+     * are ready, according to the execution policy of the command.
+     *
+     * @param event The slash command event.
+     * @param options The options of the command.
+     * @param command The data about the command.
+     * @return The response to the event.
+     */
+    private Mono<Void> bindAndInvokeCommandMethod(
+            ChatInputInteractionEvent event,
+            List<ApplicationCommandInteractionOption> options,
+            CommandData.Entry command
+    ) {
+        SlashCommandParamBinder[] binders = command.getSlashBinders();
+        long bindingStart = metrics.start();
+        Object[] invocationParams = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            invocationParams[i] = binders[i].bind(event, options);
+        }
 
+        if (PendingArgument.anyPending(invocationParams)) {
+            return metrics.time(SLASH, Stage.BINDING, command.getName(), PendingArgument.resolveAll(invocationParams))
+                    .onErrorResume(e -> {
+                        LOGGER.error("The arguments of " + command.getName() + " could not be resolved.", e);
+                        return event.reply(INVOCATION_ERROR_REPLY)
+                                .withEphemeral(true)
+                                .then(Mono.empty());
+                    })
+                    .flatMap(args -> executionPolicies.execute(command.getExecution(),
+                            () -> invokeCommandMethod(event, command, args)));
+        }
+        metrics.record(SLASH, Stage.BINDING, command.getName(), Outcome.SUCCESS, bindingStart);
+        return executionPolicies.execute(command.getExecution(),
+                () -> invokeCommandMethod(event, command, invocationParams));
+    }
+
+    /**
+     * Invokes the method of a slash command with all of its arguments ready and transforms
+     * its result into the response to the event.
+     *
+     * @param event The slash command event.
+     * @param command The data about the command.
+     * @param invocationParams The arguments of the method.
+     * @return The response to the event.
+     */
+    private Mono<Void> invokeCommandMethod(
+            ChatInputInteractionEvent event,
+            CommandData.Entry command,
+            Object[] invocationParams
+    ) {
+        long executionStart = metrics.start();
         try {
-            Object result = command.getMethod().invoke(command.getBean(), invocationParams.toArray());
+            Object result = command.getInvoker().invoke(invocationParams);
             var eventResponse = allowedEventResultHandler.handleEventResult(result, event);
             if (eventResponse.isSuccessful()) {
-                return eventResponse.getResponse();
+                metrics.record(SLASH, Stage.EXECUTION, command.getName(), Outcome.SUCCESS, executionStart);
+                return metrics.time(SLASH, Stage.RESPONSE, command.getName(), eventResponse.getResponse());
             } else {
+                metrics.record(SLASH, Stage.EXECUTION, command.getName(), Outcome.ERROR, executionStart);
                 // TODO: Handle with an exception
-                return event.reply("An error occurred invoking this slash command!")
+                return event.reply(INVOCATION_ERROR_REPLY)
                         .withEphemeral(true);
             }
 //            if (result instanceof EventResponse er) {
@@ -157,118 +260,17 @@ public class SlashCommandListener implements ApplicationRunner {
 //            else throw new ClassCastException();
 
         } catch (IllegalAccessException | InvocationTargetException e) {
+            metrics.record(SLASH, Stage.EXECUTION, command.getName(), Outcome.ERROR, executionStart);
             LOGGER.error(command.getName() + " had a problem during invoking.");
             e.printStackTrace();
-            return event.reply("An error occurred invoking this slash command!")
+            return event.reply(INVOCATION_ERROR_REPLY)
                     .withEphemeral(true);
         } catch (ClassCastException e) {
+            metrics.record(SLASH, Stage.EXECUTION, command.getName(), Outcome.ERROR, executionStart);
             LOGGER.error(command.getName() + "'s result could not be cast to any acceptable type. Check method signature.");
             e.printStackTrace();
             return event.reply("Could not cast result of slash command.")
                     .withEphemeral(true);
         }
     }
-
-    /**
-     * <p>Maps data from the d4j API of a slash command to a method parameter of
-     * a mad4j command method. This primarily includes the parameters of the command, annotated
-     * with {@link CommandParam}, but also includes convenience injections, such as {@link EventUser}
-     * abd {@link InteractionEvent}.</p>
-     *
-     * @param event The d4j slash command event.
-     * @param options The
-     * @param param Reflection object of the parameter we want to inject in the method invokation
-     * @return The value of the command to inject into the parameter, or null if there was no
-     *     injectable annotation present or another error occurred.
-     */
-    private Object mapCommandParamToMethodParam(
-            ChatInputInteractionEvent event,
-            Map<String, ApplicationCommandInteractionOption> options,
-            Parameter param
-    ) {
-        // Convenience injectors.
-        // Inject the interaction event. Does not check if this is the correct event type
-        if (param.isAnnotationPresent(InteractionEvent.class)) return event;
-        // Inject the User object
-        if (param.isAnnotationPresent(EventUser.class)) return event.getInteraction().getUser();
-        // Inject the Discord ID of the user
-        if (param.isAnnotationPresent(EventUserId.class)) return event.getInteraction().getUser().getId().asLong();
-
-        // Finally, check for actual command parameters.
-        if (!param.isAnnotationPresent(CommandParam.class)) return null;
-        CommandParam annotation = param.getAnnotation(CommandParam.class);
-        if (!options.containsKey(annotation.name().toLowerCase())) {
-            if (!param.isAnnotationPresent(DefaultValue.class)) return null;
-            DefaultValue dv = param.getAnnotation(DefaultValue.class);
-
-            Class<?> paramClass = param.getType();
-            if (paramClass.equals(double.class)) return dv.number();
-            else if (paramClass.equals(int.class)) return (int)dv.number();
-            else if (paramClass.equals(long.class)) return (long)dv.number();
-            else if (paramClass.equals(String.class)) return dv.string();
-            else if (paramClass.equals(boolean.class)) return dv.bool();
-            else return null;
-        }
-        ApplicationCommandInteractionOption option = options.get(annotation.name().toLowerCase());
-        return getValueFromOption(option, param);
-    }
-
-    /**
-     * Extracts the value from a d4j slash command option. If there is no value, but there is a
-     * default value given, then that is returned.
-     *
-     * @param option The dj4 slash command interactino option.
-     * @param param The reflection parameter corresponding to the mad4j command method.
-     * @return The value to inject into the parameter.
-     */
-    private Object getValueFromOption(ApplicationCommandInteractionOption option, Parameter param) {
-        if (option.getValue().isEmpty()) {
-            if (param.isAnnotationPresent(DefaultValue.class)) {
-                DefaultValue dv = param.getAnnotation(DefaultValue.class);
-                return switch (option.getType()) {
-                    case NUMBER -> dv.number();
-                    case INTEGER -> (long)(dv.number());
-                    case STRING -> dv.string();
-                    case BOOLEAN -> dv.bool();
-                    default -> null;
-                };
-            }
-            return null;
-        }
-        ApplicationCommandInteractionOptionValue value = option.getValue().get();
-        return switch (option.getType()) {
-            case BOOLEAN -> value.asBoolean();
-            case INTEGER -> value.asLong();
-            case STRING -> value.asString();
-            case NUMBER -> value.asDouble();
-            case CHANNEL -> value.asChannel().block();
-            case USER -> value.asUser().block();
-            case ROLE -> value.asRole().block();
-            default -> null;
-        };
-    }
-
-    /**
-     * Checks that all attached command requirements have been fulfilled. If any of them are not,
-     * the first that fails returns their error message.
-     *
-     * @param event The even that triggered the slash command.
-     * @param command The data about the command.
-     * @return An action result that succeeds if the condition is fulfilled or fails with an error
-     *     message otherwise.
-     */
-    private ActionResult<Void> verifyCommandRequirements(ChatInputInteractionEvent event, CommandData.Entry command) {
-        List<CommandRequirement> requirementAnnotations = Arrays.stream(command.getMethod().getAnnotations())
-                .map(a -> a.annotationType().getAnnotation(CommandRequirement.class))
-                .filter(Objects::nonNull)
-                .toList();
-
-        for (var annotation : requirementAnnotations) {
-            CommandRequirementExecutor conditionBean = possibleRequirements.get(annotation.implementation());
-            if (conditionBean == null) continue;
-            ActionResult<Void> result = conditionBean.verify(event);
-            if (result.hasFailed()) return result;
-        }
-        return ActionResult.success();
-    }
 }
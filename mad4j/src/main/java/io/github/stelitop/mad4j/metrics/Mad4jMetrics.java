@@ -0,0 +1,235 @@
+package io.github.stelitop.mad4j.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>Micrometer metrics of the listeners of mad4j. Metrics are disabled by default, and are
+ * enabled with the property "mad4j.metrics.enabled". They are registered in the
+ * {@link MeterRegistry} bean, or in the global registry if there is none. While disabled,
+ * nothing is measured and no meters are created.</p>
+ *
+ * <p>The time spent in every {@link Stage} of handling an event is recorded by the timer
+ * "mad4j.dispatch", with a percentile histogram, tagged by the listener, the stage, the
+ * command and the {@link Outcome}. Events that match no command are counted by
+ * "mad4j.routing.misses", custom ids matched by more than one component interaction by
+ * "mad4j.routing.ambiguous", and commands stopped by a requirement by
+ * "mad4j.requirements.rejected". Components of mad4j can also register gauges of their own
+ * state with {@link #gauge(String, Supplier, String...)}.</p>
+ */
+@Component
+public class Mad4jMetrics {
+
+    /**
+     * The command tag of events that match no command.
+     */
+    public static final String UNKNOWN_COMMAND = "unknown";
+
+    /**
+     * The listeners whose events are measured.
+     */
+    public enum Listener {
+        SLASH, COMPONENT, AUTOCOMPLETE, TEXT;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The stages of handling an event.
+     */
+    public enum Stage {
+        /**
+         * Finding the command of the event.
+         */
+        LOOKUP,
+        /**
+         * Verifying the requirements of the command.
+         */
+        REQUIREMENTS,
+        /**
+         * Creating the arguments of the command method.
+         */
+        BINDING,
+        /**
+         * Invoking the command method.
+         */
+        EXECUTION,
+        /**
+         * Sending the response of the command.
+         */
+        RESPONSE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The outcomes of a stage.
+     */
+    public enum Outcome {
+        SUCCESS, ERROR, REJECTED, MISS;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final int TIMERS_PER_COMMAND = Stage.values().length * Outcome.values().length;
+
+    private final @Nullable MeterRegistry registry;
+    private final Map<Listener, Map<String, Timer[]>> timers = new ConcurrentHashMap<>();
+    private final Map<Listener, Counter> routingMisses = new ConcurrentHashMap<>();
+    private final Map<Listener, Counter> ambiguousRoutes = new ConcurrentHashMap<>();
+    private final Map<Listener, Map<String, Counter>> rejections = new ConcurrentHashMap<>();
+
+    @Autowired
+    public Mad4jMetrics(Environment environment, ObjectProvider<MeterRegistry> meterRegistries) {
+        boolean enabled = Boolean.parseBoolean(environment.getProperty("mad4j.metrics.enabled"));
+        this.registry = enabled ? meterRegistries.getIfAvailable(() -> Metrics.globalRegistry) : null;
+    }
+
+    /**
+     * Creates metrics that are recorded in a specific registry.
+     *
+     * @param registry The registry, or null to disable the metrics.
+     */
+    public Mad4jMetrics(@Nullable MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Checks whether metrics are recorded.
+     *
+     * @return True if metrics are enabled, false otherwise.
+     */
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    /**
+     * Starts measuring a stage.
+     *
+     * @return The start time to pass to {@link #record}, or 0 if metrics are disabled.
+     */
+    public long start() {
+        return registry == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records the time of a stage, from a time given by {@link #start()} until now.
+     *
+     * @param listener The listener.
+     * @param stage The stage.
+     * @param command The name of the command.
+     * @param outcome The outcome of the stage.
+     * @param start The start time of the stage.
+     */
+    public void record(Listener listener, Stage stage, String command, Outcome outcome, long start) {
+        if (registry == null) return;
+        getTimer(listener, stage, command, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time of a stage that completes when a mono does, from when the mono is
+     * subscribed to. The stage fails if the mono fails.
+     *
+     * @param listener The listener.
+     * @param stage The stage.
+     * @param command The name of the command.
+     * @param mono The mono of the stage.
+     * @return The mono, which records the time when it completes. If metrics are disabled,
+     *     the same mono.
+     * @param <T> The type of the value of the mono.
+     */
+    public <T> Mono<T> time(Listener listener, Stage stage, String command, Mono<T> mono) {
+        if (registry == null) return mono;
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono
+                    .doOnSuccess(x -> record(listener, stage, command, Outcome.SUCCESS, start))
+                    .doOnError(e -> record(listener, stage, command, Outcome.ERROR, start));
+        });
+    }
+
+    /**
+     * Counts an event that matched no command.
+     *
+     * @param listener The listener of the event.
+     */
+    public void routingMiss(Listener listener) {
+        if (registry == null) return;
+        routingMisses.computeIfAbsent(listener, x -> Counter.builder("mad4j.routing.misses")
+                .tag("listener", x.tag)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Counts an event whose id matched more than one command.
+     *
+     * @param listener The listener of the event.
+     */
+    public void ambiguousRoute(Listener listener) {
+        if (registry == null) return;
+        ambiguousRoutes.computeIfAbsent(listener, x -> Counter.builder("mad4j.routing.ambiguous")
+                .tag("listener", x.tag)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Counts a command that was stopped by one of its requirements.
+     *
+     * @param listener The listener of the event.
+     * @param command The name of the command.
+     */
+    public void requirementRejected(Listener listener, String command) {
+        if (registry == null) return;
+        rejections.computeIfAbsent(listener, x -> new ConcurrentHashMap<>())
+                .computeIfAbsent(command, x -> Counter.builder("mad4j.requirements.rejected")
+                        .tag("listener", listener.tag)
+                        .tag("command", command)
+                        .register(registry)).increment();
+    }
+
+    /**
+     * Registers a gauge, whose value is read whenever the metrics are published.
+     *
+     * @param name The name of the gauge.
+     * @param value Reads the value of the gauge.
+     * @param tags The tags of the gauge, as pairs of keys and values.
+     */
+    public void gauge(String name, Supplier<Number> value, String... tags) {
+        if (registry == null) return;
+        Gauge.builder(name, value).tags(tags).register(registry);
+    }
+
+    private Timer getTimer(Listener listener, Stage stage, String command, Outcome outcome) {
+        Timer[] commandTimers = timers.computeIfAbsent(listener, x -> new ConcurrentHashMap<>())
+                .computeIfAbsent(command, x -> new Timer[TIMERS_PER_COMMAND]);
+        int index = stage.ordinal() * Outcome.values().length + outcome.ordinal();
+        Timer timer = commandTimers[index];
+        if (timer == null) {
+            // Registering the same timer twice returns the existing one, so racing here is harmless.
+            timer = Timer.builder("mad4j.dispatch")
+                    .tag("listener", listener.tag)
+                    .tag("stage", stage.tag)
+                    .tag("command", command)
+                    .tag("outcome", outcome.tag)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            commandTimers[index] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.stelitop.mad4j.utils;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.object.command.Interaction;
+
+/**
+ * Who a cached value is shared between.
+ */
+public enum CacheScope {
+    /**
+     * The value is shared by everyone.
+     */
+    GLOBAL,
+    /**
+     * The value is shared by everyone in the same guild. Direct messages share one value.
+     */
+    GUILD,
+    /**
+     * Every user has their own value.
+     */
+    USER;
+
+    /**
+     * Gets the id that values of an interaction are cached under in this scope.
+     *
+     * @param interaction The interaction.
+     * @return The id of the guild or the user, or 0 if the value is shared by everyone.
+     */
+    public long getId(Interaction interaction) {
+        return switch (this) {
+            case GLOBAL -> 0;
+            case GUILD -> interaction.getGuildId().map(Snowflake::asLong).orElse(0L);
+            case USER -> interaction.getUser().getId().asLong();
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.stelitop.mad4j.utils;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * <p>The template of the invoker classes created by {@link ConstantHandleInvokers}.</p>
+ *
+ * <p>This class is never loaded as it is. Its bytes are defined again as a hidden class for
+ * every method handle, which reads the handle from its class data into a constant.</p>
+ */
+final class ConstantHandleInvoker implements MethodInvoker {
+
+    private static final MethodHandle HANDLE = loadHandle();
+
+    private static MethodHandle loadHandle() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Object invoke(Object... args) throws IllegalAccessException, InvocationTargetException {
+        try {
+            return (Object) HANDLE.invokeExact(args);
+        } catch (IllegalAccessException | InvocationTargetException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
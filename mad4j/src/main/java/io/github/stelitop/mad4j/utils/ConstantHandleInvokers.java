@@ -0,0 +1,66 @@
+package io.github.stelitop.mad4j.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * <p>Creates a {@link MethodInvoker} class of its own for every method handle.</p>
+ *
+ * <p>A lambda capturing a method handle is the same class for every method, so the JIT sees
+ * one call site calling many different handles and cannot inline any of them. Instead, every
+ * handle gets a hidden class that holds the handle in a static final field, read from its
+ * class data, and calls it. The JIT then treats the handle as a constant and can inline the
+ * method behind it.</p>
+ *
+ * <p>The hidden classes are defined from the compiled bytes of {@link ConstantHandleInvoker},
+ * so no bytecode is generated at runtime.</p>
+ */
+final class ConstantHandleInvokers {
+
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private ConstantHandleInvokers() {
+
+    }
+
+    /**
+     * Holder of the bytes of the invoker class, so that they are only read when first needed.
+     */
+    private static final class Holder {
+        private static final byte[] INVOKER_CLASS = readInvokerClass();
+    }
+
+    private static byte[] readInvokerClass() {
+        String resource = ConstantHandleInvoker.class.getSimpleName() + ".class";
+        try (InputStream in = ConstantHandleInvokers.class.getResourceAsStream(resource)) {
+            if (in == null) throw new IllegalStateException("The invoker class " + resource + " could not be found!");
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("The invoker class " + resource + " could not be read!", e);
+        }
+    }
+
+    /**
+     * Creates an invoker that calls a method handle.
+     *
+     * @param handle The handle, whose type must be <code>(Object[])Object</code>.
+     * @return The invoker.
+     * @throws IllegalAccessException If the invoker class cannot be defined.
+     */
+    static MethodInvoker create(MethodHandle handle) throws IllegalAccessException {
+        if (!handle.type().equals(INVOKE_TYPE)) {
+            throw new IllegalArgumentException("The handle has the type " + handle.type() + " instead of (Object[])Object!");
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(Holder.INVOKER_CLASS, handle, true);
+        try {
+            return (MethodInvoker) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (IllegalAccessException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create the invoker of " + handle + ".", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.stelitop.mad4j.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A size-bounded cache whose entries expire after a fixed time to live. When the cache is
+ * full, the least recently used entry is evicted.</p>
+ *
+ * <p>The cache keeps counts of its hits, misses and evictions, which can be used to tune its
+ * size and time to live.</p>
+ *
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+
+    }
+
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize The maximum number of entries in the cache.
+     * @param ttl How long an entry stays in the cache after it's added.
+     */
+    public ExpiringLruCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) throw new IllegalArgumentException("The size of the cache must be positive!");
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets the value of a key, if it is in the cache and has not expired.
+     *
+     * @param key The key.
+     * @return The value, or null if there is no such value.
+     */
+    public @Nullable V get(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt < 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) entries.remove(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Adds a value to the cache, replacing the previous value of the key.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>(value, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Removes a key from the cache.
+     *
+     * @param key The key.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
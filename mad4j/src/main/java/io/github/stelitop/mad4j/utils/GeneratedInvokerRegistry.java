@@ -0,0 +1,73 @@
+package io.github.stelitop.mad4j.utils;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * <p>Looks up the {@link GeneratedInvokers} created by the mad4j annotation processor. The
+ * generated classes are loaded once, the first time an invoker is looked up. When the
+ * processor is not used, no invokers are found and the methods are invoked through
+ * method handles instead.</p>
+ */
+public final class GeneratedInvokerRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneratedInvokerRegistry.class);
+
+    private GeneratedInvokerRegistry() {
+
+    }
+
+    /**
+     * Holder of the generated invokers, so that they are only loaded when first needed.
+     */
+    private static final class Holder {
+        private static final Map<Class<?>, GeneratedInvokers> INVOKERS = load();
+    }
+
+    private static Map<Class<?>, GeneratedInvokers> load() {
+        Map<Class<?>, GeneratedInvokers> ret = new HashMap<>();
+        Iterator<GeneratedInvokers> iterator = ServiceLoader.load(GeneratedInvokers.class).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) break;
+                GeneratedInvokers invokers = iterator.next();
+                ret.put(invokers.getTargetClass(), invokers);
+            } catch (ServiceConfigurationError | LinkageError e) {
+                LOGGER.warn("Could not load generated method invokers. Falling back to method handles.", e);
+            }
+        }
+        if (!ret.isEmpty()) {
+            LOGGER.info("Loaded generated method invokers for " + ret.size() + " class(es).");
+        }
+        return Map.copyOf(ret);
+    }
+
+    /**
+     * Finds the generated invoker of a method of a bean. Since the bean might be a subclass
+     * created by Spring, the superclasses of the bean are searched as well.
+     *
+     * @param bean The bean the method is invoked on.
+     * @param method The method to invoke.
+     * @return The invoker, or null if none was generated for the method.
+     */
+    public static @Nullable MethodInvoker find(Object bean, Method method) {
+        Map<Class<?>, GeneratedInvokers> invokers = Holder.INVOKERS;
+        if (invokers.isEmpty()) return null;
+        String signature = GeneratedInvokers.signatureOf(method);
+        for (Class<?> c = bean.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            GeneratedInvokers classInvokers = invokers.get(c);
+            if (classInvokers == null) continue;
+            MethodInvoker invoker = classInvokers.create(bean, signature);
+            if (invoker != null) return invoker;
+        }
+        return null;
+    }
+}
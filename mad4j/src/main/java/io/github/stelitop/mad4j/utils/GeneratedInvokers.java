@@ -0,0 +1,47 @@
+package io.github.stelitop.mad4j.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Direct-call invokers of the event methods of a single class, generated at compile time
+ * by the mad4j annotation processor. Generated invokers call the methods directly instead of
+ * through reflection or method handles.</p>
+ *
+ * <p>Implementations are found through {@link java.util.ServiceLoader} by the
+ * {@link GeneratedInvokerRegistry}. This interface is not meant to be implemented by hand.</p>
+ */
+public interface GeneratedInvokers {
+
+    /**
+     * Gets the class whose methods are invoked.
+     *
+     * @return The class.
+     */
+    Class<?> getTargetClass();
+
+    /**
+     * Creates an invoker for a method of a bean of the target class.
+     *
+     * @param bean The bean the method is invoked on.
+     * @param signature The signature of the method, as created by {@link #signatureOf(Method)}.
+     * @return The invoker, or null if no invoker was generated for the method.
+     */
+    @Nullable MethodInvoker create(Object bean, String signature);
+
+    /**
+     * Gets the signature of a method, which is its name followed by the canonical names of
+     * the erased types of its parameters, for example <code>add(long,java.lang.String)</code>.
+     *
+     * @param method The method.
+     * @return The signature.
+     */
+    static String signatureOf(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(x -> x.getCanonicalName() != null ? x.getCanonicalName() : x.getName())
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.stelitop.mad4j.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>A hash map with primitive long keys, such as the ids of guilds or channels. Keys are not
+ * boxed and the entries are kept in open addressing arrays, so looking up a key, including
+ * one that is not in the map, does not allocate anything.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @param <V> The type of the values.
+ */
+public final class LongObjectMap<V> {
+
+    private long[] keys;
+    private V[] values;
+    private int size;
+
+    public LongObjectMap() {
+        this(8);
+    }
+
+    /**
+     * Creates a map with enough space for some entries.
+     *
+     * @param expectedSize The amount of entries the map will hold without resizing.
+     */
+    @SuppressWarnings("unchecked")
+    public LongObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not in the map.
+     */
+    public @Nullable V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key The key.
+     * @param value The value. Cannot be null.
+     * @return The previous value, or null if the key was not in the map.
+     */
+    public @Nullable V put(long key, V value) {
+        if (value == null) throw new NullPointerException("The value cannot be null!");
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) resize();
+        return null;
+    }
+
+    /**
+     * Removes a key from the map.
+     *
+     * @param key The key.
+     * @return The value of the key, or null if the key was not in the map.
+     */
+    public @Nullable V remove(long key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null && keys[i] != key) i = (i + 1) & mask;
+        V previous = values[i];
+        if (previous == null) return null;
+
+        // Shift the following entries back, so that no lookup stops at the emptied slot.
+        int empty = i;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            boolean reachable = empty <= j ? (home > empty && home <= j) : (home > empty || home <= j);
+            if (!reachable) {
+                keys[empty] = keys[j];
+                values[empty] = values[j];
+                empty = j;
+            }
+        }
+        keys[empty] = 0;
+        values[empty] = null;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Gets the amount of entries in the map.
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Performs an action for every entry of the map. The map cannot be changed by the action.
+     *
+     * @param action The action.
+     */
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) action.accept(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * An action performed on the entries of a {@link LongObjectMap}.
+     *
+     * @param <V> The type of the values.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = (V[]) new Object[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j], mask);
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] == null) continue;
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(keys[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.stelitop.mad4j.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NativeDetector;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * <p>Invokes a specific method of a specific bean. Invokers are created once when the
+ * application starts, so that invoking the method of a command or an interaction does
+ * not need to go through {@link Method#invoke(Object, Object...)} every time.</p>
+ *
+ * <p>If the mad4j annotation processor generated a direct-call invoker for the method, that
+ * invoker is used. Otherwise, the default implementation uses a {@link MethodHandle} that is
+ * bound to the bean and adapted to take the arguments as an array, held as a constant by a
+ * class defined for the method. If that class cannot be defined, the handle is called from a
+ * lambda instead, and if the handle cannot be created, the invoker falls back to regular
+ * reflection.</p>
+ *
+ * <p>Native images cannot define classes at runtime, so there, methods without a generated
+ * invoker are always invoked through reflection.</p>
+ */
+@FunctionalInterface
+public interface MethodInvoker {
+
+    /**
+     * Invokes the method with the given arguments.
+     *
+     * @param args The arguments of the method, in order.
+     * @return The value returned by the method, or null if the method is void.
+     * @throws IllegalAccessException If the method cannot be accessed.
+     * @throws InvocationTargetException If the method itself threw an exception.
+     */
+    Object invoke(Object... args) throws IllegalAccessException, InvocationTargetException;
+
+    /**
+     * Creates an invoker for a method of a bean.
+     *
+     * @param bean The bean the method is invoked on.
+     * @param method The method to invoke.
+     * @return The invoker.
+     */
+    static MethodInvoker of(Object bean, Method method) {
+        MethodInvoker generated = GeneratedInvokerRegistry.find(bean, method);
+        if (generated != null) return generated;
+        if (NativeDetector.inNativeImage()) {
+            Logger logger = LoggerFactory.getLogger(MethodInvoker.class);
+            logger.warn("No generated invoker was found for \"" + method + "\". Falling back to reflection in the native image.");
+            return reflectiveInvoker(bean, method);
+        }
+        try {
+            return methodHandleInvoker(bean, method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            Logger logger = LoggerFactory.getLogger(MethodInvoker.class);
+            logger.warn("Could not create a method handle for \"" + method + "\". Falling back to reflection.", e);
+            return reflectiveInvoker(bean, method);
+        }
+    }
+
+    /**
+     * Creates an invoker that calls the method through reflection.
+     *
+     * @param bean The bean the method is invoked on.
+     * @param method The method to invoke.
+     * @return The invoker.
+     */
+    static MethodInvoker reflectiveInvoker(Object bean, Method method) {
+        return args -> method.invoke(bean, args);
+    }
+
+    /**
+     * <p>Creates an invoker that calls the method through a {@link MethodHandle}. The handle is bound
+     * to the bean and its type is erased to <code>(Object[])Object</code>, so it can be called
+     * with {@link MethodHandle#invokeExact(Object...)}. Every invoker is a class of its own that
+     * holds the handle as a constant, so the JIT can inline the method. If the class cannot be
+     * defined, the handle is called from a lambda, which the JIT does not inline.</p>
+     *
+     * <p>Only the exceptions thrown by the method are wrapped in an
+     * {@link InvocationTargetException}. Arguments of the wrong type or count and errors are
+     * thrown as they are.</p>
+     *
+     * @param bean The bean the method is invoked on.
+     * @param method The method to invoke.
+     * @return The invoker.
+     * @throws IllegalAccessException If a method handle cannot be created for the method.
+     */
+    static MethodInvoker methodHandleInvoker(Object bean, Method method) throws IllegalAccessException {
+        method.trySetAccessible();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle target = lookup.unreflect(method).bindTo(bean);
+
+        // Only the exceptions of the method itself are caught, before the arguments are adapted.
+        MethodHandle wrapException;
+        try {
+            wrapException = lookup.findConstructor(InvocationTargetException.class, MethodType.methodType(void.class, Throwable.class))
+                    .asType(MethodType.methodType(InvocationTargetException.class, Exception.class));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        MethodHandle handler = MethodHandles.filterArguments(
+                MethodHandles.throwException(target.type().returnType(), InvocationTargetException.class), 0, wrapException);
+        handler = MethodHandles.dropArguments(handler, 1, target.type().parameterList());
+
+        MethodHandle handle = MethodHandles.catchException(target, Exception.class, handler)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        try {
+            return ConstantHandleInvokers.create(handle);
+        } catch (IllegalAccessException | RuntimeException | LinkageError e) {
+            Logger logger = LoggerFactory.getLogger(MethodInvoker.class);
+            logger.warn("Could not define the invoker class of \"" + method + "\". Falling back to a lambda.", e);
+            return lambdaInvoker(handle);
+        }
+    }
+
+    /**
+     * Creates an invoker that calls a method handle from a lambda.
+     *
+     * @param handle The handle, whose type must be <code>(Object[])Object</code>.
+     * @return The invoker.
+     */
+    private static MethodInvoker lambdaInvoker(MethodHandle handle) {
+        return args -> {
+            try {
+                return (Object) handle.invokeExact(args);
+            } catch (IllegalAccessException | InvocationTargetException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.stelitop.mad4j.utils;
+
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <p>Placeholder for a method argument whose value is not known yet, for example a user or a
+ * role that still has to be fetched from Discord.</p>
+ *
+ * <p>Listeners put pending arguments into the argument array of a method and resolve all of
+ * them at once with {@link #resolveAll(Object[])} before invoking the method. This way no
+ * thread is blocked while waiting for them.</p>
+ */
+public final class PendingArgument {
+
+    private final Mono<?> value;
+
+    private PendingArgument(Mono<?> value) {
+        this.value = value;
+    }
+
+    /**
+     * Creates a pending argument. If the mono completes empty, null is injected instead.
+     *
+     * @param value The mono that emits the value of the argument.
+     * @return The pending argument.
+     */
+    public static PendingArgument of(Mono<?> value) {
+        return new PendingArgument(value);
+    }
+
+    /**
+     * Checks if any of the arguments are still pending.
+     *
+     * @param args The arguments of a method.
+     * @return True if at least one argument is a {@link PendingArgument}, false otherwise.
+     */
+    public static boolean anyPending(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof PendingArgument) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resolves all pending arguments concurrently. Once all of them are ready, the same array
+     * is emitted with every pending argument replaced by its value.
+     *
+     * @param args The arguments of a method.
+     * @return A mono emitting the resolved arguments.
+     */
+    public static Mono<Object[]> resolveAll(Object[] args) {
+        List<Integer> indexes = new ArrayList<>();
+        List<Mono<Optional<Object>>> values = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof PendingArgument pending) {
+                indexes.add(i);
+                values.add(pending.value
+                        .cast(Object.class)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()));
+            }
+        }
+        if (values.isEmpty()) return Mono.just(args);
+
+        return Mono.zip(values, results -> {
+            for (int i = 0; i < results.length; i++) {
+                args[indexes.get(i)] = ((Optional<?>) results[i]).orElse(null);
+            }
+            return args;
+        });
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.stelitop.mad4j.utils;
+
+/**
+ * <p>A memory-bounded store of token buckets, keyed by primitive long ids such as the ids of
+ * users or guilds.</p>
+ *
+ * <p>Every bucket is a single long, using the generic cell rate algorithm: the bucket keeps
+ * the time at which it would be full again, and a token can be taken as long as that time is
+ * at most the burst tolerance in the future. Buckets that are full again are idle and are
+ * removed by {@link #purge(long)}, or when space is needed for new buckets.</p>
+ *
+ * <p>The buckets are split into stripes by their key, each with its own lock, so threads
+ * using different keys rarely wait for each other. Nothing is boxed or allocated, except
+ * when a stripe is resized.</p>
+ */
+public final class TokenBucketStore {
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final int maxStripeSize;
+
+    /**
+     * Creates a new store.
+     *
+     * @param maxSize The maximum number of buckets in the store, rounded up to be split evenly
+     *                between the stripes. When the store is full, the
+     *                buckets closest to being full again are removed to make space.
+     */
+    public TokenBucketStore(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("The size of the store must be positive!");
+        this.maxStripeSize = Math.max(1, (maxSize + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     *
+     * @param key The key of the bucket.
+     * @param now The current time, in nanoseconds, from {@link System#nanoTime()}.
+     * @param interval The time it takes to add one token to the bucket, in nanoseconds.
+     * @param burst How many tokens the bucket holds beyond the first, times the interval.
+     * @return 0 if a token was taken, or the nanoseconds until a token can be taken otherwise.
+     */
+    public long tryAcquire(long key, long now, long interval, long burst) {
+        int h = hash(key);
+        Stripe stripe = stripes[h >>> 26];
+        synchronized (stripe) {
+            return stripe.tryAcquire(key, h, now, interval, burst, maxStripeSize);
+        }
+    }
+
+    /**
+     * Checks whether a token could be taken from the bucket of a key, without taking it.
+     *
+     * @param key The key of the bucket.
+     * @param now The current time, in nanoseconds, from {@link System#nanoTime()}.
+     * @param burst How many tokens the bucket holds beyond the first, times the interval.
+     * @return 0 if a token could be taken, or the nanoseconds until a token can be taken otherwise.
+     */
+    public long peek(long key, long now, long burst) {
+        int h = hash(key);
+        Stripe stripe = stripes[h >>> 26];
+        synchronized (stripe) {
+            return stripe.waitTime(stripe.getFullAt(key, h, now), now, burst);
+        }
+    }
+
+    /**
+     * Gives back a token taken with {@link #tryAcquire}, for example when the action it was
+     * taken for did not happen after all. Nothing happens if the bucket has been removed since.
+     *
+     * @param key The key of the bucket.
+     * @param interval The time it takes to add one token to the bucket, in nanoseconds.
+     */
+    public void refund(long key, long interval) {
+        int h = hash(key);
+        Stripe stripe = stripes[h >>> 26];
+        synchronized (stripe) {
+            stripe.refund(key, h, interval);
+        }
+    }
+
+    /**
+     * Removes all idle buckets, which are full again.
+     *
+     * @param now The current time, in nanoseconds, from {@link System#nanoTime()}.
+     */
+    public void purge(long now) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.purge(now, 0);
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of buckets in the store.
+     *
+     * @return The amount of buckets.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size + (stripe.hasZeroKey ? 1 : 0);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The buckets of a stripe, in an open addressing table. The key 0 marks empty slots, so
+     * its bucket is kept separately.
+     */
+    private static final class Stripe {
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private long[] fullAt = new long[INITIAL_CAPACITY];
+        private int size;
+        private boolean hasZeroKey;
+        private long zeroKeyFullAt;
+
+        private int find(long key, int h) {
+            int mask = keys.length - 1;
+            for (int i = h & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Gets the time the bucket of a key is full again, which is now for missing buckets.
+         */
+        private long getFullAt(long key, int h, long now) {
+            long bucketFullAt = now;
+            if (key == 0) {
+                if (hasZeroKey) bucketFullAt = zeroKeyFullAt;
+            } else {
+                int slot = find(key, h);
+                if (slot >= 0) bucketFullAt = fullAt[slot];
+            }
+            return bucketFullAt - now < 0 ? now : bucketFullAt;
+        }
+
+        private long waitTime(long bucketFullAt, long now, long burst) {
+            long allowedAt = bucketFullAt - burst;
+            return now - allowedAt < 0 ? allowedAt - now : 0;
+        }
+
+        private long tryAcquire(long key, int h, long now, long interval, long burst, int maxSize) {
+            long bucketFullAt = getFullAt(key, h, now);
+            long wait = waitTime(bucketFullAt, now, burst);
+            if (wait != 0) return wait;
+
+            long updated = bucketFullAt + interval;
+            int slot;
+            if (key == 0) {
+                hasZeroKey = true;
+                zeroKeyFullAt = updated;
+            } else if ((slot = find(key, h)) >= 0) {
+                fullAt[slot] = updated;
+            } else {
+                insert(key, h, updated, now, maxSize);
+            }
+            return 0;
+        }
+
+        private void refund(long key, int h, long interval) {
+            if (key == 0) {
+                if (hasZeroKey) zeroKeyFullAt -= interval;
+                return;
+            }
+            int slot = find(key, h);
+            if (slot >= 0) fullAt[slot] -= interval;
+        }
+
+        private void insert(long key, int h, long bucketFullAt, long now, int maxSize) {
+            if (size >= maxSize) {
+                purge(now, 0);
+                // Still mostly full, so the buckets closer to being full than the average are removed.
+                if (size >= maxSize - maxSize / 8) purge(now, averageRemaining(now));
+            }
+            if ((size + 1) * 2 > keys.length) rehash(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = h & mask;
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = key;
+            fullAt[i] = bucketFullAt;
+            size++;
+        }
+
+        /**
+         * Gets the average time until the buckets are full again, rounded down. Some bucket is
+         * always full again within it, so purging with it always removes a bucket. The sum is
+         * kept as a quotient and a remainder, so it cannot overflow.
+         */
+        private long averageRemaining(long now) {
+            if (size == 0) return 0;
+            long quotient = 0;
+            long remainder = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == 0) continue;
+                long remaining = Math.max(0, fullAt[i] - now);
+                quotient += remaining / size;
+                remainder += remaining % size;
+                if (remainder >= size) {
+                    quotient++;
+                    remainder -= size;
+                }
+            }
+            return quotient;
+        }
+
+        /**
+         * Removes the buckets that are full again within some time. The table is resized to
+         * fit the remaining buckets, so memory is given back after a spike.
+         */
+        private void purge(long now, long within) {
+            if (hasZeroKey && zeroKeyFullAt - now <= within) hasZeroKey = false;
+            int remaining = 0;
+            for (int j = 0; j < keys.length; j++) {
+                if (keys[j] != 0 && fullAt[j] - now > within) remaining++;
+            }
+            if (remaining == size) return;
+
+            long[] oldKeys = keys;
+            long[] oldFullAt = fullAt;
+            int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, remaining * 2)) << 1);
+            keys = new long[capacity];
+            fullAt = new long[capacity];
+            size = remaining;
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0 || oldFullAt[j] - now <= within) continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                fullAt[i] = oldFullAt[j];
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldFullAt = fullAt;
+            keys = new long[capacity];
+            fullAt = new long[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                fullAt[i] = oldFullAt[j];
+            }
+        }
+    }
+}
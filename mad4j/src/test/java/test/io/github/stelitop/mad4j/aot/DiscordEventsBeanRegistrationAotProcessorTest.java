@@ -0,0 +1,148 @@
+package test.io.github.stelitop.mad4j.aot;
+
+import discord4j.core.event.domain.interaction.ChatInputAutoCompleteEvent;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import io.github.stelitop.mad4j.DiscordEventsComponent;
+import io.github.stelitop.mad4j.aot.DiscordEventsBeanRegistrationAotProcessor;
+import io.github.stelitop.mad4j.commands.CommandParam;
+import io.github.stelitop.mad4j.commands.SlashCommand;
+import io.github.stelitop.mad4j.commands.autocomplete.AutocompletionExecutor;
+import io.github.stelitop.mad4j.commands.autocomplete.InputSuggestion;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.GeneratedInvokers;
+import io.github.stelitop.mad4j.utils.MethodInvoker;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.aot.BeanRegistrationAotContribution;
+import org.springframework.beans.factory.aot.BeanRegistrationCode;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DiscordEventsBeanRegistrationAotProcessorTest {
+
+    public enum Mode {
+        FAST, SLOW
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    @CommandRequirement(implementation = SampleRequirement.class)
+    public @interface SampleRequired {
+
+    }
+
+    public static class SampleRequirement implements CommandRequirementExecutor {
+        @Override
+        public ActionResult<Void> verify(ChatInputInteractionEvent event) {
+            return ActionResult.success();
+        }
+    }
+
+    public static class SampleAutocomplete implements AutocompletionExecutor {
+        @Override
+        public List<InputSuggestion> execute(ChatInputAutoCompleteEvent event) {
+            return List.of();
+        }
+    }
+
+    @DiscordEventsComponent
+    public static class SampleComponent {
+        @SampleRequired
+        @SlashCommand(name = "sample", description = "A sample command")
+        public void sample(
+                @CommandParam(name = "mode", description = "The mode") Mode mode,
+                @CommandParam(name = "name", description = "The name", autocomplete = SampleAutocomplete.class) String name
+        ) {
+
+        }
+    }
+
+    /**
+     * Has the name the annotation processor gives the invokers of {@link SampleComponent}.
+     */
+    public static class SampleComponent_Mad4jInvokers implements GeneratedInvokers {
+        @Override
+        public Class<?> getTargetClass() {
+            return SampleComponent.class;
+        }
+
+        @Override
+        public MethodInvoker create(Object bean, String signature) {
+            return null;
+        }
+    }
+
+    public static class OtherBean {
+
+    }
+
+    private static RuntimeHints processAheadOfTime(Class<?> beanClass) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("bean", new RootBeanDefinition(beanClass));
+        BeanRegistrationAotContribution contribution = new DiscordEventsBeanRegistrationAotProcessor()
+                .processAheadOfTime(RegisteredBean.of(beanFactory, "bean"));
+        RuntimeHints hints = new RuntimeHints();
+        if (contribution == null) return hints;
+        GenerationContext generationContext = mock(GenerationContext.class);
+        when(generationContext.getRuntimeHints()).thenReturn(hints);
+        contribution.applyTo(generationContext, mock(BeanRegistrationCode.class));
+        return hints;
+    }
+
+    @Test
+    public void eventMethodsAreRegisteredForInvocation() throws NoSuchMethodException {
+        RuntimeHints hints = processAheadOfTime(SampleComponent.class);
+
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(SampleComponent.class.getMethod("sample", Mode.class, String.class))
+                .invocation()).accepts(hints);
+    }
+
+    @Test
+    public void typesUsedByEventMethodsAreRegistered() {
+        RuntimeHints hints = processAheadOfTime(SampleComponent.class);
+
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(SampleRequirement.class)
+                .withMemberCategory(MemberCategory.INTROSPECT_PUBLIC_METHODS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(SampleAutocomplete.class)
+                .withMemberCategory(MemberCategory.INTROSPECT_PUBLIC_METHODS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(Mode.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)).accepts(hints);
+    }
+
+    @Test
+    public void generatedInvokersAreRegistered() {
+        RuntimeHints hints = processAheadOfTime(SampleComponent.class);
+
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(SampleComponent_Mad4jInvokers.class)
+                .withMemberCategories(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS))
+                .accepts(hints);
+    }
+
+    @Test
+    public void otherBeansAreNotRegistered() {
+        RuntimeHints hints = processAheadOfTime(OtherBean.class);
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(OtherBean.class)).rejects(hints);
+    }
+}
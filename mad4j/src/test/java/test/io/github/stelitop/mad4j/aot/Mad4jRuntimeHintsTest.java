@@ -0,0 +1,26 @@
+package test.io.github.stelitop.mad4j.aot;
+
+import io.github.stelitop.mad4j.aot.Mad4jRuntimeHints;
+import io.github.stelitop.mad4j.commands.autocomplete.NullAutocompleteExecutor;
+import io.github.stelitop.mad4j.utils.GeneratedInvokers;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Mad4jRuntimeHintsTest {
+
+    @Test
+    public void hintsAreRegistered() {
+        RuntimeHints hints = new RuntimeHints();
+        new Mad4jRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/" + GeneratedInvokers.class.getName())).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(NullAutocompleteExecutor.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+    }
+}
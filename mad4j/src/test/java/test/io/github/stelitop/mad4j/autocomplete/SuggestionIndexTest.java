@@ -0,0 +1,69 @@
+package test.io.github.stelitop.mad4j.autocomplete;
+
+import io.github.stelitop.mad4j.commands.autocomplete.InputSuggestion;
+import io.github.stelitop.mad4j.commands.autocomplete.SuggestionIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuggestionIndexTest {
+
+    private static SuggestionIndex indexOf(String... names) {
+        return SuggestionIndex.of(Arrays.stream(names).map(x -> InputSuggestion.create(x, x)).toList());
+    }
+
+    private static List<String> names(List<InputSuggestion> suggestions) {
+        return suggestions.stream().map(InputSuggestion::getName).toList();
+    }
+
+    @Test
+    public void prefixMatchesAreSortedAndCaseInsensitive() {
+        var index = indexOf("Iron Sword", "iron Axe", "Gold Sword", "Iron Shield");
+        assertThat(names(index.search("IRON", 25))).containsExactly("iron Axe", "Iron Shield", "Iron Sword");
+    }
+
+    @Test
+    public void emptyInputReturnsFirstEntries() {
+        var index = indexOf("c", "a", "b");
+        assertThat(names(index.search("", 2))).containsExactly("a", "b");
+    }
+
+    @Test
+    public void fuzzyMatchesFollowPrefixMatches() {
+        var index = indexOf("Sword of Flames", "Swordfish", "Flaming Sword", "Shield");
+        assertThat(names(index.search("sword", 25))).containsExactly("Sword of Flames", "Swordfish", "Flaming Sword");
+    }
+
+    @Test
+    public void typosAreMatched() {
+        var index = indexOf("Dragonscale Armor", "Leather Armor");
+        assertThat(names(index.search("dragonsclae", 25))).containsExactly("Dragonscale Armor");
+    }
+
+    @Test
+    public void limitIsRespected() {
+        var index = SuggestionIndex.of(IntStream.range(0, 100)
+                .mapToObj(i -> InputSuggestion.create("item" + i, i)).toList());
+        assertThat(index.search("item", 25)).hasSize(25);
+        assertThat(index.size()).isEqualTo(100);
+    }
+
+    @Test
+    public void equalFuzzyMatchesAreSortedByLengthThenName() {
+        var index = indexOf("Long Sword", "Great Sword", "Old Sword", "Broadsword");
+        assertThat(names(index.search("sword", 3))).containsExactly("Old Sword", "Broadsword", "Long Sword");
+    }
+
+    @Test
+    public void searchesDoNotAffectEachOther() {
+        var index = indexOf("Dragonscale Armor", "Leather Armor", "Dragon Egg");
+        var other = indexOf("Scale");
+        assertThat(names(index.search("dragonsclae", 25))).containsExactly("Dragonscale Armor");
+        assertThat(names(other.search("xscale", 25))).containsExactly("Scale");
+        assertThat(names(index.search("dragonsclae", 25))).containsExactly("Dragonscale Armor");
+    }
+}
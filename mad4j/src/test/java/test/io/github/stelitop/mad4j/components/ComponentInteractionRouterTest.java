@@ -0,0 +1,99 @@
+package test.io.github.stelitop.mad4j.components;
+
+import io.github.stelitop.mad4j.commands.components.ComponentInteractionRouter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ComponentInteractionRouterTest {
+
+    @Test
+    public void literalIdIsRouted() {
+        var router = ComponentInteractionRouter.<String>builder()
+                .add("testbutton", "literal")
+                .add("page-\\d+", "page")
+                .build();
+
+        var match = router.route("testbutton");
+        assertThat(match).isNotNull();
+        assertThat(match.target()).isEqualTo("literal");
+    }
+
+    @Test
+    public void regexIdIsRouted() {
+        var router = ComponentInteractionRouter.<String>builder()
+                .add("testbutton", "literal")
+                .add("page-\\d+", "page")
+                .add("profile-\\d+", "profile")
+                .build();
+
+        var match = router.route("page-15");
+        assertThat(match).isNotNull();
+        assertThat(match.target()).isEqualTo("page");
+        assertThat(router.route("profile-3").target()).isEqualTo("profile");
+    }
+
+    @Test
+    public void optionalCharacterIsNotPartOfPrefix() {
+        var router = ComponentInteractionRouter.<String>builder()
+                .add("colou?r", "color")
+                .build();
+
+        assertThat(router.route("color")).isNotNull();
+        assertThat(router.route("colour")).isNotNull();
+    }
+
+    @Test
+    public void alternationIsRouted() {
+        var router = ComponentInteractionRouter.<String>builder()
+                .add("yes|no", "answer")
+                .build();
+
+        assertThat(router.route("no")).isNotNull();
+        assertThat(router.route("maybe")).isNull();
+    }
+
+    @Test
+    public void unmatchedIdIsNotRouted() {
+        var router = ComponentInteractionRouter.<String>builder()
+                .add("page-\\d+", "page")
+                .build();
+
+        assertThat(router.route("page-abc")).isNull();
+        assertThat(router.route("other")).isNull();
+    }
+
+    @Test
+    public void duplicateRegexIsRejected() {
+        var builder = ComponentInteractionRouter.<String>builder()
+                .add("page-\\d+", "first")
+                .add("page-\\d+", "second");
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    public void literalMatchedByRegexIsRejected() {
+        var builder = ComponentInteractionRouter.<String>builder()
+                .add("page-1", "first")
+                .add("page-\\d+", "second");
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    public void overlappingRegexesAreCounted() {
+        var router = ComponentInteractionRouter.<String>builder()
+                .add("page-\\d+", "page")
+                .add("page-1.*", "first")
+                .add(".*-\\d+", "any")
+                .add("other", "other")
+                .build();
+
+        assertThat(router.countMatches("page-15")).isEqualTo(3);
+        assertThat(router.countMatches("page-2")).isEqualTo(2);
+        assertThat(router.countMatches("other")).isEqualTo(1);
+        assertThat(router.countMatches("none")).isZero();
+    }
+}
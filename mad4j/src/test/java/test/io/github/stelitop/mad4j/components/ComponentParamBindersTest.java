@@ -0,0 +1,130 @@
+package test.io.github.stelitop.mad4j.components;
+
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventMethod;
+import io.github.stelitop.mad4j.commands.binding.ComponentParamBinder;
+import io.github.stelitop.mad4j.commands.binding.ComponentParamBinders;
+import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+import io.github.stelitop.mad4j.commands.components.CustomIdGroup;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ComponentParamBindersTest {
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    @SuppressWarnings("unused")
+    public static class Interactions {
+        @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "item-(?<name>[a-z]+)-(?<id>\\d+)-(?<count>\\d+)-(?<color>[a-zA-Z]+)")
+        public void item(@CustomIdGroup("name") String name, @CustomIdGroup("id") long id,
+                         @CustomIdGroup("count") int count, @CustomIdGroup("color") Color color) {
+
+        }
+
+        @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "page-(?<page>\\d+)")
+        public void missingGroup(@CustomIdGroup("number") int page) {
+
+        }
+
+        @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "page(-(?<page>\\d+))?")
+        public void optionalPrimitive(@CustomIdGroup("page") int page) {
+
+        }
+
+        @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "page(-(?<page>\\d+))?")
+        public void optionalBoxed(@CustomIdGroup("page") Integer page) {
+
+        }
+
+        @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "(?<first>a)|(?<second>b)")
+        public void alternatives(@CustomIdGroup("second") long second) {
+
+        }
+
+        @ComponentInteraction(event = ButtonInteractionEvent.class, regex = "page-(?<page>[a-z0-9]+)")
+        public void notANumber(@CustomIdGroup("page") long page) {
+
+        }
+    }
+
+    private static Method getMethod(String name) {
+        return Arrays.stream(Interactions.class.getMethods())
+                .filter(method -> method.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static ActionResult<ComponentParamBinder[]> compile(String methodName) {
+        Method method = getMethod(methodName);
+        return ComponentParamBinders.compile(EventMethod.of(new Interactions(), method), method.getAnnotation(ComponentInteraction.class));
+    }
+
+    private static Object[] bind(String methodName, String customId) {
+        Method method = getMethod(methodName);
+        String regex = method.getAnnotation(ComponentInteraction.class).regex();
+        ComponentParamBinder[] binders = compile(methodName).getResponse();
+        Matcher matcher = Pattern.compile(regex).matcher(customId);
+        assertThat(matcher.matches()).isTrue();
+        Object[] args = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            args[i] = binders[i].bind(null, matcher);
+        }
+        return args;
+    }
+
+    @Test
+    public void groupsAreConvertedToTheParameterTypes() {
+        assertThat(bind("item", "item-sword-12345678901-3-GREEN")).containsExactly("sword", 12345678901L, 3, Color.GREEN);
+    }
+
+    @Test
+    public void enumConstantsCanBeLowercase() {
+        assertThat(bind("item", "item-shield-1-2-red")).containsExactly("shield", 1L, 2, Color.RED);
+    }
+
+    @Test
+    public void unknownEnumConstantsAreRejected() {
+        assertThatThrownBy(() -> bind("item", "item-shield-1-2-blue"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("\"blue\" is not a constant");
+    }
+
+    @Test
+    public void invalidNumbersAreRejected() {
+        assertThatThrownBy(() -> bind("notANumber", "page-abc")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void missingGroupIsRejected() {
+        var result = compile("missingGroup");
+        assertThat(result.hasFailed()).isTrue();
+        assertThat(result.errorMessage()).contains("The regex has no capture group named \"number\"!");
+    }
+
+    @Test
+    public void optionalGroupsCannotBePrimitive() {
+        var optional = compile("optionalPrimitive");
+        assertThat(optional.hasFailed()).isTrue();
+        assertThat(optional.errorMessage()).contains("might not match");
+
+        var alternative = compile("alternatives");
+        assertThat(alternative.hasFailed()).isTrue();
+        assertThat(alternative.errorMessage()).contains("might not match");
+    }
+
+    @Test
+    public void unmatchedOptionalGroupsAreNull() {
+        assertThat(bind("optionalBoxed", "page")).containsExactly((Object) null);
+        assertThat(bind("optionalBoxed", "page-4")).containsExactly(4);
+    }
+}
@@ -0,0 +1,59 @@
+package test.io.github.stelitop.mad4j.events;
+
+import discord4j.core.event.domain.Event;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.event.domain.interaction.InteractionCreateEvent;
+import io.github.stelitop.mad4j.events.AllowedEventResult;
+import io.github.stelitop.mad4j.events.AllowedEventResultHandler;
+import io.github.stelitop.mad4j.events.SlashCommandMonoVoidEventResult;
+import io.github.stelitop.mad4j.events.SlashCommandStringEventResult;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class AllowedEventResultHandlerTest {
+
+    private static class CharSequenceEventResult implements AllowedEventResult {
+        @Override
+        public List<Class<?>> resultTypes() {
+            return List.of(CharSequence.class);
+        }
+
+        @Override
+        public List<Class<? extends Event>> eventTypes() {
+            return List.of(InteractionCreateEvent.class);
+        }
+
+        @Override
+        public Mono<Void> transform(Object result, Event event) {
+            return Mono.empty();
+        }
+    }
+
+    @Test
+    public void disjointResultsAreAccepted() {
+        assertDoesNotThrow(() -> new AllowedEventResultHandler(List.of(
+                new SlashCommandStringEventResult(), new SlashCommandMonoVoidEventResult())));
+    }
+
+    @Test
+    public void overlappingResultsAreRejected() {
+        assertThrows(RuntimeException.class, () -> new AllowedEventResultHandler(List.of(
+                new SlashCommandStringEventResult(), new CharSequenceEventResult())));
+    }
+
+    @Test
+    public void matchingResultIsUsed() {
+        var handler = new AllowedEventResultHandler(List.of(new SlashCommandMonoVoidEventResult()));
+        var event = mock(ChatInputInteractionEvent.class);
+        assertThat(handler.handleEventResult(Mono.empty(), event).isSuccessful()).isTrue();
+        assertThat(handler.handleEventResult(Mono.empty(), event).isSuccessful()).isTrue();
+        assertThat(handler.handleEventResult("text", event).hasFailed()).isTrue();
+    }
+}
@@ -0,0 +1,172 @@
+package test.io.github.stelitop.mad4j.execution;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.event.domain.Event;
+import discord4j.core.event.domain.interaction.ButtonInteractionEvent;
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import io.github.stelitop.mad4j.execution.EventDispatcher;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class EventDispatcherTest {
+
+    @Test
+    public void listenersSubscribeDirectlyByDefault() {
+        GatewayDiscordClient client = mock(GatewayDiscordClient.class);
+        when(client.on(any(), any())).thenReturn(Flux.empty());
+        var dispatcher = new EventDispatcher(client, new MockEnvironment());
+
+        dispatcher.on(MessageCreateEvent.class, event -> Mono.empty());
+
+        assertThat(dispatcher.isPartitioned()).isFalse();
+        verify(client).on(eq(MessageCreateEvent.class), any());
+    }
+
+    @Test
+    public void partitionedListenersShareOneSubscription() {
+        GatewayDiscordClient client = mock(GatewayDiscordClient.class);
+        when(client.on(Event.class)).thenReturn(Flux.empty());
+        var dispatcher = new EventDispatcher(client, new MockEnvironment()
+                .withProperty("mad4j.dispatch.partitions", "4"));
+
+        dispatcher.on(MessageCreateEvent.class, event -> Mono.empty());
+        dispatcher.on(ButtonInteractionEvent.class, event -> Mono.empty());
+
+        assertThat(dispatcher.getPartitions()).isEqualTo(4);
+        verify(client, times(1)).on(Event.class);
+        verify(client, never()).on(any(), any());
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void keysAreSpreadOverAllPartitions() {
+        int[] counts = new int[8];
+        for (long guildId = 1; guildId <= 8000; guildId++) {
+            int partition = EventDispatcher.getPartition(guildId * 4194304L, 8);
+            assertThat(partition).isBetween(0, 7);
+            assertThat(EventDispatcher.getPartition(guildId * 4194304L, 8)).isEqualTo(partition);
+            counts[partition]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isBetween(500, 1500);
+        }
+    }
+
+    @Test
+    public void eventsOfTheSameGuildAreHandledInOrder() throws InterruptedException {
+        List<Event> events = new ArrayList<>();
+        Map<Event, Long> keys = new IdentityHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            Event event = mock(Event.class);
+            events.add(event);
+            keys.put(event, 42L);
+        }
+        var dispatcher = createDispatcher(Flux.fromIterable(events), keys, 4);
+
+        List<Event> handled = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(events.size());
+        dispatcher.on(Event.class, event -> {
+            handled.add(event);
+            done.countDown();
+            return Mono.empty();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(handled).containsExactlyElementsOf(events);
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void partitionsAreHandledInParallel() throws InterruptedException {
+        Event first = mock(Event.class);
+        Event second = mock(Event.class);
+        long secondKey = 2;
+        while (EventDispatcher.getPartition(secondKey, 4) == EventDispatcher.getPartition(1, 4)) secondKey++;
+        Map<Event, Long> keys = new IdentityHashMap<>(Map.of(first, 1L, second, secondKey));
+        var dispatcher = createDispatcher(Flux.just(first, second), keys, 4);
+
+        // The first event can only finish once the second one is handled on another partition.
+        CountDownLatch secondHandled = new CountDownLatch(1);
+        CountDownLatch firstHandled = new CountDownLatch(1);
+        dispatcher.on(Event.class, event -> {
+            if (event == second) {
+                secondHandled.countDown();
+            } else {
+                try {
+                    if (secondHandled.await(5, TimeUnit.SECONDS)) firstHandled.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Mono.empty();
+        });
+
+        assertThat(firstHandled.await(10, TimeUnit.SECONDS)).isTrue();
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void slowHandlersDoNotHoldUpTheirPartition() throws InterruptedException {
+        Event slow = mock(Event.class);
+        Event next = mock(Event.class);
+        var dispatcher = createDispatcher(Flux.just(slow, next), new IdentityHashMap<>(Map.of(slow, 1L, next, 1L)), 1);
+
+        CountDownLatch nextHandled = new CountDownLatch(1);
+        dispatcher.on(Event.class, event -> {
+            if (event == slow) return Mono.never();
+            nextHandled.countDown();
+            return Mono.empty();
+        });
+
+        assertThat(nextHandled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(dispatcher.getQueuedEvents(0)).isZero();
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void partitionsAreRegisteredAsGauges() {
+        GatewayDiscordClient client = mock(GatewayDiscordClient.class);
+        var registry = new SimpleMeterRegistry();
+        var dispatcher = new EventDispatcher(client, new MockEnvironment()
+                .withProperty("mad4j.dispatch.partitions", "3"), new Mad4jMetrics(registry));
+
+        assertThat(registry.find("mad4j.dispatch.queued").gauges()).hasSize(3);
+        assertThat(registry.get("mad4j.dispatch.queued").tag("partition", "2").gauge().value()).isZero();
+        assertThat(registry.get("mad4j.dispatch.dropped").gauge().value()).isZero();
+        dispatcher.destroy();
+    }
+
+    /**
+     * Creates a dispatcher for the given events, which partitions them by the given keys.
+     */
+    private static EventDispatcher createDispatcher(Flux<Event> events, Map<Event, Long> keys, int partitions) {
+        GatewayDiscordClient client = mock(GatewayDiscordClient.class);
+        when(client.on(Event.class)).thenReturn(events);
+        Environment environment = new MockEnvironment()
+                .withProperty("mad4j.dispatch.partitions", String.valueOf(partitions));
+        return new EventDispatcher(client, environment) {
+            @Override
+            public long getPartitionKey(Event event) {
+                return keys.get(event);
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package test.io.github.stelitop.mad4j.execution;
+
+import io.github.stelitop.mad4j.execution.Execution;
+import io.github.stelitop.mad4j.execution.ExecutionPolicies;
+import io.github.stelitop.mad4j.execution.ExecutionPolicy;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExecutionPoliciesTest {
+
+    private ExecutionPolicies executionPolicies;
+
+    @AfterEach
+    void tearDown() {
+        if (executionPolicies != null) executionPolicies.destroy();
+    }
+
+    @Execution(ExecutionPolicy.BOUNDED_ELASTIC)
+    private static class AnnotatedBean {
+        public void classPolicy() {
+
+        }
+
+        @Execution(ExecutionPolicy.INLINE)
+        public void methodPolicy() {
+
+        }
+    }
+
+    private static class PlainBean {
+        public void noPolicy() {
+
+        }
+    }
+
+    @Test
+    public void inlineTasksRunImmediately() {
+        executionPolicies = new ExecutionPolicies(new MockEnvironment());
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        Mono<String> result = executionPolicies.execute(ExecutionPolicy.DEFAULT, () -> {
+            thread.set(Thread.currentThread());
+            return Mono.just("done");
+        });
+        assertThat(thread.get()).isEqualTo(Thread.currentThread());
+        assertThat(result.block()).isEqualTo("done");
+        assertThat(executionPolicies.getStats(ExecutionPolicy.INLINE).completed()).isEqualTo(1);
+    }
+
+    @Test
+    public void boundedElasticTasksRunOnAnotherThread() {
+        executionPolicies = new ExecutionPolicies(new MockEnvironment()
+                .withProperty("mad4j.execution.policy", "bounded_elastic"));
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        Mono<String> result = executionPolicies.execute(ExecutionPolicy.DEFAULT, () -> {
+            thread.set(Thread.currentThread());
+            return Mono.just("done");
+        });
+        assertThat(thread.get()).isNull();
+        assertThat(result.block()).isEqualTo("done");
+        assertThat(thread.get()).isNotEqualTo(Thread.currentThread());
+
+        var stats = executionPolicies.getStats(ExecutionPolicy.BOUNDED_ELASTIC);
+        assertThat(stats.completed()).isEqualTo(1);
+        assertThat(stats.active()).isZero();
+        assertThat(stats.queued()).isZero();
+    }
+
+    @Test
+    public void failedTasksAreCounted() {
+        executionPolicies = new ExecutionPolicies(new MockEnvironment());
+        Mono<Object> result = executionPolicies.execute(ExecutionPolicy.BOUNDED_ELASTIC,
+                () -> Mono.error(new IllegalStateException()));
+        assertThatThrownBy(result::block).isInstanceOf(IllegalStateException.class);
+        assertThat(executionPolicies.getStats(ExecutionPolicy.BOUNDED_ELASTIC).failed()).isEqualTo(1);
+    }
+
+    @Test
+    public void tasksThrowingBeforeReturningAreCounted() {
+        executionPolicies = new ExecutionPolicies(new MockEnvironment());
+        Mono<Object> result = executionPolicies.execute(ExecutionPolicy.BOUNDED_ELASTIC, () -> {
+            throw new IllegalStateException();
+        });
+        assertThatThrownBy(result::block).isInstanceOf(IllegalStateException.class);
+
+        var stats = executionPolicies.getStats(ExecutionPolicy.BOUNDED_ELASTIC);
+        assertThat(stats.failed()).isEqualTo(1);
+        assertThat(stats.active()).isZero();
+        assertThat(stats.queued()).isZero();
+    }
+
+    @Test
+    public void virtualThreadsResolveToTheSupportedPolicy() {
+        executionPolicies = new ExecutionPolicies(new MockEnvironment()
+                .withProperty("mad4j.execution.policy", "virtual-threads"));
+        ExecutionPolicy expected = Runtime.version().feature() >= 21
+                ? ExecutionPolicy.VIRTUAL_THREADS
+                : ExecutionPolicy.BOUNDED_ELASTIC;
+        assertThat(executionPolicies.getGlobalPolicy()).isEqualTo(ExecutionPolicy.VIRTUAL_THREADS);
+        assertThat(executionPolicies.resolve(ExecutionPolicy.DEFAULT)).isEqualTo(expected);
+        assertThat(executionPolicies.execute(ExecutionPolicy.DEFAULT, () -> Mono.just(1)).block()).isEqualTo(1);
+    }
+
+    @Test
+    public void activeAndQueuedTasksAreRegisteredAsGauges() {
+        var registry = new SimpleMeterRegistry();
+        executionPolicies = new ExecutionPolicies(new MockEnvironment(), new Mad4jMetrics(registry));
+        CountDownLatch release = new CountDownLatch(1);
+        Mono<Object> running = executionPolicies.execute(ExecutionPolicy.BOUNDED_ELASTIC, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Mono.empty();
+        });
+        var subscription = running.subscribe();
+
+        Gauge active = registry.get("mad4j.execution.active").tag("policy", "bounded_elastic").gauge();
+        Gauge queued = registry.get("mad4j.execution.queued").tag("policy", "bounded_elastic").gauge();
+        await(() -> active.value() == 1);
+        assertThat(queued.value()).isZero();
+        assertThat(registry.find("mad4j.execution.active").gauges()).hasSize(3);
+
+        release.countDown();
+        await(() -> active.value() == 0);
+        subscription.dispose();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    public void unknownGlobalPolicyIsRejected() {
+        assertThatThrownBy(() -> new ExecutionPolicies(new MockEnvironment()
+                .withProperty("mad4j.execution.policy", "sometimes")))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    public void policyIsReadFromAnnotations() throws NoSuchMethodException {
+        var annotated = new AnnotatedBean();
+        var plain = new PlainBean();
+        assertThat(ExecutionPolicies.getPolicy(annotated, AnnotatedBean.class.getMethod("classPolicy")))
+                .isEqualTo(ExecutionPolicy.BOUNDED_ELASTIC);
+        assertThat(ExecutionPolicies.getPolicy(annotated, AnnotatedBean.class.getMethod("methodPolicy")))
+                .isEqualTo(ExecutionPolicy.INLINE);
+        assertThat(ExecutionPolicies.getPolicy(plain, PlainBean.class.getMethod("noPolicy")))
+                .isEqualTo(ExecutionPolicy.DEFAULT);
+    }
+}
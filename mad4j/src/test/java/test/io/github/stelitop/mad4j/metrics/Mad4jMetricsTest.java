@@ -0,0 +1,79 @@
+package test.io.github.stelitop.mad4j.metrics;
+
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Listener;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Outcome;
+import io.github.stelitop.mad4j.metrics.Mad4jMetrics.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class Mad4jMetricsTest {
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        Mad4jMetrics metrics = new Mad4jMetrics(null);
+        Mono<String> mono = Mono.just("value");
+
+        assertThat(metrics.isEnabled()).isFalse();
+        assertThat(metrics.start()).isZero();
+        assertThat(metrics.time(Listener.SLASH, Stage.RESPONSE, "ping", mono)).isSameAs(mono);
+        metrics.record(Listener.SLASH, Stage.LOOKUP, "ping", Outcome.SUCCESS, 0);
+        metrics.routingMiss(Listener.SLASH);
+    }
+
+    @Test
+    public void stagesAreTimedByCommandAndOutcome() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Mad4jMetrics metrics = new Mad4jMetrics(registry);
+
+        metrics.record(Listener.SLASH, Stage.LOOKUP, "ping", Outcome.SUCCESS, metrics.start());
+        metrics.record(Listener.SLASH, Stage.LOOKUP, "ping", Outcome.SUCCESS, metrics.start());
+        metrics.record(Listener.SLASH, Stage.EXECUTION, "ping", Outcome.ERROR, metrics.start());
+
+        Timer lookup = registry.find("mad4j.dispatch")
+                .tags("listener", "slash", "stage", "lookup", "command", "ping", "outcome", "success")
+                .timer();
+        assertThat(lookup).isNotNull();
+        assertThat(lookup.count()).isEqualTo(2);
+        assertThat(registry.find("mad4j.dispatch").tags("stage", "execution", "outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void monosAreTimedWhenTheyComplete() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Mad4jMetrics metrics = new Mad4jMetrics(registry);
+
+        Mono<String> timed = metrics.time(Listener.TEXT, Stage.RESPONSE, "ping", Mono.just("pong"));
+        assertThat(registry.find("mad4j.dispatch").timer()).isNull();
+        assertThat(timed.block()).isEqualTo("pong");
+
+        Mono<String> failing = metrics.time(Listener.TEXT, Stage.RESPONSE, "ping", Mono.error(new IllegalStateException()));
+        assertThatThrownBy(failing::block).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.find("mad4j.dispatch").tags("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.find("mad4j.dispatch").tags("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void countersAreTaggedByListener() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Mad4jMetrics metrics = new Mad4jMetrics(registry);
+
+        metrics.routingMiss(Listener.COMPONENT);
+        metrics.routingMiss(Listener.COMPONENT);
+        metrics.ambiguousRoute(Listener.COMPONENT);
+        metrics.requirementRejected(Listener.SLASH, "ping");
+
+        assertThat(registry.find("mad4j.routing.misses").tag("listener", "component").counter().count()).isEqualTo(2);
+        assertThat(registry.find("mad4j.routing.ambiguous").counter().count()).isEqualTo(1);
+        assertThat(registry.find("mad4j.requirements.rejected").tags("listener", "slash", "command", "ping").counter().count())
+                .isEqualTo(1);
+    }
+}
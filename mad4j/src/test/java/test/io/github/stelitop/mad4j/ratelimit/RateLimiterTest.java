@@ -0,0 +1,110 @@
+package test.io.github.stelitop.mad4j.ratelimit;
+
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.Cooldown;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimit;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimitRule;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimitScope;
+import io.github.stelitop.mad4j.commands.requirements.ratelimit.RateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(new MockEnvironment());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.destroy();
+    }
+
+    private static class Commands {
+        @RateLimit(capacity = 3, period = 1, unit = TimeUnit.HOURS)
+        public void limited() {
+
+        }
+
+        @Cooldown(value = 1, unit = TimeUnit.HOURS, scope = RateLimitScope.GUILD)
+        public void cooldown() {
+
+        }
+
+        @Cooldown(value = 1, unit = TimeUnit.HOURS, scope = RateLimitScope.CHANNEL)
+        @RateLimit(capacity = 2, period = 1, unit = TimeUnit.HOURS)
+        public void both() {
+
+        }
+    }
+
+    private RateLimitRule[] getRules(String methodName) throws NoSuchMethodException {
+        return rateLimiter.getRules(Commands.class.getMethod(methodName));
+    }
+
+    @Test
+    public void capacityIsAllowedInARow() throws NoSuchMethodException {
+        RateLimitRule rule = getRules("limited")[0];
+        for (int i = 0; i < 3; i++) {
+            assertThat(rule.acquire(1, 10, 100).isSuccessful()).isTrue();
+        }
+        var result = rule.acquire(1, 10, 100);
+        assertThat(result.hasFailed()).isTrue();
+        assertThat(result.errorMessage()).contains("20 minutes");
+        assertThat(rule.acquire(2, 10, 100).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void cooldownIsSharedByTheScope() throws NoSuchMethodException {
+        RateLimitRule rule = getRules("cooldown")[0];
+        assertThat(rule.acquire(1, 10, 100).isSuccessful()).isTrue();
+        assertThat(rule.acquire(2, 10, 200).hasFailed()).isTrue();
+        assertThat(rule.acquire(1, 20, 100).isSuccessful()).isTrue();
+        assertThat(rule.acquire(1, 0, 300).isSuccessful()).isTrue();
+        assertThat(rule.acquire(2, 0, 400).hasFailed()).isTrue();
+    }
+
+    @Test
+    public void reachedLimitUsesNoOtherLimit() throws NoSuchMethodException {
+        RateLimitRule[] rules = getRules("both");
+        assertThat(rules).hasSize(2);
+        assertThat(RateLimiter.acquire(rules, 1, 10, 100).isSuccessful()).isTrue();
+        // The cooldown of channel 100 stops the command, so user 1 still has one use left.
+        assertThat(RateLimiter.acquire(rules, 1, 10, 100).errorMessage()).contains("cooldown");
+        assertThat(RateLimiter.acquire(rules, 1, 10, 200).isSuccessful()).isTrue();
+        // The limit of user 1 stops the command, so the cooldown of channel 300 is not started.
+        assertThat(RateLimiter.acquire(rules, 1, 10, 300).errorMessage()).contains("too often");
+        assertThat(RateLimiter.acquire(rules, 2, 10, 300).isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void checkingDoesNotUseTheLimit() throws NoSuchMethodException {
+        RateLimitRule rule = getRules("cooldown")[0];
+        assertThat(rule.check(1, 10, 100).isSuccessful()).isTrue();
+        assertThat(rule.check(1, 10, 100).isSuccessful()).isTrue();
+        assertThat(rule.acquire(1, 10, 100).isSuccessful()).isTrue();
+        assertThat(rule.check(1, 10, 100).hasFailed()).isTrue();
+    }
+
+    @Test
+    public void releasedUseCanBeTakenAgain() throws NoSuchMethodException {
+        RateLimitRule rule = getRules("cooldown")[0];
+        assertThat(rule.acquire(1, 10, 100).isSuccessful()).isTrue();
+        rule.release(1, 10, 100);
+        assertThat(rule.acquire(1, 10, 100).isSuccessful()).isTrue();
+        assertThat(rule.acquire(1, 10, 100).hasFailed()).isTrue();
+    }
+
+    @Test
+    public void methodsWithoutLimitsHaveNoRules() throws NoSuchMethodException {
+        assertThat(rateLimiter.getRules(Object.class.getMethod("toString"))).isEmpty();
+    }
+}
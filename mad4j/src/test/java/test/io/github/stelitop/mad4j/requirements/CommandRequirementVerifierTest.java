@@ -0,0 +1,251 @@
+package test.io.github.stelitop.mad4j.requirements;
+
+import discord4j.common.util.Snowflake;
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.core.object.command.Interaction;
+import discord4j.core.object.entity.User;
+import io.github.stelitop.mad4j.commands.requirements.CacheableRequirement;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementVerifier;
+import io.github.stelitop.mad4j.commands.requirements.ReactiveCommandRequirementExecutor;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import io.github.stelitop.mad4j.utils.CacheScope;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandRequirementVerifierTest {
+
+    /**
+     * A requirement that counts how many times it was verified.
+     */
+    private static class CountingRequirement implements CommandRequirementExecutor {
+        private final AtomicInteger verifications = new AtomicInteger();
+        private final ActionResult<Void> verdict;
+
+        private CountingRequirement(ActionResult<Void> verdict) {
+            this.verdict = verdict;
+        }
+
+        @Override
+        public ActionResult<Void> verify(ChatInputInteractionEvent event) {
+            verifications.incrementAndGet();
+            return verdict;
+        }
+    }
+
+    /**
+     * A reactive requirement whose verdict arrives after a delay.
+     */
+    private static class DelayedRequirement implements ReactiveCommandRequirementExecutor {
+        private final AtomicInteger verifications = new AtomicInteger();
+        private final ActionResult<Void> verdict;
+        private final Duration delay;
+
+        private DelayedRequirement(ActionResult<Void> verdict, Duration delay) {
+            this.verdict = verdict;
+            this.delay = delay;
+        }
+
+        @Override
+        public Mono<ActionResult<Void>> verifyAsync(ChatInputInteractionEvent event) {
+            verifications.incrementAndGet();
+            return Mono.delay(delay).thenReturn(verdict);
+        }
+    }
+
+    @CacheableRequirement(scope = CacheScope.USER)
+    private static class UserRequirement extends CountingRequirement {
+        private UserRequirement() {
+            super(ActionResult.success());
+        }
+    }
+
+    @CacheableRequirement(scope = CacheScope.GUILD)
+    private static class GuildRequirement extends CountingRequirement {
+        private GuildRequirement() {
+            super(ActionResult.success());
+        }
+    }
+
+    @CacheableRequirement(scope = CacheScope.GLOBAL)
+    private static class GlobalRequirement extends CountingRequirement {
+        private GlobalRequirement() {
+            super(ActionResult.success());
+        }
+    }
+
+    @CacheableRequirement(ttlSeconds = 0)
+    private static class ExpiringRequirement extends CountingRequirement {
+        private ExpiringRequirement() {
+            super(ActionResult.fail("expired"));
+        }
+    }
+
+    @CacheableRequirement
+    private static class CachedReactiveRequirement extends DelayedRequirement {
+        private CachedReactiveRequirement() {
+            super(ActionResult.fail("reactive"), Duration.ZERO);
+        }
+    }
+
+    private static ChatInputInteractionEvent event(long guildId, long userId) {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(Snowflake.of(userId));
+        Interaction interaction = mock(Interaction.class);
+        when(interaction.getUser()).thenReturn(user);
+        when(interaction.getGuildId()).thenReturn(Optional.of(Snowflake.of(guildId)));
+        ChatInputInteractionEvent event = mock(ChatInputInteractionEvent.class);
+        when(event.getInteraction()).thenReturn(interaction);
+        return event;
+    }
+
+    private static CommandRequirementVerifier verifierOf(CommandRequirementExecutor... requirements) {
+        return new CommandRequirementVerifier(List.of(requirements));
+    }
+
+    @Test
+    public void firstFailedRequirementIsReturned() {
+        var passing = new CountingRequirement(ActionResult.success());
+        var first = new CountingRequirement(ActionResult.fail("first"));
+        var second = new CountingRequirement(ActionResult.fail("second"));
+        var verifier = verifierOf(passing, first, second);
+        CommandRequirementExecutor[] requirements = {passing, first, second};
+
+        var result = verifier.verify(event(1, 2), requirements);
+
+        assertThat(result.hasFailed()).isTrue();
+        assertThat(result.errorMessage()).isEqualTo("first");
+        assertThat(second.verifications).hasValue(0);
+    }
+
+    @Test
+    public void firstFailedRequirementIsReturnedAsync() {
+        var slow = new DelayedRequirement(ActionResult.fail("slow"), Duration.ofMillis(200));
+        var fast = new DelayedRequirement(ActionResult.fail("fast"), Duration.ZERO);
+        var sync = new CountingRequirement(ActionResult.fail("sync"));
+        var verifier = verifierOf(slow, fast, sync);
+        CommandRequirementExecutor[] requirements = {slow, fast, sync};
+
+        assertThat(verifier.isSynchronous(requirements)).isFalse();
+        var result = verifier.verifyAsync(event(1, 2), requirements).block();
+
+        assertThat(result).isNotNull();
+        assertThat(result.errorMessage()).isEqualTo("slow");
+    }
+
+    @Test
+    public void allRequirementsPassingIsASuccess() {
+        var passing = new CountingRequirement(ActionResult.success());
+        var delayed = new DelayedRequirement(ActionResult.success(), Duration.ofMillis(10));
+        var verifier = verifierOf(passing, delayed);
+
+        assertThat(verifier.verify(event(1, 2), new CommandRequirementExecutor[]{passing}).isSuccessful()).isTrue();
+        var result = verifier.verifyAsync(event(1, 2), new CommandRequirementExecutor[]{passing, delayed}).block();
+        assertThat(result).isNotNull();
+        assertThat(result.isSuccessful()).isTrue();
+    }
+
+    @Test
+    public void cachedVerdictsAreReused() {
+        var requirement = new UserRequirement();
+        var verifier = verifierOf(requirement);
+        CommandRequirementExecutor[] requirements = {requirement};
+
+        verifier.verify(event(1, 2), requirements);
+        verifier.verify(event(1, 2), requirements);
+        verifier.verifyAsync(event(1, 2), requirements).block();
+
+        assertThat(requirement.verifications).hasValue(1);
+    }
+
+    @Test
+    public void cachedReactiveVerdictsAreReused() {
+        var requirement = new CachedReactiveRequirement();
+        var verifier = verifierOf(requirement);
+        CommandRequirementExecutor[] requirements = {requirement};
+
+        var first = verifier.verifyAsync(event(1, 2), requirements).block();
+        var second = verifier.verifyAsync(event(1, 2), requirements).block();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(second.errorMessage()).isEqualTo("reactive");
+        assertThat(requirement.verifications).hasValue(1);
+    }
+
+    @Test
+    public void expiredVerdictsAreVerifiedAgain() {
+        var requirement = new ExpiringRequirement();
+        var verifier = verifierOf(requirement);
+        CommandRequirementExecutor[] requirements = {requirement};
+
+        assertThat(verifier.verify(event(1, 2), requirements).errorMessage()).isEqualTo("expired");
+        assertThat(verifier.verify(event(1, 2), requirements).errorMessage()).isEqualTo("expired");
+
+        assertThat(requirement.verifications).hasValue(2);
+    }
+
+    @Test
+    public void userScopedVerdictsAreNotShared() {
+        var requirement = new UserRequirement();
+        var verifier = verifierOf(requirement);
+        CommandRequirementExecutor[] requirements = {requirement};
+
+        verifier.verify(event(1, 2), requirements);
+        verifier.verify(event(3, 2), requirements);
+        assertThat(requirement.verifications).hasValue(1);
+
+        verifier.verify(event(1, 4), requirements);
+        assertThat(requirement.verifications).hasValue(2);
+    }
+
+    @Test
+    public void guildScopedVerdictsAreSharedInTheGuild() {
+        var requirement = new GuildRequirement();
+        var verifier = verifierOf(requirement);
+        CommandRequirementExecutor[] requirements = {requirement};
+
+        verifier.verify(event(1, 2), requirements);
+        verifier.verify(event(1, 4), requirements);
+        assertThat(requirement.verifications).hasValue(1);
+
+        verifier.verify(event(3, 2), requirements);
+        assertThat(requirement.verifications).hasValue(2);
+    }
+
+    @Test
+    public void globalVerdictsAreSharedByEveryone() {
+        var requirement = new GlobalRequirement();
+        var verifier = verifierOf(requirement);
+        CommandRequirementExecutor[] requirements = {requirement};
+
+        verifier.verify(event(1, 2), requirements);
+        verifier.verify(event(3, 4), requirements);
+
+        assertThat(requirement.verifications).hasValue(1);
+    }
+
+    @Test
+    public void invalidatedVerdictsAreVerifiedAgain() {
+        var requirement = new UserRequirement();
+        var other = new GuildRequirement();
+        var verifier = verifierOf(requirement, other);
+        CommandRequirementExecutor[] requirements = {requirement, other};
+
+        verifier.verify(event(1, 2), requirements);
+        verifier.invalidate(UserRequirement.class);
+        verifier.verify(event(1, 2), requirements);
+
+        assertThat(requirement.verifications).hasValue(2);
+        assertThat(other.verifications).hasValue(1);
+    }
+}
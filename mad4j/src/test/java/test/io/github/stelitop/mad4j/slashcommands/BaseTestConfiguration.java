@@ -11,6 +11,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -42,6 +43,10 @@ public class BaseTestConfiguration {
     ApplicationService applicationService() {
         ApplicationService applicationServiceMock = mock(ApplicationService.class);
         when(applicationServiceMock.bulkOverwriteGlobalApplicationCommand(eq(TEST_APPLICATION_ID), any())).thenReturn(Flux.empty());
+        when(applicationServiceMock.getGlobalApplicationCommands(eq(TEST_APPLICATION_ID))).thenReturn(Flux.empty());
+        when(applicationServiceMock.createGlobalApplicationCommand(eq(TEST_APPLICATION_ID), any())).thenReturn(Mono.empty());
+        when(applicationServiceMock.getGuildApplicationCommands(eq(TEST_APPLICATION_ID), anyLong())).thenReturn(Flux.empty());
+        when(applicationServiceMock.bulkOverwriteGuildApplicationCommand(eq(TEST_APPLICATION_ID), anyLong(), any())).thenReturn(Flux.empty());
         return applicationServiceMock;
     }
 }
\ No newline at end of file
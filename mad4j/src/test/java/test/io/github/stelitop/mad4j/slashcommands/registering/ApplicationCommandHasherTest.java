@@ -0,0 +1,43 @@
+package test.io.github.stelitop.mad4j.slashcommands.registering;
+
+import discord4j.discordjson.json.ApplicationCommandOptionData;
+import discord4j.discordjson.json.ApplicationCommandRequest;
+import io.github.stelitop.mad4j.commands.ApplicationCommandHasher;
+import io.github.stelitop.mad4j.utils.OptionType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ApplicationCommandHasherTest {
+
+    private static ApplicationCommandRequest request(String description, boolean explicitlyOptional) {
+        var option = ApplicationCommandOptionData.builder()
+                .name("x")
+                .description("The number.")
+                .type(OptionType.INTEGER);
+        if (explicitlyOptional) option.required(false);
+        return ApplicationCommandRequest.builder()
+                .name("number")
+                .description(description)
+                .addOption(option.build())
+                .build();
+    }
+
+    @Test
+    public void equalCommandsHaveEqualHashes() {
+        assertThat(ApplicationCommandHasher.hash(request("A command.", false)))
+                .isEqualTo(ApplicationCommandHasher.hash(request("A command.", false)));
+    }
+
+    @Test
+    public void defaultValuesDoNotChangeTheHash() {
+        assertThat(ApplicationCommandHasher.hash(request("A command.", true)))
+                .isEqualTo(ApplicationCommandHasher.hash(request("A command.", false)));
+    }
+
+    @Test
+    public void changedCommandsHaveDifferentHashes() {
+        assertThat(ApplicationCommandHasher.hash(request("A command.", false)))
+                .isNotEqualTo(ApplicationCommandHasher.hash(request("Another command.", false)));
+    }
+}
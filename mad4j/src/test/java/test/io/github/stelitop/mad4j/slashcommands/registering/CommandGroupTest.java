@@ -19,8 +19,6 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.junit4.SpringRunner;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
@@ -53,12 +51,12 @@ public class CommandGroupTest {
 
     @Test
     public void testLoadingCommand() {
-        ArgumentCaptor<List<ApplicationCommandRequest>> argumentCaptor = ArgumentCaptor.forClass(List.class);
-        verify(applicationServiceMock, times(1)).bulkOverwriteGlobalApplicationCommand(
+        ArgumentCaptor<ApplicationCommandRequest> argumentCaptor = ArgumentCaptor.forClass(ApplicationCommandRequest.class);
+        verify(applicationServiceMock, times(1)).getGlobalApplicationCommands(BaseTestConfiguration.TEST_APPLICATION_ID);
+        verify(applicationServiceMock, times(1)).createGlobalApplicationCommand(
                 eq(BaseTestConfiguration.TEST_APPLICATION_ID), argumentCaptor.capture());
 
-        assertThat(argumentCaptor.getValue()).hasSize(1);
-        ApplicationCommandRequest request = argumentCaptor.getValue().get(0);
+        ApplicationCommandRequest request = argumentCaptor.getValue();
         assertThat(request.name()).isEqualTo("add");
         assertThat(request.options().get()).hasSize(1);
         assertThat(request.options().get().get(0).type()).isEqualTo(OptionType.SUB_COMMAND);
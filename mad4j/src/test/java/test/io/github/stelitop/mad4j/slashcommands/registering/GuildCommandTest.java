@@ -0,0 +1,64 @@
+package test.io.github.stelitop.mad4j.slashcommands.registering;
+
+import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
+import discord4j.discordjson.json.ApplicationCommandRequest;
+import discord4j.rest.service.ApplicationService;
+import io.github.stelitop.mad4j.DiscordEventsComponent;
+import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.commands.SlashCommand;
+import test.io.github.stelitop.mad4j.slashcommands.BaseTestConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "mad4j.slashcommands.guilds=" + GuildCommandTest.TEST_GUILD_ID)
+@Import({BaseTestConfiguration.class, GuildCommandTest.TestComponent.class})
+public class GuildCommandTest {
+
+    static final long TEST_GUILD_ID = 42L;
+
+    @Autowired
+    private ApplicationService applicationServiceMock;
+
+    @DiscordEventsComponent
+    public static class TestComponent {
+
+        @SlashCommand(name = "ping", description = "Replies with pong.")
+        public Mono<Void> pingCommand(@InteractionEvent ChatInputInteractionEvent event) {
+            return event.reply("pong");
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void commandsAreRegisteredInTheGuild() {
+        ArgumentCaptor<List<ApplicationCommandRequest>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(applicationServiceMock, times(1)).getGuildApplicationCommands(BaseTestConfiguration.TEST_APPLICATION_ID, TEST_GUILD_ID);
+        verify(applicationServiceMock, times(1)).bulkOverwriteGuildApplicationCommand(
+                eq(BaseTestConfiguration.TEST_APPLICATION_ID), eq(TEST_GUILD_ID), argumentCaptor.capture());
+
+        assertThat(argumentCaptor.getValue()).extracting(ApplicationCommandRequest::name).containsExactly("ping");
+    }
+
+    @Test
+    public void globalCommandsAreNotTouched() {
+        verify(applicationServiceMock, never()).getGlobalApplicationCommands(anyLong());
+        verify(applicationServiceMock, never()).bulkOverwriteGlobalApplicationCommand(anyLong(), any());
+        verify(applicationServiceMock, never()).createGlobalApplicationCommand(anyLong(), any());
+        verify(applicationServiceMock, never()).deleteGlobalApplicationCommand(anyLong(), anyLong());
+    }
+}
@@ -8,6 +8,9 @@ import io.github.stelitop.mad4j.commands.InteractionEvent;
 import io.github.stelitop.mad4j.commands.SlashCommand;
 import io.github.stelitop.mad4j.commands.convenience.EventUser;
 import io.github.stelitop.mad4j.commands.convenience.EventUserId;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirement;
+import io.github.stelitop.mad4j.commands.requirements.CommandRequirementExecutor;
+import io.github.stelitop.mad4j.utils.ActionResult;
 import test.io.github.stelitop.mad4j.slashcommands.BaseTestConfiguration;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.SpringApplication;
@@ -15,6 +18,11 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Import;
 import reactor.core.publisher.Mono;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -173,4 +181,77 @@ public class IncorrectCommandMethodDefinitionTest {
             assertThrows(RuntimeException.class, springApplication::run);
         }
     }
+
+    public static class DuplicateCommandNameTest {
+        @DiscordEventsComponent
+        public static class TestComponent {
+
+            @SlashCommand(name = "duplicate", description = "Not relevant")
+            public Mono<Void> firstCommand(
+                    @InteractionEvent ChatInputInteractionEvent event
+            ) {
+                return event.reply("Reply!");
+            }
+
+            @SlashCommand(name = "Duplicate", description = "Not relevant")
+            public Mono<Void> secondCommand(
+                    @InteractionEvent ChatInputInteractionEvent event
+            ) {
+                return event.reply("Reply!");
+            }
+        }
+
+        @EnableAutoConfiguration
+        @Import({BaseTestConfiguration.class, TestComponent.class})
+        protected static class TestApplication {
+
+        }
+
+        @Test
+        public void test() {
+            SpringApplication springApplication = new SpringApplication(TestApplication.class);
+            assertThrows(RuntimeException.class, springApplication::run);
+        }
+    }
+
+    public static class MissingRequirementBeanTest {
+
+        public static class MissingRequirementImplementation implements CommandRequirementExecutor {
+            @Override
+            public ActionResult<Void> verify(ChatInputInteractionEvent event) {
+                return ActionResult.success();
+            }
+        }
+
+        @CommandRequirement(implementation = MissingRequirementImplementation.class)
+        @Target(ElementType.METHOD)
+        @Retention(RetentionPolicy.RUNTIME)
+        public @interface MissingRequirement {
+
+        }
+
+        @DiscordEventsComponent
+        public static class TestComponent {
+
+            @MissingRequirement
+            @SlashCommand(name = "notrelevant", description = "Not relevant")
+            public Mono<Void> requirementCommand(
+                    @InteractionEvent ChatInputInteractionEvent event
+            ) {
+                return event.reply("Reply!");
+            }
+        }
+
+        @EnableAutoConfiguration
+        @Import({BaseTestConfiguration.class, TestComponent.class})
+        protected static class TestApplication {
+
+        }
+
+        @Test
+        public void test() {
+            SpringApplication springApplication = new SpringApplication(TestApplication.class);
+            assertThrows(RuntimeException.class, springApplication::run);
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package test.io.github.stelitop.mad4j.text;
+
+import io.github.stelitop.mad4j.commands.text.PrefixCache;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrefixCacheTest {
+
+    @Test
+    public void missingPrefixIsLoadedInTheBackground() {
+        List<Long> loads = new ArrayList<>();
+        var cache = new PrefixCache(id -> {
+            loads.add(id);
+            return Map.of(1L, "$").get(id);
+        }, 100, Duration.ofMinutes(10), Schedulers.immediate());
+
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(1)).isEqualTo("$");
+        assertThat(cache.get(1)).isEqualTo("$");
+        assertThat(loads).containsExactly(1L);
+    }
+
+    @Test
+    public void guildsWithoutPrefixAreCached() {
+        List<Long> loads = new ArrayList<>();
+        var cache = new PrefixCache(id -> {
+            loads.add(id);
+            return null;
+        }, 100, Duration.ofMinutes(10), Schedulers.immediate());
+
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(2)).isNull();
+        assertThat(loads).containsExactly(2L);
+    }
+
+    @Test
+    public void invalidatedPrefixIsLoadedAgain() {
+        List<Long> loads = new ArrayList<>();
+        var cache = new PrefixCache(id -> {
+            loads.add(id);
+            return "$";
+        }, 100, Duration.ofMinutes(10), Schedulers.immediate());
+
+        cache.load(1);
+        cache.put(1, "?");
+        assertThat(cache.get(1)).isEqualTo("?");
+        cache.invalidate(1);
+        cache.get(1);
+        assertThat(cache.get(1)).isEqualTo("$");
+        assertThat(loads).containsExactly(1L, 1L);
+    }
+
+    @Test
+    public void outdatedPrefixIsUsedWhileReloading() {
+        List<Long> loads = new ArrayList<>();
+        var cache = new PrefixCache(id -> {
+            loads.add(id);
+            return loads.size() == 1 ? "$" : "?";
+        }, 100, Duration.ZERO, Schedulers.immediate());
+
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(1)).isEqualTo("$");
+        assertThat(cache.get(1)).isEqualTo("?");
+        assertThat(loads).containsExactly(1L, 1L, 1L);
+    }
+
+    @Test
+    public void invalidatedPrefixIsUsedUntilReloaded() {
+        var cache = new PrefixCache(id -> "$", 100, Duration.ofMinutes(10), Schedulers.immediate());
+        cache.put(1, "?");
+        cache.invalidate(1);
+
+        assertThat(cache.get(1)).isEqualTo("?");
+        assertThat(cache.get(1)).isEqualTo("$");
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        var cache = new PrefixCache(id -> "$", 16, Duration.ofMinutes(10), Schedulers.immediate());
+        for (long id = 1; id <= 1000; id++) {
+            cache.load(id);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    public void readGuildsAreEvictedLast() {
+        var cache = new PrefixCache(id -> "$", 160, Duration.ofMinutes(10), Schedulers.immediate());
+        cache.put(1, "?");
+        for (long id = 2; id <= 1000; id++) {
+            cache.get(1);
+            cache.load(id);
+        }
+        assertThat(cache.get(1)).isEqualTo("?");
+    }
+}
@@ -0,0 +1,73 @@
+package test.io.github.stelitop.mad4j.text;
+
+import discord4j.core.event.domain.message.MessageCreateEvent;
+import io.github.stelitop.mad4j.DiscordEventsMetadata.EventMethod;
+import io.github.stelitop.mad4j.commands.CommandParam;
+import io.github.stelitop.mad4j.commands.InteractionEvent;
+import io.github.stelitop.mad4j.commands.binding.TextCommandParamBinder;
+import io.github.stelitop.mad4j.commands.binding.TextCommandParamBinders;
+import io.github.stelitop.mad4j.commands.text.TextCommandTokenizer;
+import io.github.stelitop.mad4j.commands.text.TextCommandTokens;
+import io.github.stelitop.mad4j.utils.ActionResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TextCommandParamBindersTest {
+
+    public static class Commands {
+        public void give(@InteractionEvent MessageCreateEvent event,
+                         @CommandParam(name = "target", description = "target") String target,
+                         Object unannotated,
+                         @CommandParam(name = "amount", description = "amount") Long amount,
+                         @CommandParam(name = "ratio", description = "ratio") Double ratio,
+                         @CommandParam(name = "public", description = "public") Boolean isPublic) {
+
+        }
+
+        public void take(@CommandParam(name = "amount", description = "amount") long amount) {
+
+        }
+    }
+
+    private static EventMethod getMethod(String name) {
+        var method = Arrays.stream(Commands.class.getMethods())
+                .filter(m -> m.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+        return EventMethod.of(new Commands(), method);
+    }
+
+    private static Object[] bind(MessageCreateEvent event, String content) {
+        TextCommandParamBinder[] binders = TextCommandParamBinders.compile(getMethod("give")).getResponse();
+        TextCommandTokens tokens = TextCommandTokenizer.tokenize(content, 1);
+        Object[] args = new Object[binders.length];
+        for (int i = 0; i < binders.length; i++) {
+            args[i] = binders[i].bind(event, tokens, 1);
+        }
+        return args;
+    }
+
+    @Test
+    public void inputsAreBoundInOrder() {
+        MessageCreateEvent event = mock(MessageCreateEvent.class);
+        assertThat(bind(event, "!give \"Some One\" 150 0.5 TRUE"))
+                .containsExactly(event, "Some One", null, 150L, 0.5, true);
+    }
+
+    @Test
+    public void missingOrInvalidInputsAreNull() {
+        assertThat(bind(null, "!give someone lots")).containsExactly(null, "someone", null, null, null, null);
+        assertThat(bind(null, "!give someone 1 half maybe")).containsExactly(null, "someone", null, 1L, null, null);
+    }
+
+    @Test
+    public void primitiveInputsAreRejected() {
+        ActionResult<TextCommandParamBinder[]> binders = TextCommandParamBinders.compile(getMethod("take"));
+        assertThat(binders.hasFailed()).isTrue();
+        assertThat(binders.errorMessage()).contains("cannot be primitive");
+    }
+}
@@ -0,0 +1,65 @@
+package test.io.github.stelitop.mad4j.text;
+
+import io.github.stelitop.mad4j.commands.text.PrefixProvider;
+import io.github.stelitop.mad4j.commands.text.TextCommandSettings;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextCommandSettingsTest {
+
+    private static class MapPrefixProvider implements PrefixProvider {
+        private final Map<Long, String> prefixes = new ConcurrentHashMap<>();
+
+        @Override
+        public @Nullable String loadPrefix(long guildId) {
+            return prefixes.get(guildId);
+        }
+
+        @Override
+        public void savePrefix(long guildId, @Nullable String prefix) {
+            if (prefix == null) prefixes.remove(guildId);
+            else prefixes.put(guildId, prefix);
+        }
+    }
+
+    @Test
+    public void defaultPrefixIsReadFromProperties() {
+        var settings = new TextCommandSettings(new MockEnvironment()
+                .withProperty("mad4j.textcommands.prefix", "?"), new MapPrefixProvider());
+        assertThat(settings.getPrefix(0)).isEqualTo("?");
+        assertThat(settings.getPrefix(1)).isEqualTo("?");
+    }
+
+    @Test
+    public void prefixCanBeChanged() {
+        var provider = new MapPrefixProvider();
+        var settings = new TextCommandSettings(new MockEnvironment(), provider);
+        assertThat(settings.getPrefix(1)).isEqualTo("!");
+        settings.setPrefix(1, "$").block();
+        assertThat(settings.getPrefix(1)).isEqualTo("$");
+        assertThat(provider.loadPrefix(1)).isEqualTo("$");
+        settings.setPrefix(1, null).block();
+        assertThat(settings.getPrefix(1)).isEqualTo("!");
+        assertThat(provider.loadPrefix(1)).isNull();
+    }
+
+    @Test
+    public void channelsCanBeDisabled() {
+        var settings = new TextCommandSettings(new MockEnvironment()
+                .withProperty("mad4j.textcommands.disabledchannels", "30,10"), new MapPrefixProvider());
+        assertThat(settings.isDisabled(10)).isTrue();
+        assertThat(settings.isDisabled(20)).isFalse();
+        assertThat(settings.isDisabled(30)).isTrue();
+        settings.setDisabled(20, true);
+        settings.setDisabled(10, false);
+        assertThat(settings.isDisabled(10)).isFalse();
+        assertThat(settings.isDisabled(20)).isTrue();
+        assertThat(settings.isDisabled(30)).isTrue();
+    }
+}
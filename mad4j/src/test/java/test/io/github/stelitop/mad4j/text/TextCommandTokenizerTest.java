@@ -0,0 +1,79 @@
+package test.io.github.stelitop.mad4j.text;
+
+import io.github.stelitop.mad4j.commands.text.TextCommandTokenizer;
+import io.github.stelitop.mad4j.commands.text.TextCommandTokens;
+import io.github.stelitop.mad4j.commands.text.TextCommandTrie;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TextCommandTokenizerTest {
+
+    private static List<String> values(TextCommandTokens tokens) {
+        List<String> ret = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) ret.add(tokens.get(i));
+        return ret;
+    }
+
+    @Test
+    public void splitsOnWhitespace() {
+        var tokens = TextCommandTokenizer.tokenize("!ping   a\tb ", 1);
+        assertThat(values(tokens)).containsExactly("ping", "a", "b");
+        assertThat(tokens.start(0)).isEqualTo(1);
+        assertThat(tokens.end(0)).isEqualTo(5);
+    }
+
+    @Test
+    public void quotedTokensKeepWhitespace() {
+        var tokens = TextCommandTokenizer.tokenize("say \"hello there\" world", 0);
+        assertThat(values(tokens)).containsExactly("say", "hello there", "world");
+        assertThat(tokens.isEscaped(1)).isTrue();
+        assertThat(tokens.isEscaped(2)).isFalse();
+    }
+
+    @Test
+    public void escapedCharactersAreUnescaped() {
+        var tokens = TextCommandTokenizer.tokenize("\"a \\\"b\\\" \\\\\" c\\ d", 0);
+        assertThat(values(tokens)).containsExactly("a \"b\" \\", "c d");
+    }
+
+    @Test
+    public void unterminatedQuoteRunsToTheEnd() {
+        var tokens = TextCommandTokenizer.tokenize("say \"hello there", 0);
+        assertThat(values(tokens)).containsExactly("say", "hello there");
+    }
+
+    @Test
+    public void longestCommandNameIsMatched() {
+        var trie = TextCommandTrie.of(Map.of("user", 1, "user info", 2, "user info full", 3));
+        var match = trie.find(TextCommandTokenizer.tokenize("USER Info someone", 0));
+        assertThat(match).isNotNull();
+        assertThat(match.value()).isEqualTo(2);
+        assertThat(match.length()).isEqualTo(2);
+    }
+
+    @Test
+    public void partialCommandNameIsNotMatched() {
+        var trie = TextCommandTrie.of(Map.of("user info", 1));
+        assertThat(trie.find(TextCommandTokenizer.tokenize("user", 0))).isNull();
+        assertThat(trie.find(TextCommandTokenizer.tokenize("\"user\" info", 0))).isNull();
+        assertThat(trie.find(TextCommandTokenizer.tokenize("", 0))).isNull();
+    }
+
+    @Test
+    public void manyCommandsAreFound() {
+        Map<String, Integer> commands = new HashMap<>();
+        for (int i = 0; i < 100; i++) commands.put("cmd" + i + " sub", i);
+        var trie = TextCommandTrie.of(commands);
+        for (int i = 0; i < 100; i++) {
+            var match = trie.find(TextCommandTokenizer.tokenize("cmd" + i + " sub x", 0));
+            assertThat(match).isNotNull();
+            assertThat(match.value()).isEqualTo(i);
+        }
+    }
+}
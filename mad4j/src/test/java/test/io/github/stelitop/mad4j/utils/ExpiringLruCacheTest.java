@@ -0,0 +1,54 @@
+package test.io.github.stelitop.mad4j.utils;
+
+import io.github.stelitop.mad4j.utils.ExpiringLruCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpiringLruCacheTest {
+
+    @Test
+    public void storedValueIsReturned() {
+        var cache = new ExpiringLruCache<String, Integer>(10, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        var cache = new ExpiringLruCache<String, Integer>(2, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredValueIsNotReturned() {
+        var cache = new ExpiringLruCache<String, Integer>(10, Duration.ZERO);
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidatedValueIsNotReturned() {
+        var cache = new ExpiringLruCache<String, Integer>(10, Duration.ofMinutes(1));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.invalidate("a");
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,44 @@
+package test.io.github.stelitop.mad4j.utils;
+
+import io.github.stelitop.mad4j.utils.LongObjectMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongObjectMapTest {
+
+    @Test
+    public void storedValuesAreReturned() {
+        var map = new LongObjectMap<String>();
+        assertThat(map.put(1L, "a")).isNull();
+        assertThat(map.put(2L, "b")).isNull();
+        assertThat(map.put(1L, "c")).isEqualTo("a");
+        assertThat(map.get(1L)).isEqualTo("c");
+        assertThat(map.get(2L)).isEqualTo("b");
+        assertThat(map.get(3L)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void behavesLikeHashMap() {
+        var map = new LongObjectMap<Long>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                assertThat(map.put(key, key * 2)).isEqualTo(expected.put(key, key * 2));
+            } else {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 500; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+}
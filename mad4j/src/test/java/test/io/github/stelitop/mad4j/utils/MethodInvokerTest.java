@@ -0,0 +1,63 @@
+package test.io.github.stelitop.mad4j.utils;
+
+import io.github.stelitop.mad4j.utils.MethodInvoker;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MethodInvokerTest {
+
+    public static class Bean {
+        public long add(long a, String b) throws Exception {
+            return switch (b) {
+                case "checked" -> throw new Exception("checked");
+                case "unchecked" -> throw new IllegalStateException("unchecked");
+                case "error" -> throw new AssertionError("error");
+                default -> a + b.length();
+            };
+        }
+
+        public void nothing() {
+
+        }
+    }
+
+    private static MethodInvoker invokerOf(String name, Class<?>... parameterTypes) throws Exception {
+        return MethodInvoker.methodHandleInvoker(new Bean(), Bean.class.getMethod(name, parameterTypes));
+    }
+
+    @Test
+    public void methodsAreInvoked() throws Exception {
+        assertThat(invokerOf("add", long.class, String.class).invoke(1L, "ab")).isEqualTo(3L);
+        assertThat(invokerOf("nothing").invoke()).isNull();
+    }
+
+    @Test
+    public void everyMethodHasItsOwnInvokerClass() throws Exception {
+        assertThat(invokerOf("add", long.class, String.class).getClass())
+                .isNotEqualTo(invokerOf("nothing").getClass());
+    }
+
+    @Test
+    public void exceptionsOfTheMethodAreWrapped() throws Exception {
+        MethodInvoker invoker = invokerOf("add", long.class, String.class);
+        assertThatThrownBy(() -> invoker.invoke(1L, "checked"))
+                .isInstanceOf(InvocationTargetException.class)
+                .cause().hasMessage("checked");
+        assertThatThrownBy(() -> invoker.invoke(1L, "unchecked"))
+                .isInstanceOf(InvocationTargetException.class)
+                .cause().isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void errorsAndWrongArgumentsAreNotWrapped() throws Exception {
+        MethodInvoker invoker = invokerOf("add", long.class, String.class);
+        assertThatThrownBy(() -> invoker.invoke(1L, "error")).isInstanceOf(AssertionError.class);
+        assertThatThrownBy(() -> invoker.invoke("1", "a")).isInstanceOf(ClassCastException.class);
+        assertThatThrownBy(() -> invoker.invoke(null, "a")).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> invoker.invoke(1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package test.io.github.stelitop.mad4j.utils;
+
+import io.github.stelitop.mad4j.utils.TokenBucketStore;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketStoreTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void burstIsAllowedThenWaitIsReported() {
+        TokenBucketStore store = new TokenBucketStore(100);
+        assertThat(store.tryAcquire(5, 0, SECOND, SECOND)).isZero();
+        assertThat(store.tryAcquire(5, 0, SECOND, SECOND)).isZero();
+        assertThat(store.tryAcquire(5, 0, SECOND, SECOND)).isEqualTo(SECOND);
+        assertThat(store.tryAcquire(5, SECOND, SECOND, SECOND)).isZero();
+    }
+
+    @Test
+    public void peekDoesNotTakeATokenAndRefundGivesItBack() {
+        TokenBucketStore store = new TokenBucketStore(100);
+        assertThat(store.peek(5, 0, 0)).isZero();
+        assertThat(store.size()).isZero();
+        assertThat(store.tryAcquire(5, 0, SECOND, 0)).isZero();
+        assertThat(store.peek(5, 0, 0)).isEqualTo(SECOND);
+        store.refund(5, SECOND);
+        assertThat(store.peek(5, 0, 0)).isZero();
+    }
+
+    @Test
+    public void zeroKeyIsABucketLikeAnyOther() {
+        TokenBucketStore store = new TokenBucketStore(100);
+        assertThat(store.tryAcquire(0, 0, SECOND, 0)).isZero();
+        assertThat(store.tryAcquire(0, 0, SECOND, 0)).isEqualTo(SECOND);
+        assertThat(store.size()).isEqualTo(1);
+        store.refund(0, SECOND);
+        assertThat(store.tryAcquire(0, 0, SECOND, 0)).isZero();
+    }
+
+    @Test
+    public void purgeRemovesOnlyFullBuckets() {
+        TokenBucketStore store = new TokenBucketStore(1000);
+        for (long key = 1; key <= 100; key++) {
+            store.tryAcquire(key, 0, key <= 50 ? SECOND : 10 * SECOND, 0);
+        }
+        assertThat(store.size()).isEqualTo(100);
+
+        store.purge(5 * SECOND);
+        assertThat(store.size()).isEqualTo(50);
+        // The remaining buckets keep their state.
+        assertThat(store.tryAcquire(100, 5 * SECOND, 10 * SECOND, 0)).isEqualTo(5 * SECOND);
+        assertThat(store.tryAcquire(1, 5 * SECOND, SECOND, 0)).isZero();
+    }
+
+    @Test
+    public void sizeIsBoundedByEvictingBuckets() {
+        TokenBucketStore store = new TokenBucketStore(128);
+        for (long key = 1; key <= 100_000; key++) {
+            assertThat(store.tryAcquire(key, key, 3600 * SECOND, 0)).isZero();
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(128);
+    }
+
+    @Test
+    public void sizeIsBoundedWhenBucketsAreFullAgainAlmostImmediately() {
+        // The time until the buckets are full again is smaller than the amount of buckets,
+        // so an average rounded per bucket would be 0 and evict nothing.
+        TokenBucketStore store = new TokenBucketStore(128);
+        for (long key = 1; key <= 100_000; key++) {
+            assertThat(store.tryAcquire(key, 0, 5, 0)).isZero();
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(128);
+    }
+
+    @Test
+    public void evictionKeepsTheBucketsThatAreFullLast() {
+        TokenBucketStore store = new TokenBucketStore(512);
+        store.tryAcquire(1, 0, 3600 * SECOND, 0);
+        for (long key = 2; key <= 10_000; key++) {
+            store.tryAcquire(key, 0, SECOND, 0);
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(512);
+        assertThat(store.peek(1, 0, 0)).isEqualTo(3600 * SECOND);
+    }
+}
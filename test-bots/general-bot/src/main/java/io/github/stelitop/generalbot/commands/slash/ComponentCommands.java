@@ -10,6 +10,7 @@ import io.github.stelitop.mad4j.DiscordEventsComponent;
 import io.github.stelitop.mad4j.commands.InteractionEvent;
 import io.github.stelitop.mad4j.commands.SlashCommand;
 import io.github.stelitop.mad4j.commands.components.ComponentInteraction;
+import io.github.stelitop.mad4j.commands.components.CustomIdGroup;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -66,4 +67,30 @@ public class ComponentCommands {
                         SelectMenu.Option.of("three", "three")
                 ))));
     }
+
+    @ComponentInteraction(
+            event = ButtonInteractionEvent.class,
+            regex = "testpage-(?<page>\\d+)"
+    )
+    public Mono<Void> testpage(
+            @InteractionEvent
+            ButtonInteractionEvent event,
+            @CustomIdGroup("page")
+            int page
+    ) {
+        return event.edit("Page " + page)
+                .withComponents(ActionRow.of(Button.primary("testpage-" + (page + 1), "Next page")));
+    }
+
+    @SlashCommand(
+            name = "component pages",
+            description = "Creates a button that goes to the next page. Tests custom id capture groups."
+    )
+    public Mono<Void> pages(
+            @InteractionEvent
+            ChatInputInteractionEvent event
+    ) {
+        return event.reply("Page 1")
+                .withComponents(ActionRow.of(Button.primary("testpage-2", "Next page")));
+    }
 }